@@ -0,0 +1,79 @@
+package com.github.brunomarq.searchcli.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.github.brunomarq.searchcli.Entrypoint;
+import com.github.brunomarq.searchcli.repository.OrganizationSearchRepository;
+import com.github.brunomarq.searchcli.repository.TicketSearchRepository;
+import com.github.brunomarq.searchcli.repository.UserSearchRepository;
+import com.github.brunomarq.searchcli.service.SearchService;
+import com.github.brunomarq.searchcli.utils.ResponseFormatter;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/*
+* Application context with the database loaded from either the bundled json files or the synthetic
+* ones, shared by all the threads of a benchmark.
+*/
+@State(Scope.Benchmark)
+public class DatasetState {
+
+    static final String BUNDLED = "bundled";
+
+    static final int SCALE_FACTOR = 1000;
+
+    @Param({ BUNDLED, "x" + SCALE_FACTOR })
+    public String dataset;
+
+    // Directory of the json files. The bundled ones are read from the sources, as
+    // the test resources would shadow them on the benchmark classpath.
+    String directoryPath;
+
+    ConfigurableApplicationContext context;
+
+    SearchService searchService;
+
+    ResponseFormatter responseFormatter;
+
+    OrganizationSearchRepository organizationRepository;
+
+    TicketSearchRepository ticketRepository;
+
+    UserSearchRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directoryPath = BUNDLED.equals(dataset) ? SyntheticDataset.BUNDLED_DIRECTORY.toString()
+                : SyntheticDataset.generate(SCALE_FACTOR).toString();
+        context = SpringApplication.run(Entrypoint.class, "--spring.shell.interactive.enabled=false",
+                "--logging.level.com.github.brunomarq=WARN");
+        searchService = context.getBean(SearchService.class);
+        responseFormatter = context.getBean(ResponseFormatter.class);
+        organizationRepository = context.getBean(OrganizationSearchRepository.class);
+        ticketRepository = context.getBean(TicketSearchRepository.class);
+        userRepository = context.getBean(UserSearchRepository.class);
+        searchService.loadDatabase(directoryPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * @param fileName name of one of the json files.
+     * @return String path of the json file in the dataset.
+     */
+    String filePath(String fileName) {
+        return Paths.get(directoryPath, fileName).toString();
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.github.brunomarq.searchcli.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.github.brunomarq.searchcli.domain.Entity;
+import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.dto.OrganizationDTO;
+import com.github.brunomarq.searchcli.dto.TicketDTO;
+import com.github.brunomarq.searchcli.dto.UserDTO;
+import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+* Time taken to render search results as tables, on results computed once beforehand.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatterBenchmark {
+
+    /*
+    * Results of broad searches, so the tables grow with the dataset.
+    */
+    @State(Scope.Benchmark)
+    public static class Results {
+
+        List<OrganizationDTO> organizations;
+
+        List<TicketDTO> tickets;
+
+        List<UserDTO> users;
+
+        @Setup(Level.Trial)
+        public void setUp(DatasetState state) throws InvalidFieldNameException {
+            organizations = state.searchService.searchOrganizations(Entity.FIELD_TAGS, "West", 0, 0).getRecords();
+            tickets = state.searchService.searchTickets(Entity.FIELD_TAGS, "Ohio", 0, 0).getRecords();
+            users = state.searchService.searchUsers(User.FIELD_ROLE, "admin", 0, 0).getRecords();
+        }
+
+    }
+
+    @Benchmark
+    public String formatOrganizationResponse(DatasetState state, Results results) {
+        return state.responseFormatter.formatOrganizationResponse(results.organizations);
+    }
+
+    @Benchmark
+    public String formatTicketResponse(DatasetState state, Results results) {
+        return state.responseFormatter.formatTicketResponse(results.tickets);
+    }
+
+    @Benchmark
+    public String formatUserResponse(DatasetState state, Results results) {
+        return state.responseFormatter.formatUserResponse(results.users);
+    }
+
+}
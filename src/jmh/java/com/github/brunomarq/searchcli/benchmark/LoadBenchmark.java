@@ -0,0 +1,45 @@
+package com.github.brunomarq.searchcli.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.github.brunomarq.searchcli.domain.Organization;
+import com.github.brunomarq.searchcli.domain.Ticket;
+import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.utils.Constants;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+* Time taken to parse a json file and build its inverted index.
+*/
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LoadBenchmark {
+
+    @Benchmark
+    public void loadOrganizations(DatasetState state) throws IOException {
+        state.organizationRepository.loadDatabases(state.filePath(Constants.ORGANIZATIONS_FILENAME),
+                Organization.class);
+    }
+
+    @Benchmark
+    public void loadTickets(DatasetState state) throws IOException {
+        state.ticketRepository.loadDatabases(state.filePath(Constants.TICKETS_FILENAME), Ticket.class);
+    }
+
+    @Benchmark
+    public void loadUsers(DatasetState state) throws IOException {
+        state.userRepository.loadDatabases(state.filePath(Constants.USERS_FILENAME), User.class);
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.github.brunomarq.searchcli.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.github.brunomarq.searchcli.domain.Organization;
+import com.github.brunomarq.searchcli.domain.Ticket;
+import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+* Time taken by single lookups in the inverted indexes, without joins.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+
+    @Benchmark
+    public Set<Organization> findOrganizationsByName(DatasetState state) throws InvalidFieldNameException {
+        return state.organizationRepository.findByFieldValue(Organization.FIELD_NAME, "Enthaze");
+    }
+
+    @Benchmark
+    public Set<Ticket> findTicketsByStatus(DatasetState state) throws InvalidFieldNameException {
+        return state.ticketRepository.findByFieldValue(Ticket.FIELD_STATUS, "pending");
+    }
+
+    @Benchmark
+    public Set<User> findUsersByUnknownValue(DatasetState state) throws InvalidFieldNameException {
+        return state.userRepository.findByFieldValue(User.FIELD_NAME, "Nobody");
+    }
+
+    @Benchmark
+    public Organization findOrganizationById(DatasetState state) throws InvalidFieldNameException {
+        return state.organizationRepository.findById(101L);
+    }
+
+    @Benchmark
+    public User findUserById(DatasetState state) throws InvalidFieldNameException {
+        return state.userRepository.findById(1L);
+    }
+
+}
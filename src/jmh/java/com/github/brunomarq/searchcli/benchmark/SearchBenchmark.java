@@ -0,0 +1,112 @@
+package com.github.brunomarq.searchcli.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.github.brunomarq.searchcli.domain.Entity;
+import com.github.brunomarq.searchcli.domain.Ticket;
+import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.dto.OrganizationDTO;
+import com.github.brunomarq.searchcli.dto.TicketDTO;
+import com.github.brunomarq.searchcli.dto.UserDTO;
+import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.exception.InvalidQueryException;
+import com.github.brunomarq.searchcli.query.Query;
+import com.github.brunomarq.searchcli.query.QueryParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+* Time taken by the searches of the search command, including the joins with the other entities.
+* Searching by id returns one record whatever the dataset, so it measures the joins alone, while
+* the broader searches, by value or by range of time, return more records as the dataset grows. The
+* text search always returns the 10 best tickets, but scores more of them as the dataset grows. The
+* query intersects the open tickets with the urgent and high priority ones before removing those
+* tagged Ohio.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    // 2016-08-01T00:00:00Z, within the due dates of the bundled tickets
+    private static final long AUGUST_FIRST_2016 = 1470009600000L;
+
+    @State(Scope.Benchmark)
+    public static class QueryState {
+
+        Query openUrgentTickets;
+
+        @Setup(Level.Trial)
+        public void parse() throws InvalidQueryException {
+            openUrgentTickets = QueryParser.parse("status=open AND priority IN (high, urgent) AND NOT tags=Ohio");
+        }
+
+    }
+
+    @Benchmark
+    public List<OrganizationDTO> searchOrganizationById(DatasetState state) throws InvalidFieldNameException {
+        return state.searchService.searchOrganizations(Entity.FIELD_ID, "101", 0, 0).getRecords();
+    }
+
+    @Benchmark
+    public List<UserDTO> searchUserById(DatasetState state) throws InvalidFieldNameException {
+        return state.searchService.searchUsers(Entity.FIELD_ID, "1", 0, 0).getRecords();
+    }
+
+    @Benchmark
+    public List<TicketDTO> searchTicketById(DatasetState state) throws InvalidFieldNameException {
+        return state.searchService.searchTickets(Entity.FIELD_ID, "436bf9b0-1147-4c0a-8439-6f79833bff5b", 0, 0)
+                .getRecords();
+    }
+
+    @Benchmark
+    public List<OrganizationDTO> searchOrganizationsByTag(DatasetState state) throws InvalidFieldNameException {
+        return state.searchService.searchOrganizations(Entity.FIELD_TAGS, "West", 0, 0).getRecords();
+    }
+
+    @Benchmark
+    public List<UserDTO> searchUsersByRole(DatasetState state) throws InvalidFieldNameException {
+        return state.searchService.searchUsers(User.FIELD_ROLE, "admin", 0, 0).getRecords();
+    }
+
+    @Benchmark
+    public List<TicketDTO> searchTicketsByTag(DatasetState state) throws InvalidFieldNameException {
+        return state.searchService.searchTickets(Ticket.FIELD_TAGS, "Ohio", 0, 0).getRecords();
+    }
+
+    @Benchmark
+    public List<TicketDTO> searchTicketsByTagFirstPage(DatasetState state) throws InvalidFieldNameException {
+        return state.searchService.searchTickets(Ticket.FIELD_TAGS, "Ohio", 0, 10).getRecords();
+    }
+
+    @Benchmark
+    public List<TicketDTO> textSearchTickets(DatasetState state) throws InvalidFieldNameException {
+        return state.searchService.textSearchTickets("", "problem in nicaragua", 10);
+    }
+
+    @Benchmark
+    public List<TicketDTO> searchTicketsDueInOneDay(DatasetState state) throws InvalidFieldNameException {
+        return state.searchService.searchTicketsByTimeRange(Ticket.FIELD_DUE_AT, AUGUST_FIRST_2016,
+                AUGUST_FIRST_2016 + TimeUnit.DAYS.toMillis(1), 0, 0).getRecords();
+    }
+
+    @Benchmark
+    public List<TicketDTO> queryOpenUrgentTickets(DatasetState state, QueryState query)
+            throws InvalidFieldNameException {
+        return state.searchService.queryTickets(query.openUrgentTickets, 0, 0).getRecords();
+    }
+
+}
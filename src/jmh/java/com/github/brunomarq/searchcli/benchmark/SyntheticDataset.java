@@ -0,0 +1,108 @@
+package com.github.brunomarq.searchcli.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.brunomarq.searchcli.domain.Entity;
+import com.github.brunomarq.searchcli.domain.Ticket;
+import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.utils.Constants;
+
+/*
+* Writes the bundled json files scaled up by a factor, as copies of every record with their own ids.
+* The references between organizations, users and tickets are kept within each copy, so searches
+* and joins return the same shape of results as on the bundled files, only more of them.
+*/
+final class SyntheticDataset {
+
+    static final Path BUNDLED_DIRECTORY = Paths.get("src", "main", "resources");
+
+    // Distance between the numeric ids of two copies of the same record
+    private static final long ID_STRIDE = 1000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private SyntheticDataset() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Writes the scaled json files to target/jmh-data/x<factor>, unless a previous
+     * run already did.
+     *
+     * @param factor number of copies of every record.
+     * @return Path directory containing the json files.
+     * @throws IOException if the files cannot be written.
+     */
+    static Path generate(int factor) throws IOException {
+        Path directory = Paths.get("target", "jmh-data", "x" + factor);
+        Files.createDirectories(directory);
+        for (String fileName : new String[] { Constants.ORGANIZATIONS_FILENAME, Constants.TICKETS_FILENAME,
+                Constants.USERS_FILENAME }) {
+            Path file = directory.resolve(fileName);
+            if (!Files.isRegularFile(file)) {
+                write(fileName, factor, file);
+            }
+        }
+        return directory;
+    }
+
+    private static void write(String fileName, int factor, Path file) throws IOException {
+        List<Map<String, Object>> records;
+        try (InputStream in = Files.newInputStream(BUNDLED_DIRECTORY.resolve(fileName))) {
+            records = MAPPER.readValue(in, new TypeReference<List<Map<String, Object>>>() {
+            });
+        }
+
+        // Written to the side first, so an interrupted run is not mistaken for a complete file
+        Path tempFile = file.resolveSibling(fileName + ".tmp");
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(Files.newOutputStream(tempFile))) {
+            generator.writeStartArray();
+            for (int copy = 0; copy < factor; copy++) {
+                for (Map<String, Object> record : records) {
+                    MAPPER.writeValue(generator, copyOf(record, copy));
+                }
+            }
+            generator.writeEndArray();
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Map<String, Object> copyOf(Map<String, Object> record, int copy) {
+        Map<String, Object> result = new LinkedHashMap<>(record);
+        if (copy == 0) {
+            return result;
+        }
+        for (String field : new String[] { Entity.FIELD_ID, User.FIELD_ORGANIZATION_ID, Ticket.FIELD_SUBMITTER_ID,
+                Ticket.FIELD_ASSIGNEE_ID }) {
+            Object value = result.get(field);
+            if (value instanceof Number) {
+                result.put(field, ((Number) value).longValue() + copy * ID_STRIDE);
+            } else if (value instanceof String) {
+                result.put(field, copyOf((String) value, copy));
+            }
+        }
+        Object externalId = result.get(Entity.FIELD_EXTERNAL_ID);
+        if (externalId instanceof String) {
+            result.put(Entity.FIELD_EXTERNAL_ID, copyOf((String) externalId, copy));
+        }
+        return result;
+    }
+
+    private static String copyOf(String uuid, int copy) {
+        return UUID.nameUUIDFromBytes((uuid + copy).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+}
@@ -1,17 +1,26 @@
 package com.github.brunomarq.searchcli.controller;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntFunction;
 
 import com.github.brunomarq.searchcli.domain.Organization;
 import com.github.brunomarq.searchcli.domain.Ticket;
 import com.github.brunomarq.searchcli.domain.User;
 import com.github.brunomarq.searchcli.dto.OrganizationDTO;
+import com.github.brunomarq.searchcli.dto.PageDTO;
 import com.github.brunomarq.searchcli.dto.TicketDTO;
 import com.github.brunomarq.searchcli.dto.UserDTO;
 import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.exception.InvalidQueryException;
+import com.github.brunomarq.searchcli.exception.TooManyGroupsException;
+import com.github.brunomarq.searchcli.query.Query;
+import com.github.brunomarq.searchcli.query.QueryParser;
+import com.github.brunomarq.searchcli.service.DataDirectoryWatcher;
 import com.github.brunomarq.searchcli.service.SearchService;
 import com.github.brunomarq.searchcli.utils.Constants;
+import com.github.brunomarq.searchcli.utils.DateTimeUtils;
 import com.github.brunomarq.searchcli.utils.InputValidator;
 import com.github.brunomarq.searchcli.utils.ResponseFormatter;
 
@@ -31,7 +40,8 @@ public class SearchCLI {
 
     static final Logger log = LoggerFactory.getLogger(SearchCLI.class);
 
-    private boolean databaseReady;
+    // Written by the load commands and read by the availability check of the others
+    private volatile boolean databaseReady;
 
     @Autowired
     private ResponseFormatter responseFormatter;
@@ -42,6 +52,9 @@ public class SearchCLI {
     @Autowired
     private SearchService searchService;
 
+    @Autowired
+    private DataDirectoryWatcher dataDirectoryWatcher;
+
     /**
      * Shell command responsible for loading the json files and creating the
      * inverted index.
@@ -49,13 +62,16 @@ public class SearchCLI {
      * @param directoryPath if empty, looks for the json files in the resource
      *                      folder in the jar. Otherwise, looks for the files in the
      *                      directory specified.
+     * @param watch         if true, keeps watching the directory and reloads the
+     *                      json files that change in it.
      * @return String returns a formatted string indicating if the files and index
      *         were created successfully or not.
      */
     @ShellMethod("Load organization, ticket and user json files and prepare the inverted indexes.")
-    public String loadDatabase(@ShellOption(defaultValue = "") String directoryPath) {
+    public String loadDatabase(@ShellOption(defaultValue = "") String directoryPath,
+            @ShellOption(help = "Reload the json files when they change in the directory.") boolean watch) {
         log.info("Loading JSON files and creating inverted index...");
-        this.databaseReady = false;
+        // A reload leaves the current indexes available until the new ones replace them
         try {
             searchService.loadDatabase(directoryPath);
         } catch (IOException e) {
@@ -65,27 +81,109 @@ public class SearchCLI {
         this.databaseReady = true;
         log.info("Files loaded successfully.");
 
+        // Changes to another directory must not replace the database just loaded
+        dataDirectoryWatcher.stop();
+        if (watch) {
+            if (directoryPath.isEmpty()) {
+                return responseFormatter.formatError(Constants.ERROR_WATCHING_RESOURCES);
+            }
+            try {
+                dataDirectoryWatcher.start(directoryPath);
+            } catch (IOException e) {
+                log.error(String.format("Error while watching the directory. Reason: %s", e.getMessage()));
+                return responseFormatter.formatError(Constants.ERROR_WATCHING_DIRECTORY);
+            }
+            return AnsiOutput.toString(AnsiColor.GREEN, Constants.DATABASE_READY + " " + Constants.WATCHING_DIRECTORY,
+                    AnsiColor.DEFAULT);
+        }
+
         return AnsiOutput.toString(AnsiColor.GREEN, Constants.DATABASE_READY, AnsiColor.DEFAULT);
     }
 
+    /**
+     * Shell command responsible for restoring the inverted indexes from the
+     * snapshots saved next to the json files.
+     * 
+     * @param directoryPath if empty, looks in the current directory for the
+     *                      snapshots of the json files bundled in the jar.
+     *                      Otherwise, looks for them in the directory specified.
+     * @return String returns a formatted string indicating if the snapshots were
+     *         loaded successfully or not.
+     */
+    @ShellMethod("Restore the inverted indexes from the snapshots of the organization, ticket and user json files.")
+    public String loadSnapshot(@ShellOption(defaultValue = "") String directoryPath) {
+        log.info("Loading snapshots...");
+        try {
+            searchService.loadSnapshot(directoryPath);
+        } catch (IOException e) {
+            log.error(String.format("Error while loading snapshots. Reason: %s", e.getMessage()));
+            return responseFormatter.formatError(Constants.ERROR_LOADING_SNAPSHOT);
+        }
+        this.databaseReady = true;
+        dataDirectoryWatcher.stop();
+        log.info("Snapshots loaded successfully.");
+
+        return AnsiOutput.toString(AnsiColor.GREEN, Constants.DATABASE_READY, AnsiColor.DEFAULT);
+    }
+
+    /**
+     * Shell command responsible for saving a binary snapshot of the inverted
+     * indexes next to the json files, so the next load-database can skip parsing
+     * them.
+     * 
+     * @param directoryPath directory of the json files the database was loaded
+     *                      from, empty for the ones in the resource folder.
+     * @return String returns a formatted string indicating if the snapshots were
+     *         saved successfully or not.
+     */
+    @ShellMethod("Save a snapshot of the inverted indexes next to the json files.")
+    public String saveSnapshot(@ShellOption(defaultValue = "") String directoryPath) {
+        log.info("Saving snapshots...");
+        try {
+            searchService.saveSnapshot(directoryPath);
+        } catch (IOException e) {
+            log.error(String.format("Error while saving snapshots. Reason: %s", e.getMessage()));
+            return responseFormatter.formatError(Constants.ERROR_SAVING_SNAPSHOT);
+        }
+        log.info("Snapshots saved successfully.");
+
+        return AnsiOutput.toString(AnsiColor.GREEN, Constants.SNAPSHOT_SAVED, AnsiColor.DEFAULT);
+    }
+
     /**
      * Shell command responsible for searching for tickets, users or organizations
-     * that match the value for a specific field.
+     * that match the value for a specific field, or whose timestamp in a field is
+     * within a range when --from or --to is given.
      * 
      * @param entity String representing the entity: organization, user or ticket.
      * @param field  String representing the json field to be used in the search.
      * @param value  String representing the full value to be searched on the field
      *               specified.
+     * @param from   lowest timestamp of the range, inclusive, or empty for no lower
+     *               bound.
+     * @param to     highest timestamp of the range, inclusive, or empty for no
+     *               upper bound.
+     * @param limit  maximum number of records to be returned, all of them if 0.
+     * @param offset number of records to be skipped.
      * @return String returns a formatted string in the format of a table indicating
-     *         all the records that match the search criteria.
+     *         the page of the records that match the search criteria.
      */
     @ShellMethod("Search for tickets, users or organisations.")
-    public String search(String entity, String field, @ShellOption(defaultValue = "") String value) {
+    public String search(String entity, String field, @ShellOption(defaultValue = "") String value,
+            @ShellOption(defaultValue = "", help = "Lowest timestamp of the range, such as 2016-04-28T11:19:34 -10:00, 2016-04-28 or now-7d.") String from,
+            @ShellOption(defaultValue = "", help = "Highest timestamp of the range, such as 2016-04-28T11:19:34 -10:00, 2016-04-28 or now+24h.") String to,
+            @ShellOption(defaultValue = "0", help = "Maximum number of results, all of them if 0.") int limit,
+            @ShellOption(defaultValue = "0", help = "Number of results skipped, to be used with --limit.") int offset) {
         log.info("Validating inputs...");
         if (!inputValidator.isEntityValid(entity)) {
             return responseFormatter.formatError(Constants.INVALID_ENTITY);
         } else if (!inputValidator.isFieldValid(entity, field)) {
             return responseFormatter.formatError(Constants.INVALID_FIELD);
+        } else if (limit < 0 || offset < 0) {
+            return responseFormatter.formatError(Constants.INVALID_PAGE);
+        }
+        if (!from.isEmpty() || !to.isEmpty()) {
+            return searchByTimeRange(entity, field, value, from, to, limit, offset);
         }
 
         log.info("Performing search...");
@@ -93,15 +191,227 @@ public class SearchCLI {
         try {
             switch (entity.trim().toLowerCase()) {
             case Organization.ENTITY_TYPE:
-                List<OrganizationDTO> organizations = searchService.searchOrganizations(field, value);
+                PageDTO<OrganizationDTO> organizations = searchService.searchOrganizations(field, value, offset, limit);
+                formattedResponse = responseFormatter.formatOrganizationResponse(organizations.getRecords())
+                        + formatPage(organizations);
+                break;
+            case Ticket.ENTITY_TYPE:
+                PageDTO<TicketDTO> tickets = searchService.searchTickets(field, value, offset, limit);
+                formattedResponse = responseFormatter.formatTicketResponse(tickets.getRecords())
+                        + formatPage(tickets);
+                break;
+            case User.ENTITY_TYPE:
+                PageDTO<UserDTO> users = searchService.searchUsers(field, value, offset, limit);
+                formattedResponse = responseFormatter.formatUserResponse(users.getRecords())
+                        + formatPage(users);
+                break;
+            default:
+                formattedResponse = responseFormatter.formatError(Constants.INVALID_ENTITY);
+                break;
+            }
+        } catch (InvalidFieldNameException e1) {
+            formattedResponse = responseFormatter.formatError(Constants.INVALID_FIELD);
+        }
+        formattedResponse += responseFormatter.formatInfo("\nSearch command: 'search " + entity + " " + field + " "
+                + value + pageOptions(limit, offset) + "'");
+
+        log.info("Search completed.");
+        return formattedResponse;
+    }
+
+    /**
+     * Shell command responsible for searching for tickets, users or organizations
+     * that match a query combining predicates on several fields.
+     * 
+     * @param entity String representing the entity: organization, user or ticket.
+     * @param query  String with predicates such as field=value or field IN (value,
+     *               ...) combined with AND, OR, NOT and parentheses.
+     * @param limit  maximum number of records to be returned, all of them if 0.
+     * @param offset number of records to be skipped.
+     * @return String returns a formatted string in the format of a table indicating
+     *         the page of the records that match the query.
+     */
+    @ShellMethod("Search for tickets, users or organisations matching a query such as \"status=open AND NOT tags=Ohio\".")
+    public String query(String entity, String query,
+            @ShellOption(defaultValue = "0", help = "Maximum number of results, all of them if 0.") int limit,
+            @ShellOption(defaultValue = "0", help = "Number of results skipped, to be used with --limit.") int offset) {
+        log.info("Validating inputs...");
+        if (!inputValidator.isEntityValid(entity)) {
+            return responseFormatter.formatError(Constants.INVALID_ENTITY);
+        } else if (limit < 0 || offset < 0) {
+            return responseFormatter.formatError(Constants.INVALID_PAGE);
+        }
+        Query parsedQuery;
+        try {
+            parsedQuery = QueryParser.parse(query);
+        } catch (InvalidQueryException e) {
+            return responseFormatter.formatError(Constants.INVALID_QUERY + "\n" + e.getMessage() + ".");
+        }
+
+        log.info("Performing query...");
+        String formattedResponse = "";
+        try {
+            switch (entity.trim().toLowerCase()) {
+            case Organization.ENTITY_TYPE:
+                PageDTO<OrganizationDTO> organizations = searchService.queryOrganizations(parsedQuery, offset, limit);
+                formattedResponse = responseFormatter.formatOrganizationResponse(organizations.getRecords())
+                        + formatPage(organizations);
+                break;
+            case Ticket.ENTITY_TYPE:
+                PageDTO<TicketDTO> tickets = searchService.queryTickets(parsedQuery, offset, limit);
+                formattedResponse = responseFormatter.formatTicketResponse(tickets.getRecords())
+                        + formatPage(tickets);
+                break;
+            case User.ENTITY_TYPE:
+                PageDTO<UserDTO> users = searchService.queryUsers(parsedQuery, offset, limit);
+                formattedResponse = responseFormatter.formatUserResponse(users.getRecords())
+                        + formatPage(users);
+                break;
+            default:
+                formattedResponse = responseFormatter.formatError(Constants.INVALID_ENTITY);
+                break;
+            }
+        } catch (InvalidFieldNameException e1) {
+            formattedResponse = responseFormatter.formatError(Constants.INVALID_FIELD);
+        }
+        formattedResponse += responseFormatter
+                .formatInfo("\nSearch command: 'query " + entity + " \"" + query + "\"" + pageOptions(limit, offset)
+                        + "'");
+
+        log.info("Search completed.");
+        return formattedResponse;
+    }
+
+    /**
+     * Searches for the records whose timestamp in a field is within a range.
+     * 
+     * @param entity String representing the entity: organization, user or ticket.
+     * @param field  String representing the timestamp field to be used.
+     * @param value  value of the search, which must be empty for a range.
+     * @param from   lowest timestamp of the range, or empty for no lower bound.
+     * @param to     highest timestamp of the range, or empty for no upper bound.
+     * @param limit  maximum number of records to be returned, all of them if 0.
+     * @param offset number of records to be skipped.
+     * @return String returns a formatted string in the format of a table indicating
+     *         the page of the records within the range.
+     */
+    private String searchByTimeRange(String entity, String field, String value, String from, String to, int limit,
+            int offset) {
+        if (!value.isEmpty()) {
+            return responseFormatter.formatError(Constants.RANGE_WITH_VALUE);
+        } else if (!inputValidator.isTimestampFieldValid(entity, field)) {
+            return responseFormatter.formatError(Constants.INVALID_TIMESTAMP_FIELD);
+        }
+        // Relative bounds such as now+24h are resolved against the same instant
+        long now = System.currentTimeMillis();
+        Long fromMillis = from.isEmpty() ? Long.valueOf(Long.MIN_VALUE) : DateTimeUtils.parseBound(from, now);
+        Long toMillis = to.isEmpty() ? Long.valueOf(Long.MAX_VALUE) : DateTimeUtils.parseBound(to, now);
+        if (fromMillis == null || toMillis == null) {
+            return responseFormatter.formatError(Constants.INVALID_TIMESTAMP);
+        }
+
+        log.info("Performing range search...");
+        String formattedResponse = "";
+        try {
+            switch (entity.trim().toLowerCase()) {
+            case Organization.ENTITY_TYPE:
+                PageDTO<OrganizationDTO> organizations = searchService.searchOrganizationsByTimeRange(field, fromMillis,
+                        toMillis, offset, limit);
+                formattedResponse = responseFormatter.formatOrganizationResponse(organizations.getRecords())
+                        + formatPage(organizations);
+                break;
+            case Ticket.ENTITY_TYPE:
+                PageDTO<TicketDTO> tickets = searchService.searchTicketsByTimeRange(field, fromMillis, toMillis, offset,
+                        limit);
+                formattedResponse = responseFormatter.formatTicketResponse(tickets.getRecords())
+                        + formatPage(tickets);
+                break;
+            case User.ENTITY_TYPE:
+                PageDTO<UserDTO> users = searchService.searchUsersByTimeRange(field, fromMillis, toMillis, offset,
+                        limit);
+                formattedResponse = responseFormatter.formatUserResponse(users.getRecords())
+                        + formatPage(users);
+                break;
+            default:
+                formattedResponse = responseFormatter.formatError(Constants.INVALID_ENTITY);
+                break;
+            }
+        } catch (InvalidFieldNameException e1) {
+            formattedResponse = responseFormatter.formatError(Constants.INVALID_TIMESTAMP_FIELD);
+        }
+        formattedResponse += responseFormatter.formatInfo("\nSearch command: 'search " + entity + " " + field
+                + (from.isEmpty() ? "" : " --from " + from) + (to.isEmpty() ? "" : " --to " + to)
+                + pageOptions(limit, offset) + "'");
+
+        log.info("Search completed.");
+        return formattedResponse;
+    }
+
+    /**
+     * @param page page of the records found.
+     * @return String which records of the results are shown, or empty when all of
+     *         them are.
+     */
+    private String formatPage(PageDTO<?> page) {
+        int shown = page.getRecords().size();
+        if (shown == page.getTotal()) {
+            return "";
+        } else if (shown == 0) {
+            return responseFormatter.formatInfo("\nNo records after the first " + page.getTotal() + ".");
+        }
+        return responseFormatter.formatInfo("\nShowing records " + (page.getOffset() + 1) + " to "
+                + (page.getOffset() + shown) + " of " + page.getTotal() + ".");
+    }
+
+    /**
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @param offset number of records skipped.
+     * @return String options of the page as typed in a command, empty for all the
+     *         records.
+     */
+    private static String pageOptions(int limit, int offset) {
+        return (limit == 0 ? "" : " --limit " + limit) + (offset == 0 ? "" : " --offset " + offset);
+    }
+
+    /**
+     * Shell command responsible for searching for tickets, users or organizations
+     * by the words of their free text fields, ranked by relevance.
+     * 
+     * @param entity String representing the entity: organization, user or ticket.
+     * @param query  String with the words to be searched for.
+     * @param field  String representing the free text field to be searched, or
+     *               empty for all of them.
+     * @param limit  maximum number of records to be returned.
+     * @return String returns a formatted string in the format of a table with the
+     *         most relevant records first.
+     */
+    @ShellMethod("Search for tickets, users or organisations by the words in their text, most relevant first.")
+    public String textSearch(String entity, String query,
+            @ShellOption(defaultValue = "", help = "Text field to search: subject or description for tickets, details for organisations, signature for users. All of them if empty.") String field,
+            @ShellOption(defaultValue = "10", help = "Maximum number of results.") int limit) {
+        log.info("Validating inputs...");
+        if (!inputValidator.isEntityValid(entity)) {
+            return responseFormatter.formatError(Constants.INVALID_ENTITY);
+        } else if (!field.isEmpty() && !inputValidator.isTextFieldValid(entity, field)) {
+            return responseFormatter.formatError(Constants.INVALID_TEXT_FIELD);
+        } else if (limit <= 0) {
+            return responseFormatter.formatError(Constants.INVALID_LIMIT);
+        }
+
+        log.info("Performing text search...");
+        String formattedResponse = "";
+        try {
+            switch (entity.trim().toLowerCase()) {
+            case Organization.ENTITY_TYPE:
+                List<OrganizationDTO> organizations = searchService.textSearchOrganizations(field, query, limit);
                 formattedResponse = responseFormatter.formatOrganizationResponse(organizations);
                 break;
             case Ticket.ENTITY_TYPE:
-                List<TicketDTO> tickets = searchService.searchTickets(field, value);
+                List<TicketDTO> tickets = searchService.textSearchTickets(field, query, limit);
                 formattedResponse = responseFormatter.formatTicketResponse(tickets);
                 break;
             case User.ENTITY_TYPE:
-                List<UserDTO> users = searchService.searchUsers(field, value);
+                List<UserDTO> users = searchService.textSearchUsers(field, query, limit);
                 formattedResponse = responseFormatter.formatUserResponse(users);
                 break;
             default:
@@ -109,15 +419,180 @@ public class SearchCLI {
                 break;
             }
         } catch (InvalidFieldNameException e1) {
-            formattedResponse = responseFormatter.formatError(Constants.INVALID_FIELD);
+            formattedResponse = responseFormatter.formatError(Constants.INVALID_TEXT_FIELD);
         }
-        formattedResponse += responseFormatter
-                .formatInfo("\nSearch command: 'search " + entity + " " + field + " " + value + "'");
+        formattedResponse += responseFormatter.formatInfo("\nSearch command: 'text-search " + entity + " \"" + query
+                + "\"" + (field.isEmpty() ? "" : " --field " + field) + " --limit " + limit + "'");
 
         log.info("Search completed.");
         return formattedResponse;
     }
 
+    /**
+     * Shell command responsible for counting the tickets, users or organizations
+     * that match the value for a specific field, or a query, without building nor
+     * formatting any of them.
+     * 
+     * @param entity String representing the entity: organization, user or ticket.
+     * @param field  String representing the json field to be used, or empty when
+     *               counting the records matching a query.
+     * @param value  String representing the full value to be searched on the field
+     *               specified.
+     * @param query  String with predicates combined as in the query command, or
+     *               empty when counting the records with a value in a field.
+     * @return String returns the number of records found.
+     */
+    @ShellMethod("Count the tickets, users or organisations matching a value or a query.")
+    public String count(String entity, @ShellOption(defaultValue = "") String field,
+            @ShellOption(defaultValue = "") String value,
+            @ShellOption(defaultValue = "", help = "Query such as \"organization_id=101 AND status=open\", instead of a field and a value.") String query) {
+        return count(entity, field, value, query, String::valueOf);
+    }
+
+    /**
+     * Shell command responsible for checking whether any ticket, user or
+     * organization matches the value for a specific field, or a query, without
+     * building nor formatting any of them.
+     * 
+     * @param entity String representing the entity: organization, user or ticket.
+     * @param field  String representing the json field to be used, or empty when
+     *               checking the records matching a query.
+     * @param value  String representing the full value to be searched on the field
+     *               specified.
+     * @param query  String with predicates combined as in the query command, or
+     *               empty when checking the records with a value in a field.
+     * @return String returns true if any record is found, false otherwise.
+     */
+    @ShellMethod("Check whether any ticket, user or organisation matches a value or a query.")
+    public String exists(String entity, @ShellOption(defaultValue = "") String field,
+            @ShellOption(defaultValue = "") String value,
+            @ShellOption(defaultValue = "", help = "Query such as \"organization_id=101 AND status=open\", instead of a field and a value.") String query) {
+        return count(entity, field, value, query, count -> String.valueOf(count > 0));
+    }
+
+    /**
+     * Counts the records matching a value for a field, or a query.
+     * 
+     * @param entity String representing the entity: organization, user or ticket.
+     * @param field  String representing the json field to be used, or empty.
+     * @param value  String representing the value to be searched on the field.
+     * @param query  String with the query, or empty.
+     * @param format formatter of the number of records found.
+     * @return String returns the formatted number of records found, or the error.
+     */
+    private String count(String entity, String field, String value, String query, IntFunction<String> format) {
+        log.info("Validating inputs...");
+        if (!inputValidator.isEntityValid(entity)) {
+            return responseFormatter.formatError(Constants.INVALID_ENTITY);
+        } else if (!query.isEmpty() && !field.isEmpty()) {
+            return responseFormatter.formatError(Constants.FIELD_WITH_QUERY);
+        } else if (query.isEmpty() && !inputValidator.isFieldValid(entity, field)) {
+            return responseFormatter.formatError(Constants.INVALID_FIELD);
+        }
+        Query parsedQuery = null;
+        if (!query.isEmpty()) {
+            try {
+                parsedQuery = QueryParser.parse(query);
+            } catch (InvalidQueryException e) {
+                return responseFormatter.formatError(Constants.INVALID_QUERY + "\n" + e.getMessage() + ".");
+            }
+        }
+
+        log.info("Performing count...");
+        String formattedResponse = "";
+        try {
+            switch (entity.trim().toLowerCase()) {
+            case Organization.ENTITY_TYPE:
+                formattedResponse = format.apply(parsedQuery == null ? searchService.countOrganizations(field, value)
+                        : searchService.countOrganizationsByQuery(parsedQuery));
+                break;
+            case Ticket.ENTITY_TYPE:
+                formattedResponse = format.apply(parsedQuery == null ? searchService.countTickets(field, value)
+                        : searchService.countTicketsByQuery(parsedQuery));
+                break;
+            case User.ENTITY_TYPE:
+                formattedResponse = format.apply(parsedQuery == null ? searchService.countUsers(field, value)
+                        : searchService.countUsersByQuery(parsedQuery));
+                break;
+            default:
+                formattedResponse = responseFormatter.formatError(Constants.INVALID_ENTITY);
+                break;
+            }
+        } catch (InvalidFieldNameException e1) {
+            formattedResponse = responseFormatter.formatError(Constants.INVALID_FIELD);
+        }
+
+        log.info("Count completed.");
+        return formattedResponse;
+    }
+
+    /**
+     * Shell command responsible for counting the tickets, users or organizations
+     * grouped by the values of some fields, such as the tickets of every status and
+     * priority, without building nor formatting any record.
+     * 
+     * @param entity String representing the entity: organization, user or ticket.
+     * @param fields String with the json fields to group by, separated by commas.
+     * @param query  String with predicates combined as in the query command, or
+     *               empty to count all the records.
+     * @return String returns a formatted string in the format of a table with the
+     *         number of records of every group, the largest first.
+     */
+    @ShellMethod("Count the tickets, users or organisations grouped by the values of some fields, such as \"status,priority\".")
+    public String aggregate(String entity, String fields,
+            @ShellOption(defaultValue = "", help = "Query such as \"organization_id=101\" the records counted must match. All of them if empty.") String query) {
+        log.info("Validating inputs...");
+        if (!inputValidator.isEntityValid(entity)) {
+            return responseFormatter.formatError(Constants.INVALID_ENTITY);
+        }
+        List<String> fieldList = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            if (!inputValidator.isFieldValid(entity, field)) {
+                return responseFormatter.formatError(Constants.INVALID_FIELD);
+            }
+            fieldList.add(field.trim().toLowerCase());
+        }
+        Query parsedQuery = null;
+        if (!query.isEmpty()) {
+            try {
+                parsedQuery = QueryParser.parse(query);
+            } catch (InvalidQueryException e) {
+                return responseFormatter.formatError(Constants.INVALID_QUERY + "\n" + e.getMessage() + ".");
+            }
+        }
+
+        log.info("Performing aggregation...");
+        String formattedResponse = "";
+        try {
+            switch (entity.trim().toLowerCase()) {
+            case Organization.ENTITY_TYPE:
+                formattedResponse = responseFormatter.formatAggregateResponse(fieldList,
+                        searchService.aggregateOrganizations(fieldList, parsedQuery));
+                break;
+            case Ticket.ENTITY_TYPE:
+                formattedResponse = responseFormatter.formatAggregateResponse(fieldList,
+                        searchService.aggregateTickets(fieldList, parsedQuery));
+                break;
+            case User.ENTITY_TYPE:
+                formattedResponse = responseFormatter.formatAggregateResponse(fieldList,
+                        searchService.aggregateUsers(fieldList, parsedQuery));
+                break;
+            default:
+                formattedResponse = responseFormatter.formatError(Constants.INVALID_ENTITY);
+                break;
+            }
+        } catch (InvalidFieldNameException e1) {
+            formattedResponse = responseFormatter.formatError(Constants.INVALID_FIELD);
+        } catch (TooManyGroupsException e1) {
+            formattedResponse = responseFormatter.formatError(Constants.TOO_MANY_GROUPS);
+        }
+        formattedResponse += responseFormatter.formatInfo("\nSearch command: 'aggregate " + entity + " " + fields
+                + (query.isEmpty() ? "" : " --query \"" + query + "\"") + "'");
+
+        log.info("Aggregation completed.");
+        return formattedResponse;
+    }
+
     /**
      * Shell command that lists all the fields of an entity available to be used in
      * a search.
@@ -155,13 +630,16 @@ public class SearchCLI {
     }
 
     /**
-     * This method allows disabling the search and fields shell commands until the
-     * database load is invoked and complete.
+     * This method allows disabling the search, query, text-search, count, exists,
+     * aggregate, fields and save-snapshot shell commands until the database load
+     * is invoked and complete.
      * 
      * @return Availability Spring Shell uses this return to determine if the user
-     *         can invoke the search and fields commands.
+     *         can invoke the search, query, text-search, count, exists, aggregate,
+     *         fields and save-snapshot commands.
      */
-    @ShellMethodAvailability({ "search", "fields" })
+    @ShellMethodAvailability({ "search", "query", "text-search", "count", "exists", "aggregate", "fields",
+            "save-snapshot" })
     public Availability availabilityCheck() {
         return this.databaseReady ? Availability.available()
                 : Availability.unavailable("the database has not been loaded. Run `load_databases` first.");
@@ -3,6 +3,7 @@ package com.github.brunomarq.searchcli.domain;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -20,6 +21,12 @@ public abstract class Entity {
     static final List<String> FIELDS = Collections
             .unmodifiableList(Arrays.asList(FIELD_ID, FIELD_URL, FIELD_EXTERNAL_ID, FIELD_CREATED_AT, FIELD_TAGS));
 
+    // Fields holding timestamps, which can also be searched by range
+    static final List<String> TIMESTAMP_FIELDS = Collections.singletonList(FIELD_CREATED_AT);
+
+    // Fields holding free text, which can also be searched by their words
+    static final List<String> TEXT_FIELDS = Collections.emptyList();
+
     @JsonProperty(FIELD_ID)
     private String id;
 
@@ -105,6 +112,72 @@ public abstract class Entity {
         this.tags = tags;
     }
 
+    /**
+     * Visits every searchable field of the entity with its current value, without
+     * relying on reflection. Subclasses visit the common fields first and then
+     * their own.
+     * 
+     * @param visitor consumer receiving the json field name and its value, which
+     *                may be null.
+     */
+    public void visitFields(BiConsumer<String, Object> visitor) {
+        visitor.accept(FIELD_ID, id);
+        visitor.accept(FIELD_URL, url);
+        visitor.accept(FIELD_EXTERNAL_ID, externalId);
+        visitor.accept(FIELD_CREATED_AT, createdAt);
+        visitor.accept(FIELD_TAGS, tags);
+    }
+
+    /**
+     * @param field json field name.
+     * @return boolean true if the field holds timestamps, which can be searched by
+     *         range.
+     */
+    public boolean isTimestampField(String field) {
+        return TIMESTAMP_FIELDS.contains(field);
+    }
+
+    /**
+     * @param field json field name.
+     * @return boolean true if the field holds free text, which can be searched by
+     *         its words.
+     */
+    public boolean isTextField(String field) {
+        return TEXT_FIELDS.contains(field);
+    }
+
+    /**
+     * Sets a searchable field from its json field name, as the counterpart of
+     * {@link #visitFields(BiConsumer)}. Subclasses handle their own fields and
+     * delegate the common ones.
+     * 
+     * @param field json field name.
+     * @param value value as visited: String, Long, Boolean or List of String.
+     * @throws IllegalArgumentException if the field is unknown.
+     */
+    @SuppressWarnings("unchecked")
+    public void setFieldValue(String field, Object value) {
+        switch (field) {
+        case FIELD_ID:
+            this.id = (String) value;
+            break;
+        case FIELD_URL:
+            this.url = (String) value;
+            break;
+        case FIELD_EXTERNAL_ID:
+            this.externalId = (String) value;
+            break;
+        case FIELD_CREATED_AT:
+            this.createdAt = (String) value;
+            break;
+        case FIELD_TAGS:
+            this.tags = (List<String>) value;
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown field " + field);
+        }
+    }
+
     /**
      * @return int
      */
@@ -3,6 +3,7 @@ package com.github.brunomarq.searchcli.domain;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -22,6 +23,10 @@ public class Organization extends Entity {
                     Arrays.asList(FIELD_NAME, FIELD_DOMAIN_NAMES, FIELD_DETAILS, FIELD_SHARED_TICKETS).stream())
             .collect(Collectors.toList()));
 
+    public static final List<String> TIMESTAMP_FIELDS = Entity.TIMESTAMP_FIELDS;
+
+    public static final List<String> TEXT_FIELDS = Collections.singletonList(FIELD_DETAILS);
+
     @JsonProperty(FIELD_NAME)
     private String name;
 
@@ -90,6 +95,53 @@ public class Organization extends Entity {
         this.sharedTickets = sharedTickets;
     }
 
+    /**
+     * @param visitor consumer receiving the json field name and its value.
+     */
+    @Override
+    public void visitFields(BiConsumer<String, Object> visitor) {
+        super.visitFields(visitor);
+        visitor.accept(FIELD_NAME, name);
+        visitor.accept(FIELD_DOMAIN_NAMES, domainNames);
+        visitor.accept(FIELD_DETAILS, details);
+        visitor.accept(FIELD_SHARED_TICKETS, sharedTickets);
+    }
+
+    /**
+     * @param field json field name.
+     * @return boolean true if the field holds free text.
+     */
+    @Override
+    public boolean isTextField(String field) {
+        return TEXT_FIELDS.contains(field);
+    }
+
+    /**
+     * @param field json field name.
+     * @param value value as visited.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void setFieldValue(String field, Object value) {
+        switch (field) {
+        case FIELD_NAME:
+            this.name = (String) value;
+            break;
+        case FIELD_DOMAIN_NAMES:
+            this.domainNames = (List<String>) value;
+            break;
+        case FIELD_DETAILS:
+            this.details = (String) value;
+            break;
+        case FIELD_SHARED_TICKETS:
+            this.sharedTickets = (Boolean) value;
+            break;
+        default:
+            super.setFieldValue(field, value);
+            break;
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -3,6 +3,7 @@ package com.github.brunomarq.searchcli.domain;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -33,6 +34,12 @@ public class Ticket extends Entity {
                     FIELD_VIA).stream())
             .collect(Collectors.toList()));
 
+    public static final List<String> TIMESTAMP_FIELDS = Collections
+            .unmodifiableList(Arrays.asList(FIELD_CREATED_AT, FIELD_DUE_AT));
+
+    public static final List<String> TEXT_FIELDS = Collections
+            .unmodifiableList(Arrays.asList(FIELD_SUBJECT, FIELD_DESCRIPTION));
+
     @JsonProperty(FIELD_TYPE)
     private String type;
 
@@ -220,6 +227,89 @@ public class Ticket extends Entity {
         this.via = via;
     }
 
+    /**
+     * @param visitor consumer receiving the json field name and its value.
+     */
+    @Override
+    public void visitFields(BiConsumer<String, Object> visitor) {
+        super.visitFields(visitor);
+        visitor.accept(FIELD_TYPE, type);
+        visitor.accept(FIELD_SUBJECT, subject);
+        visitor.accept(FIELD_DESCRIPTION, description);
+        visitor.accept(FIELD_PRIORITY, priority);
+        visitor.accept(FIELD_STATUS, status);
+        visitor.accept(FIELD_SUBMITTER_ID, submitterId);
+        visitor.accept(FIELD_ASSIGNEE_ID, assigneeId);
+        visitor.accept(FIELD_ORGANIZATION_ID, organizationId);
+        visitor.accept(FIELD_HAS_INCIDENTS, hasIncidents);
+        visitor.accept(FIELD_DUE_AT, dueAt);
+        visitor.accept(FIELD_VIA, via);
+    }
+
+    /**
+     * @param field json field name.
+     * @return boolean true if the field holds timestamps.
+     */
+    @Override
+    public boolean isTimestampField(String field) {
+        return TIMESTAMP_FIELDS.contains(field);
+    }
+
+    /**
+     * @param field json field name.
+     * @return boolean true if the field holds free text.
+     */
+    @Override
+    public boolean isTextField(String field) {
+        return TEXT_FIELDS.contains(field);
+    }
+
+    /**
+     * @param field json field name.
+     * @param value value as visited.
+     */
+    @Override
+    public void setFieldValue(String field, Object value) {
+        switch (field) {
+        case FIELD_TYPE:
+            this.type = (String) value;
+            break;
+        case FIELD_SUBJECT:
+            this.subject = (String) value;
+            break;
+        case FIELD_DESCRIPTION:
+            this.description = (String) value;
+            break;
+        case FIELD_PRIORITY:
+            this.priority = (String) value;
+            break;
+        case FIELD_STATUS:
+            this.status = (String) value;
+            break;
+        case FIELD_SUBMITTER_ID:
+            this.submitterId = (Long) value;
+            break;
+        case FIELD_ASSIGNEE_ID:
+            this.assigneeId = (Long) value;
+            break;
+        case FIELD_ORGANIZATION_ID:
+            this.organizationId = (Long) value;
+            break;
+        case FIELD_HAS_INCIDENTS:
+            this.hasIncidents = (Boolean) value;
+            break;
+        case FIELD_DUE_AT:
+            this.dueAt = (String) value;
+            break;
+        case FIELD_VIA:
+            this.via = (String) value;
+            break;
+        default:
+            super.setFieldValue(field, value);
+            break;
+        }
+    }
+
     /**
      * @return int
      */
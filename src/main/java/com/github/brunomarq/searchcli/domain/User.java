@@ -3,6 +3,7 @@ package com.github.brunomarq.searchcli.domain;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,6 +39,11 @@ public class User extends Entity {
                                     FIELD_SIGNATURE, FIELD_ORGANIZATION_ID, FIELD_SUSPENDED, FIELD_ROLE).stream())
                     .collect(Collectors.toList()));
 
+    public static final List<String> TIMESTAMP_FIELDS = Collections
+            .unmodifiableList(Arrays.asList(FIELD_CREATED_AT, FIELD_LAST_LOGIN_AT));
+
+    public static final List<String> TEXT_FIELDS = Collections.singletonList(FIELD_SIGNATURE);
+
     @JsonProperty(FIELD_NAME)
     private String name;
 
@@ -276,6 +282,101 @@ public class User extends Entity {
         this.role = role;
     }
 
+    /**
+     * @param visitor consumer receiving the json field name and its value.
+     */
+    @Override
+    public void visitFields(BiConsumer<String, Object> visitor) {
+        super.visitFields(visitor);
+        visitor.accept(FIELD_NAME, name);
+        visitor.accept(FIELD_ALIAS, alias);
+        visitor.accept(FIELD_ACTIVE, active);
+        visitor.accept(FIELD_VERIFIED, verified);
+        visitor.accept(FIELD_SHARED, shared);
+        visitor.accept(FIELD_LOCALE, locale);
+        visitor.accept(FIELD_TIMEZONE, timezone);
+        visitor.accept(FIELD_LAST_LOGIN_AT, lastLoginAt);
+        visitor.accept(FIELD_EMAIL, email);
+        visitor.accept(FIELD_PHONE, phone);
+        visitor.accept(FIELD_SIGNATURE, signature);
+        visitor.accept(FIELD_ORGANIZATION_ID, organizationId);
+        visitor.accept(FIELD_SUSPENDED, suspended);
+        visitor.accept(FIELD_ROLE, role);
+    }
+
+    /**
+     * @param field json field name.
+     * @return boolean true if the field holds timestamps.
+     */
+    @Override
+    public boolean isTimestampField(String field) {
+        return TIMESTAMP_FIELDS.contains(field);
+    }
+
+    /**
+     * @param field json field name.
+     * @return boolean true if the field holds free text.
+     */
+    @Override
+    public boolean isTextField(String field) {
+        return TEXT_FIELDS.contains(field);
+    }
+
+    /**
+     * @param field json field name.
+     * @param value value as visited.
+     */
+    @Override
+    public void setFieldValue(String field, Object value) {
+        switch (field) {
+        case FIELD_NAME:
+            this.name = (String) value;
+            break;
+        case FIELD_ALIAS:
+            this.alias = (String) value;
+            break;
+        case FIELD_ACTIVE:
+            this.active = (Boolean) value;
+            break;
+        case FIELD_VERIFIED:
+            this.verified = (Boolean) value;
+            break;
+        case FIELD_SHARED:
+            this.shared = (Boolean) value;
+            break;
+        case FIELD_LOCALE:
+            this.locale = (String) value;
+            break;
+        case FIELD_TIMEZONE:
+            this.timezone = (String) value;
+            break;
+        case FIELD_LAST_LOGIN_AT:
+            this.lastLoginAt = (String) value;
+            break;
+        case FIELD_EMAIL:
+            this.email = (String) value;
+            break;
+        case FIELD_PHONE:
+            this.phone = (String) value;
+            break;
+        case FIELD_SIGNATURE:
+            this.signature = (String) value;
+            break;
+        case FIELD_ORGANIZATION_ID:
+            this.organizationId = (Long) value;
+            break;
+        case FIELD_SUSPENDED:
+            this.suspended = (Boolean) value;
+            break;
+        case FIELD_ROLE:
+            this.role = (String) value;
+            break;
+        default:
+            super.setFieldValue(field, value);
+            break;
+        }
+    }
+
     /**
      * @return int
      */
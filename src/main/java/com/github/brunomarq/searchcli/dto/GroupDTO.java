@@ -0,0 +1,42 @@
+package com.github.brunomarq.searchcli.dto;
+
+import java.util.List;
+
+/*
+* Represents a group of an aggregation, the values of the fields grouped by and the number of records holding them.
+*/
+public class GroupDTO {
+
+    private List<String> values;
+
+    private int count;
+
+    /**
+     * @return the values of the fields, in the order they were grouped by
+     */
+    public List<String> getValues() {
+        return values;
+    }
+
+    /**
+     * @param values the values of the fields to set
+     */
+    public void setValues(List<String> values) {
+        this.values = values;
+    }
+
+    /**
+     * @return the number of records of the group
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @param count the number of records of the group to set
+     */
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.github.brunomarq.searchcli.dto;
+
+import java.util.List;
+
+/*
+* Represents a page of the aggregated responses of a search, along with the number of records found.
+*/
+public class PageDTO<T> {
+
+    private List<T> records;
+
+    private int offset;
+
+    private int total;
+
+    /**
+     * @return the records of the page
+     */
+    public List<T> getRecords() {
+        return records;
+    }
+
+    /**
+     * @param records the records of the page to set
+     */
+    public void setRecords(List<T> records) {
+        this.records = records;
+    }
+
+    /**
+     * @return the number of records found before the first one of the page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @param offset the number of records found before the first one of the page
+     *               to set
+     */
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * @return the number of records found by the search
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @param total the number of records found by the search to set
+     */
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+}
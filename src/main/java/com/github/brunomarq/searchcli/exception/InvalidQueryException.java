@@ -0,0 +1,14 @@
+package com.github.brunomarq.searchcli.exception;
+
+/*
+* Checked exception that indicates a query that cannot be parsed, with the reason in its message.
+*/
+public class InvalidQueryException extends Exception {
+
+    private static final long serialVersionUID = 3650728341762415803L;
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.github.brunomarq.searchcli.exception;
+
+/*
+* Checked exception that indicates an aggregation over more combinations of values than can be counted.
+*/
+public class TooManyGroupsException extends Exception {
+
+    private static final long serialVersionUID = -3460938271573409526L;
+
+}
@@ -0,0 +1,35 @@
+package com.github.brunomarq.searchcli.query;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+* Matches the records holding any of the values in a field: field=value for a single value, field
+* IN (value, ...) for several. Values are matched as in a single search, wildcards and ~ included.
+*/
+public final class FieldPredicate implements Query {
+
+    private final String field;
+
+    private final List<String> values;
+
+    public FieldPredicate(String field, List<String> values) {
+        this.field = field;
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    /**
+     * @return the name of the field
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return the values looked for, any of which matches
+     */
+    public List<String> getValues() {
+        return values;
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.github.brunomarq.searchcli.query;
+
+/*
+* Matches the records not matched by the query it negates.
+*/
+public final class NotQuery implements Query {
+
+    private final Query query;
+
+    public NotQuery(Query query) {
+        this.query = query;
+    }
+
+    /**
+     * @return the query negated
+     */
+    public Query getQuery() {
+        return query;
+    }
+
+}
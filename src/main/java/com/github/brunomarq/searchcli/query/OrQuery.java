@@ -0,0 +1,24 @@
+package com.github.brunomarq.searchcli.query;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+* Matches the records matched by any of the queries it combines.
+*/
+public final class OrQuery implements Query {
+
+    private final List<Query> queries;
+
+    public OrQuery(List<Query> queries) {
+        this.queries = Collections.unmodifiableList(queries);
+    }
+
+    /**
+     * @return the queries combined
+     */
+    public List<Query> getQueries() {
+        return queries;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.github.brunomarq.searchcli.query;
+
+/*
+* Node of a parsed query: a predicate on a field, or the combination of other queries with AND, OR
+* or NOT.
+*/
+public interface Query {
+
+}
@@ -0,0 +1,208 @@
+package com.github.brunomarq.searchcli.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.brunomarq.searchcli.exception.InvalidQueryException;
+
+/*
+* Parses queries such as status=open AND priority IN (high, urgent) AND NOT tags=Ohio.
+*
+* Predicates are field=value or field IN (value, ...), combined with AND, OR and NOT, which are not
+* case sensitive, and grouped with parentheses. NOT binds tighter than AND, and AND tighter than OR.
+* Values holding spaces, parentheses, commas or = are quoted with " or ', and a backslash before the
+* quote makes it literal. A quote within an unquoted value, as in O'Brien, is taken as it is.
+*/
+public final class QueryParser {
+
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+    private static final String NOT = "NOT";
+    private static final String IN = "IN";
+
+    private enum TokenType {
+        WORD, QUOTED, OPEN, CLOSE, COMMA, EQUALS, END
+    }
+
+    private static final class Token {
+
+        private final TokenType type;
+
+        private final String text;
+
+        private final int position;
+
+        private Token(TokenType type, String text, int position) {
+            this.type = type;
+            this.text = text;
+            this.position = position;
+        }
+
+        private boolean isKeyword(String keyword) {
+            return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+        }
+
+    }
+
+    private final List<Token> tokens;
+
+    private int next;
+
+    private QueryParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * @param query text of the query.
+     * @return Query the parsed query.
+     * @throws InvalidQueryException if the text is not a valid query.
+     */
+    public static Query parse(String query) throws InvalidQueryException {
+        QueryParser parser = new QueryParser(tokenize(query));
+        Query parsed = parser.parseOr();
+        Token token = parser.peek();
+        if (token.type != TokenType.END) {
+            throw unexpected(token);
+        }
+        return parsed;
+    }
+
+    private Query parseOr() throws InvalidQueryException {
+        List<Query> queries = new ArrayList<>();
+        queries.add(parseAnd());
+        while (peek().isKeyword(OR)) {
+            next++;
+            queries.add(parseAnd());
+        }
+        return queries.size() == 1 ? queries.get(0) : new OrQuery(queries);
+    }
+
+    private Query parseAnd() throws InvalidQueryException {
+        List<Query> queries = new ArrayList<>();
+        queries.add(parseUnary());
+        while (peek().isKeyword(AND)) {
+            next++;
+            queries.add(parseUnary());
+        }
+        return queries.size() == 1 ? queries.get(0) : new AndQuery(queries);
+    }
+
+    private Query parseUnary() throws InvalidQueryException {
+        Token token = peek();
+        if (token.isKeyword(NOT)) {
+            next++;
+            return new NotQuery(parseUnary());
+        } else if (token.type == TokenType.OPEN) {
+            next++;
+            Query query = parseOr();
+            expect(TokenType.CLOSE);
+            return query;
+        }
+        return parsePredicate();
+    }
+
+    private Query parsePredicate() throws InvalidQueryException {
+        Token field = expect(TokenType.WORD);
+        if (isKeyword(field)) {
+            throw unexpected(field);
+        }
+        List<String> values = new ArrayList<>();
+        if (peek().isKeyword(IN)) {
+            next++;
+            expect(TokenType.OPEN);
+            values.add(parseValue());
+            while (peek().type == TokenType.COMMA) {
+                next++;
+                values.add(parseValue());
+            }
+            expect(TokenType.CLOSE);
+        } else {
+            expect(TokenType.EQUALS);
+            values.add(parseValue());
+        }
+        return new FieldPredicate(field.text, values);
+    }
+
+    private String parseValue() throws InvalidQueryException {
+        Token token = peek();
+        if (token.type != TokenType.QUOTED && (token.type != TokenType.WORD || isKeyword(token))) {
+            throw unexpected(token);
+        }
+        next++;
+        return token.text;
+    }
+
+    private Token peek() {
+        return tokens.get(next);
+    }
+
+    private Token expect(TokenType type) throws InvalidQueryException {
+        Token token = peek();
+        if (token.type != type) {
+            throw unexpected(token);
+        }
+        next++;
+        return token;
+    }
+
+    private static boolean isKeyword(Token token) {
+        return token.isKeyword(AND) || token.isKeyword(OR) || token.isKeyword(NOT) || token.isKeyword(IN);
+    }
+
+    private static InvalidQueryException unexpected(Token token) {
+        if (token.type == TokenType.END) {
+            return new InvalidQueryException("Unexpected end of the query");
+        }
+        return new InvalidQueryException(
+                String.format("Unexpected '%s' at position %d of the query", token.text, token.position + 1));
+    }
+
+    /**
+     * @param query text of the query.
+     * @return List<Token> tokens of the query, ending with an END token.
+     * @throws InvalidQueryException if a quoted value is not closed.
+     */
+    private static List<Token> tokenize(String query) throws InvalidQueryException {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == ',' || c == '=') {
+                TokenType type = c == '(' ? TokenType.OPEN
+                        : c == ')' ? TokenType.CLOSE : c == ',' ? TokenType.COMMA : TokenType.EQUALS;
+                tokens.add(new Token(type, String.valueOf(c), i));
+                i++;
+            } else if (c == '"' || c == '\'') {
+                StringBuilder value = new StringBuilder();
+                int start = i++;
+                while (i < query.length() && query.charAt(i) != c) {
+                    if (query.charAt(i) == '\\' && i + 1 < query.length() && query.charAt(i + 1) == c) {
+                        i++;
+                    }
+                    value.append(query.charAt(i++));
+                }
+                if (i == query.length()) {
+                    throw new InvalidQueryException(
+                            String.format("Quoted value at position %d of the query is not closed", start + 1));
+                }
+                tokens.add(new Token(TokenType.QUOTED, value.toString(), start));
+                i++;
+            } else {
+                int start = i;
+                while (i < query.length() && !isDelimiter(query.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.WORD, query.substring(start, i), start));
+            }
+        }
+        tokens.add(new Token(TokenType.END, "", query.length()));
+        return tokens;
+    }
+
+    private static boolean isDelimiter(char c) {
+        return Character.isWhitespace(c) || c == '(' || c == ')' || c == ',' || c == '=';
+    }
+
+}
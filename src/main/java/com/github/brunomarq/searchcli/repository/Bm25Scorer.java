@@ -0,0 +1,130 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+* Ranks the records matching any term of a query with BM25, summed over the searched fields. The
+* postings of every term are walked together in document order, so each matching record is scored
+* once and only the best ones are kept in a bounded heap, whatever the number of matches.
+*/
+final class Bm25Scorer {
+
+    // Saturation of the term frequency
+    private static final double K1 = 1.2;
+
+    // Normalization by the length of the field
+    private static final double B = 0.75;
+
+    private Bm25Scorer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /*
+    * Position in the postings of a term of a field, with the weights of that term in that field.
+    */
+    private static final class Cursor {
+
+        private final TextIndex field;
+
+        private final TextPostings postings;
+
+        private final double idf;
+
+        private final double averageLength;
+
+        private int next;
+
+        private Cursor(TextIndex field, TextPostings postings) {
+            this.field = field;
+            this.postings = postings;
+            int docCount = field.getDocCount();
+            this.idf = Math.log(1 + (docCount - postings.size() + 0.5) / (postings.size() + 0.5));
+            this.averageLength = field.getAverageLength();
+        }
+
+        private int doc() {
+            return next < postings.size() ? postings.getDoc(next) : Integer.MAX_VALUE;
+        }
+
+        private double score() {
+            int frequency = postings.getFrequency(next);
+            double norm = 1 - B + B * field.getLength(postings.getDoc(next)) / averageLength;
+            return idf * frequency * (K1 + 1) / (frequency + K1 * norm);
+        }
+
+    }
+
+    /*
+    * Record and its score.
+    */
+    private static final class ScoredDoc {
+
+        private final int doc;
+
+        private final double score;
+
+        private ScoredDoc(int doc, double score) {
+            this.doc = doc;
+            this.score = score;
+        }
+
+    }
+
+    /**
+     * @param fields full-text indexes of the fields searched.
+     * @param terms  analyzed terms of the query, without repetition.
+     * @param limit  maximum number of records returned.
+     * @return int[] document ids of the best records, the best first and records
+     *         with the same score in document order.
+     */
+    static int[] topDocs(Collection<TextIndex> fields, Collection<String> terms, int limit) {
+        List<Cursor> cursors = new ArrayList<>();
+        for (TextIndex field : fields) {
+            for (String term : terms) {
+                TextPostings postings = field.getPostings(term);
+                if (postings != null) {
+                    cursors.add(new Cursor(field, postings));
+                }
+            }
+        }
+        if (cursors.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        // Worst of the best records first, so it is the one replaced
+        PriorityQueue<ScoredDoc> best = new PriorityQueue<>(limit + 1,
+                (a, b) -> a.score != b.score ? Double.compare(a.score, b.score) : Integer.compare(b.doc, a.doc));
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (Cursor cursor : cursors) {
+                doc = Math.min(doc, cursor.doc());
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+            double score = 0;
+            for (Cursor cursor : cursors) {
+                if (cursor.doc() == doc) {
+                    score += cursor.score();
+                    cursor.next++;
+                }
+            }
+            if (best.size() < limit) {
+                best.add(new ScoredDoc(doc, score));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new ScoredDoc(doc, score));
+            }
+        }
+
+        int[] docs = new int[best.size()];
+        for (int i = docs.length - 1; i >= 0; i--) {
+            docs[i] = best.poll().doc;
+        }
+        return docs;
+    }
+
+}
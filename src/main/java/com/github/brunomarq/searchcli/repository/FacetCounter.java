@@ -0,0 +1,227 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.exception.TooManyGroupsException;
+
+/*
+* Counts the records of an index grouped by the values of a few fields, straight from the columns
+* of the records, so no record is built whatever the number of records counted.
+*
+* Every value of a field is given a bucket, in the order it is first seen, with bucket 0 for the
+* records where the field is missing, null or an empty list. The buckets of all the fields are
+* combined into a single number, which is counted in an array when there are few enough groups,
+* or in a map otherwise. A record holding a list is counted once for every distinct item of the
+* list, as a search for the item finds it once however many times the list holds it.
+*/
+final class FacetCounter {
+
+    // Largest number of groups counted in an array rather than in a map
+    private static final int MAX_DENSE_GROUPS = 1 << 20;
+
+    private static final int MISSING = 0;
+
+    private FacetCounter() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param index  index of the records.
+     * @param fields fields the records are grouped by.
+     * @param docs   document ids of the records counted.
+     * @return Map<List<String>, Integer> number of records holding every
+     *         combination of values of the fields, the values in the order of the
+     *         fields and empty where a field is missing. Combinations held by no
+     *         record are left out.
+     * @throws InvalidFieldNameException in case a field is not indexed.
+     * @throws TooManyGroupsException    if there are too many combinations of
+     *                                   values to be numbered by a long.
+     */
+    static Map<List<String>, Integer> count(InvertedIndex<?> index, List<String> fields, PostingList docs)
+            throws InvalidFieldNameException, TooManyGroupsException {
+        Facet[] facets = new Facet[fields.size()];
+        long groupCount = 1;
+        for (int i = 0; i < facets.length; i++) {
+            if (index.getField(fields.get(i)) == null) {
+                throw new InvalidFieldNameException();
+            }
+            facets[i] = new Facet(index.getRecordStore().getColumn(fields.get(i)), index.getDictionary(), docs);
+            if (groupCount > Long.MAX_VALUE / facets[i].labels.size()) {
+                throw new TooManyGroupsException();
+            }
+            groupCount *= facets[i].labels.size();
+        }
+
+        Map<Long, int[]> sparseCounts = new HashMap<>();
+        int[] denseCounts = groupCount <= MAX_DENSE_GROUPS ? new int[(int) groupCount] : null;
+        for (int i = 0; i < docs.size(); i++) {
+            countGroups(facets, 0, i, 0, denseCounts, sparseCounts);
+        }
+
+        Map<List<String>, Integer> groups = new LinkedHashMap<>();
+        if (denseCounts != null) {
+            for (int group = 0; group < denseCounts.length; group++) {
+                if (denseCounts[group] > 0) {
+                    groups.merge(labelsOf(facets, group), denseCounts[group], Integer::sum);
+                }
+            }
+        } else {
+            sparseCounts.forEach((group, count) -> groups.merge(labelsOf(facets, group), count[0], Integer::sum));
+        }
+        return groups;
+    }
+
+    /**
+     * Counts the groups of a record, one for every combination of the buckets it
+     * holds in the fields from a position on.
+     *
+     * @param facets       buckets of every field.
+     * @param facet        position of the next field.
+     * @param position     position of the record among the ones counted.
+     * @param group        group of the buckets of the previous fields.
+     * @param denseCounts  number of records of every group, or null.
+     * @param sparseCounts number of records of every group, used without the
+     *                     array.
+     */
+    private static void countGroups(Facet[] facets, int facet, int position, long group, int[] denseCounts,
+            Map<Long, int[]> sparseCounts) {
+        if (facet == facets.length) {
+            if (denseCounts != null) {
+                denseCounts[(int) group]++;
+            } else {
+                sparseCounts.computeIfAbsent(group, key -> new int[1])[0]++;
+            }
+            return;
+        }
+        Facet current = facets[facet];
+        long radix = current.labels.size();
+        for (int i = current.starts[position]; i < current.starts[position + 1]; i++) {
+            countGroups(facets, facet + 1, position, group * radix + current.buckets[i], denseCounts, sparseCounts);
+        }
+    }
+
+    private static List<String> labelsOf(Facet[] facets, long group) {
+        String[] labels = new String[facets.length];
+        for (int i = facets.length - 1; i >= 0; i--) {
+            long radix = facets[i].labels.size();
+            labels[i] = facets[i].labels.get((int) (group % radix));
+            group /= radix;
+        }
+        return Arrays.asList(labels);
+    }
+
+    /*
+    * Buckets of the values of a field for the records counted: the buckets of the record at a
+    * position run from its start to the start of the next one.
+    */
+    private static final class Facet {
+
+        // Value of every bucket
+        private final List<String> labels = new ArrayList<>();
+
+        private final int[] starts;
+
+        private int[] buckets;
+
+        private int bucketCount;
+
+        // Buckets of false and true, at the byte the column holds for them
+        private final int[] booleanBuckets = new int[3];
+
+        Facet(RecordColumn column, TermDictionary dictionary, PostingList docs) {
+            labels.add("");
+            starts = new int[docs.size() + 1];
+            buckets = new int[docs.size()];
+            RecordColumn.Kind kind = column == null ? RecordColumn.Kind.NULL : column.getKind();
+            // Buckets of the codes of the dictionary, shifted by one so a null code is at 0
+            int[] codeBuckets = kind == RecordColumn.Kind.TERM || kind == RecordColumn.Kind.LIST
+                    ? new int[dictionary.size() + 1]
+                    : null;
+            Map<Long, Integer> longBuckets = new HashMap<>();
+            for (int i = 0; i < docs.size(); i++) {
+                int doc = docs.get(i);
+                starts[i] = bucketCount;
+                switch (kind) {
+                case TERM:
+                    add(bucketOfCode(column.getCode(doc), codeBuckets, dictionary));
+                    break;
+                case LONG:
+                    add(column.isNull(doc) ? MISSING
+                            : longBuckets.computeIfAbsent(column.getLong(doc), this::newBucket));
+                    break;
+                case BOOLEAN:
+                    add(bucketOfBoolean(column.getBoolean(doc)));
+                    break;
+                case LIST:
+                    int start = column.getStart(doc);
+                    int end = column.getStart(doc + 1);
+                    if (start == end) {
+                        add(MISSING);
+                    }
+                    for (int item = start; item < end; item++) {
+                        addDistinct(bucketOfCode(column.getCode(item), codeBuckets, dictionary), starts[i]);
+                    }
+                    break;
+                default:
+                    add(MISSING);
+                    break;
+                }
+            }
+            starts[docs.size()] = bucketCount;
+        }
+
+        private void add(int bucket) {
+            if (bucketCount == buckets.length) {
+                buckets = Arrays.copyOf(buckets, bucketCount * 3 / 2 + 1);
+            }
+            buckets[bucketCount++] = bucket;
+        }
+
+        /**
+         * Adds a bucket of the current record unless the record already holds it, as
+         * a list holding an item twice matches it once.
+         *
+         * @param bucket bucket of an item of a list.
+         * @param start  position of the first bucket of the current record.
+         */
+        private void addDistinct(int bucket, int start) {
+            for (int i = start; i < bucketCount; i++) {
+                if (buckets[i] == bucket) {
+                    return;
+                }
+            }
+            add(bucket);
+        }
+
+        private int newBucket(Object value) {
+            labels.add(value.toString());
+            return labels.size() - 1;
+        }
+
+        private int bucketOfCode(int code, int[] codeBuckets, TermDictionary dictionary) {
+            if (code < 0) {
+                return MISSING;
+            } else if (codeBuckets[code + 1] == 0) {
+                codeBuckets[code + 1] = newBucket(dictionary.get(code));
+            }
+            return codeBuckets[code + 1];
+        }
+
+        private int bucketOfBoolean(byte value) {
+            if (value == 0) {
+                return MISSING;
+            } else if (booleanBuckets[value] == 0) {
+                booleanBuckets[value] = newBucket(Boolean.valueOf(value == 2));
+            }
+            return booleanBuckets[value];
+        }
+
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import com.github.brunomarq.searchcli.repository.JsonChunker.Chunk;
+
+/*
+* Support for gzip compressed json files. A gzip file may hold several members, each one compressed
+* on its own, as written by parallel compressors or by appending gzip files together. Members can be
+* decompressed independently from each other, so a file with many members is split at member
+* boundaries to be decompressed and parsed in parallel chunks.
+*/
+final class GzipMembers {
+
+    static final String EXTENSION = ".gz";
+
+    private static final int MAGIC_1 = 0x1f;
+    private static final int MAGIC_2 = 0x8b;
+    private static final int METHOD_DEFLATE = 8;
+
+    // Flags not defined by RFC 1952, always zero in a valid header
+    private static final int RESERVED_FLAGS = 0xe0;
+
+    private static final int HEADER_SIZE = 10;
+
+    // Size of each mapping of the file while looking for member headers
+    private static final long SCAN_WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private GzipMembers() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Decompresses the stream as it is read if it starts with the gzip magic
+     * bytes, whatever the name of the file.
+     *
+     * @param in stream with json or gzip compressed json.
+     * @return InputStream stream with the json content.
+     * @throws IOException if the stream cannot be read or has an invalid gzip
+     *                     header.
+     */
+    static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(2);
+        boolean gzip = buffered.read() == MAGIC_1 && buffered.read() == MAGIC_2;
+        buffered.reset();
+        return gzip ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+    }
+
+    /**
+     * @param channel channel of the file.
+     * @return boolean true if the file starts with the gzip magic bytes.
+     * @throws IOException if the file cannot be read.
+     */
+    static boolean isGzip(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            return false;
+        }
+        MappedByteBuffer head = channel.map(MapMode.READ_ONLY, 0, 2);
+        return (head.get(0) & 0xff) == MAGIC_1 && (head.get(1) & 0xff) == MAGIC_2;
+    }
+
+    /**
+     * Tells whether a gzip file holds json lines rather than a json array, from
+     * its extension once the .gz is dropped or else from the first significant
+     * character of its content.
+     *
+     * @param channel  channel of the gzip file.
+     * @param fileName name of the gzip file.
+     * @return boolean true if the file holds one record per line.
+     * @throws IOException if the file cannot be read.
+     */
+    static boolean isJsonLines(FileChannel channel, String fileName) throws IOException {
+        String lowerCaseName = fileName.toLowerCase();
+        if (lowerCaseName.endsWith(EXTENSION)) {
+            lowerCaseName = lowerCaseName.substring(0, lowerCaseName.length() - EXTENSION.length());
+        }
+        if (lowerCaseName.endsWith(".jsonl") || lowerCaseName.endsWith(".ndjson")) {
+            return true;
+        }
+        Chunk head = new Chunk(0, Math.min(channel.size(), BUFFER_SIZE), false);
+        try (InputStream in = new GZIPInputStream(JsonChunker.open(channel, head), BUFFER_SIZE)) {
+            int b;
+            while ((b = in.read()) >= 0) {
+                if (!Character.isWhitespace(b)) {
+                    return b == '{';
+                }
+            }
+        } catch (EOFException e) {
+            // The first member is longer than the head read
+        }
+        return false;
+    }
+
+    /**
+     * Cuts a gzip file into chunks of roughly the same size, each one starting at
+     * what looks like the header of a member. The headers are only told apart from
+     * compressed data by their magic bytes, so the caller must be ready for a chunk
+     * that fails to decompress.
+     *
+     * @param channel    channel of the gzip file.
+     * @param chunkCount number of chunks wanted.
+     * @return List<Chunk> chunks in file order, a single one if the file cannot be
+     *         split.
+     * @throws IOException if the file cannot be mapped.
+     */
+    static List<Chunk> split(FileChannel channel, int chunkCount) throws IOException {
+        long size = channel.size();
+        long targetSize = Math.max(1, size / chunkCount);
+        List<Chunk> chunks = new ArrayList<>(chunkCount);
+
+        long chunkStart = 0;
+        while (chunkStart < size) {
+            long chunkEnd = chunkStart + targetSize >= size ? size
+                    : nextMemberStart(channel, chunkStart + targetSize, size);
+            if (chunkEnd - chunkStart > Integer.MAX_VALUE) {
+                // Too large to be mapped at once
+                return Collections.singletonList(new Chunk(0, size, false));
+            }
+            chunks.add(new Chunk(chunkStart, chunkEnd, false));
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    /**
+     * @param channel  channel of the gzip file.
+     * @param position position from which to look for a member header.
+     * @param size     size of the file.
+     * @return long position of the next member header, or the size of the file if
+     *         there is none.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private static long nextMemberStart(FileChannel channel, long position, long size) throws IOException {
+        long windowStart = position;
+        while (windowStart + HEADER_SIZE <= size) {
+            MappedByteBuffer window = channel.map(MapMode.READ_ONLY, windowStart,
+                    Math.min(SCAN_WINDOW_SIZE, size - windowStart));
+            int limit = window.limit() - HEADER_SIZE;
+            for (int i = 0; i <= limit; i++) {
+                if ((window.get(i) & 0xff) == MAGIC_1 && (window.get(i + 1) & 0xff) == MAGIC_2
+                        && window.get(i + 2) == METHOD_DEFLATE && (window.get(i + 3) & RESERVED_FLAGS) == 0) {
+                    return windowStart + i;
+                }
+            }
+            // Windows overlap so a header across two of them is not missed
+            windowStart += limit + 1;
+        }
+        return size;
+    }
+
+}
@@ -0,0 +1,530 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import com.github.brunomarq.searchcli.domain.Entity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+* Binary snapshot of an inverted index and its records.
+*
+* Layout: magic, version, entity class, source length and checksum, the dictionary of distinct
+* string values, field names, the number of records and the column of every field: its kind, then
+* strings as their code in the dictionary plus one, zero for null, numbers as the document ids of
+* their nulls followed by every value, booleans as a byte each, and lists as their length plus one
+* followed by the codes of their items, then the postings of every field value, also by code, as
+* gaps between document ids in variable length integers, the postings of the records missing every
+* field in the same way, the postings of every numeric value in the same way, the sorted timestamps
+* of every timestamp field with their document ids, the term counts and positional postings of
+* every free text field and, at the end, the CRC32C of everything before it.
+*/
+final class IndexSnapshot {
+
+    static final Logger log = LoggerFactory.getLogger(IndexSnapshot.class);
+
+    static final String EXTENSION = ".snapshot";
+
+    private static final int MAGIC = 0x53434C49;
+
+    // Must be increased every time the layout changes
+    static final int VERSION = 8;
+
+    private static final RecordColumn.Kind[] KINDS = RecordColumn.Kind.values();
+
+    private IndexSnapshot() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Writes the index to a temporary file that then replaces the snapshot, so a
+     * failure never leaves a truncated snapshot behind.
+     *
+     * @param index        index to be written.
+     * @param typeClass    type of the entity.
+     * @param snapshotPath path of the snapshot file.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    static <T extends Entity> void write(InvertedIndex<T> index, Class<T> typeClass, Path snapshotPath)
+            throws IOException {
+        Path tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream file = Files.newOutputStream(tempPath);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new CheckedOutputStream(file, crc), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, typeClass.getName());
+            out.writeLong(index.getSource().getLength());
+            out.writeLong(index.getSource().getChecksum());
+
+            TermDictionary dictionary = index.getDictionary();
+            out.writeInt(dictionary.size());
+            for (int code = 0; code < dictionary.size(); code++) {
+                writeString(out, dictionary.get(code));
+            }
+
+            RecordStore<T> records = index.getRecordStore();
+            out.writeInt(records.getFieldNames().size());
+            for (String field : records.getFieldNames()) {
+                writeString(out, field);
+            }
+            out.writeInt(records.size());
+            for (int i = 0; i < records.getFieldNames().size(); i++) {
+                writeColumn(out, records.getColumn(i));
+            }
+
+            out.writeInt(index.getFieldNames().size());
+            for (String field : index.getFieldNames()) {
+                Map<String, PostingList> values = index.getField(field);
+                writeString(out, field);
+                out.writeInt(values.size());
+                for (Entry<String, PostingList> value : values.entrySet()) {
+                    writeVarInt(out, codeOf(dictionary, value.getKey()));
+                    writePostings(out, value.getValue());
+                }
+            }
+
+            out.writeInt(index.getMissingFieldNames().size());
+            for (String field : index.getMissingFieldNames()) {
+                writeString(out, field);
+                writePostings(out, index.getMissingField(field));
+            }
+
+            out.writeInt(index.getNumericFieldNames().size());
+            for (String field : index.getNumericFieldNames()) {
+                LongPostingMap values = index.getNumericField(field);
+                writeString(out, field);
+                out.writeInt(values.size());
+                try {
+                    values.forEach((value, postings) -> {
+                        try {
+                            out.writeLong(value);
+                            writePostings(out, postings);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+
+            out.writeInt(index.getTimestampFieldNames().size());
+            for (String field : index.getTimestampFieldNames()) {
+                TimestampColumn column = index.getTimestampField(field);
+                writeString(out, field);
+                out.writeInt(column.size());
+                for (int i = 0; i < column.size(); i++) {
+                    out.writeLong(column.getValue(i));
+                    writeVarInt(out, column.getDoc(i));
+                }
+            }
+
+            out.writeInt(index.getTextFieldNames().size());
+            for (String field : index.getTextFieldNames()) {
+                writeString(out, field);
+                writeTextIndex(out, index.getTextField(field));
+            }
+
+            // The checksum covers everything written so far
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+        }
+        Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the snapshot file and rebuilds the index from it, provided it was built
+     * by this version from the current content of the json file.
+     *
+     * @param snapshotPath path of the snapshot file.
+     * @param typeClass    type of the entity.
+     * @param factory      creates an empty entity object.
+     * @param source       fingerprint of the current content of the json file.
+     * @return InvertedIndex<T> the index, or null if the snapshot is missing,
+     *         stale or corrupted.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    static <T extends Entity> InvertedIndex<T> read(Path snapshotPath, Class<T> typeClass, Supplier<T> factory,
+            SourceFingerprint source) throws IOException {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, snapshotPath, typeClass, factory, source);
+        } catch (BufferUnderflowException | IllegalArgumentException | ClassCastException
+                | NegativeArraySizeException | IndexOutOfBoundsException e) {
+            log.warn("Ignoring corrupted snapshot {}", snapshotPath);
+            return null;
+        }
+    }
+
+    private static <T extends Entity> InvertedIndex<T> read(ByteBuffer buffer, Path snapshotPath,
+            Class<T> typeClass, Supplier<T> factory, SourceFingerprint source) throws IOException {
+        int bodyLength = buffer.limit() - Long.BYTES;
+        if (bodyLength < 2 * Integer.BYTES || buffer.getInt() != MAGIC) {
+            log.warn("Ignoring {} as it is not a snapshot", snapshotPath);
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(0).limit(bodyLength));
+        if (crc.getValue() != buffer.getLong(bodyLength)) {
+            log.warn("Ignoring snapshot {} as its checksum does not match", snapshotPath);
+            return null;
+        }
+        if (buffer.getInt() != VERSION) {
+            log.info("Ignoring snapshot {} written by another version", snapshotPath);
+            return null;
+        }
+        if (!typeClass.getName().equals(readString(buffer))) {
+            log.warn("Ignoring snapshot {} written for another entity", snapshotPath);
+            return null;
+        }
+        SourceFingerprint snapshotSource = new SourceFingerprint(buffer.getLong(), buffer.getLong());
+        if (!snapshotSource.equals(source)) {
+            log.info("Ignoring snapshot {} as the json file has changed", snapshotPath);
+            return null;
+        }
+
+        InvertedIndex<T> index = new InvertedIndex<>(factory);
+        index.setSource(source);
+
+        String[] terms = new String[buffer.getInt()];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = readString(buffer);
+        }
+        TermDictionary dictionary = TermDictionary.of(terms);
+        index.setDictionary(dictionary);
+
+        List<String> fieldNames = new ArrayList<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            fieldNames.add(readString(buffer));
+        }
+        int recordCount = buffer.getInt();
+        List<RecordColumn> columns = new ArrayList<>(fieldNames.size());
+        for (int i = 0; i < fieldNames.size(); i++) {
+            columns.add(readColumn(buffer, recordCount, dictionary.size()));
+        }
+        index.setRecordStore(RecordStore.of(factory, fieldNames, columns, recordCount));
+
+        int fieldCount = buffer.getInt();
+        for (int i = 0; i < fieldCount; i++) {
+            String field = readString(buffer);
+            int valueCount = buffer.getInt();
+            Map<String, PostingList> values = new HashMap<>(valueCount * 4 / 3 + 1);
+            for (int j = 0; j < valueCount; j++) {
+                String value = dictionary.get(readVarInt(buffer));
+                values.put(value, readPostings(buffer, recordCount));
+            }
+            index.putField(field, values);
+        }
+
+        int missingFieldCount = buffer.getInt();
+        for (int i = 0; i < missingFieldCount; i++) {
+            String field = readString(buffer);
+            index.putMissingField(field, readPostings(buffer, recordCount));
+        }
+
+        int numericFieldCount = buffer.getInt();
+        for (int i = 0; i < numericFieldCount; i++) {
+            String field = readString(buffer);
+            int valueCount = buffer.getInt();
+            LongPostingMap values = new LongPostingMap(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                long value = buffer.getLong();
+                values.put(value, readPostings(buffer, recordCount));
+            }
+            index.putNumericField(field, values);
+        }
+
+        int timestampFieldCount = buffer.getInt();
+        for (int i = 0; i < timestampFieldCount; i++) {
+            String field = readString(buffer);
+            long[] values = new long[buffer.getInt()];
+            int[] docs = new int[values.length];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = buffer.getLong();
+                docs[j] = readVarInt(buffer);
+                if (docs[j] < 0 || docs[j] >= recordCount) {
+                    throw new IllegalArgumentException("Document id out of range " + docs[j]);
+                }
+                if (j > 0 && values[j] < values[j - 1]) {
+                    throw new IllegalArgumentException("Timestamps out of order in " + field);
+                }
+            }
+            index.putTimestampField(field, TimestampColumn.of(values, docs));
+        }
+
+        int textFieldCount = buffer.getInt();
+        for (int i = 0; i < textFieldCount; i++) {
+            String field = readString(buffer);
+            index.putTextField(field, readTextIndex(buffer, recordCount));
+        }
+        return index;
+    }
+
+    private static void writeTextIndex(DataOutputStream out, TextIndex textIndex) throws IOException {
+        out.writeInt(textIndex.getLengthCount());
+        for (int doc = 0; doc < textIndex.getLengthCount(); doc++) {
+            writeVarInt(out, textIndex.getLength(doc));
+        }
+        out.writeInt(textIndex.getTerms().size());
+        for (Entry<String, TextPostings> term : textIndex.getTerms().entrySet()) {
+            TextPostings postings = term.getValue();
+            writeString(out, term.getKey());
+            out.writeInt(postings.size());
+            int previousDoc = 0;
+            for (int i = 0; i < postings.size(); i++) {
+                writeVarInt(out, postings.getDoc(i) - previousDoc);
+                previousDoc = postings.getDoc(i);
+                writeVarInt(out, postings.getFrequency(i));
+                int previousPosition = 0;
+                for (int j = 0; j < postings.getFrequency(i); j++) {
+                    writeVarInt(out, postings.getPosition(i, j) - previousPosition);
+                    previousPosition = postings.getPosition(i, j);
+                }
+            }
+        }
+    }
+
+    private static TextIndex readTextIndex(ByteBuffer buffer, int recordCount) {
+        int[] lengths = new int[buffer.getInt()];
+        if (lengths.length > recordCount) {
+            throw new IllegalArgumentException("More lengths than records " + lengths.length);
+        }
+        for (int doc = 0; doc < lengths.length; doc++) {
+            lengths[doc] = readVarInt(buffer);
+        }
+        int termCount = buffer.getInt();
+        Map<String, TextPostings> terms = new HashMap<>(termCount * 4 / 3 + 1);
+        for (int i = 0; i < termCount; i++) {
+            String term = readString(buffer);
+            int[] docs = new int[buffer.getInt()];
+            int[] starts = new int[docs.length];
+            int[] positions = new int[16];
+            int positionCount = 0;
+            int doc = 0;
+            for (int j = 0; j < docs.length; j++) {
+                doc += readVarInt(buffer);
+                if (doc < 0 || doc >= recordCount) {
+                    throw new IllegalArgumentException("Document id out of range " + doc);
+                }
+                docs[j] = doc;
+                starts[j] = positionCount;
+                int frequency = readVarInt(buffer);
+                if (frequency <= 0) {
+                    throw new IllegalArgumentException("Invalid term frequency " + frequency);
+                }
+                if (positionCount + frequency > positions.length) {
+                    positions = Arrays.copyOf(positions, Math.max(positionCount + frequency, positions.length * 2));
+                }
+                int position = 0;
+                for (int k = 0; k < frequency; k++) {
+                    position += readVarInt(buffer);
+                    positions[positionCount++] = position;
+                }
+            }
+            terms.put(term, TextPostings.of(docs, starts, Arrays.copyOf(positions, positionCount)));
+        }
+        return TextIndex.of(terms, lengths);
+    }
+
+    private static void writePostings(DataOutputStream out, PostingList postings) throws IOException {
+        out.writeInt(postings.size());
+        int previous = 0;
+        for (int i = 0; i < postings.size(); i++) {
+            writeVarInt(out, postings.get(i) - previous);
+            previous = postings.get(i);
+        }
+    }
+
+    private static PostingList readPostings(ByteBuffer buffer, int recordCount) {
+        int[] docs = new int[buffer.getInt()];
+        int doc = 0;
+        for (int i = 0; i < docs.length; i++) {
+            doc += readVarInt(buffer);
+            if (doc < 0 || doc >= recordCount) {
+                throw new IllegalArgumentException("Document id out of range " + doc);
+            }
+            docs[i] = doc;
+        }
+        return PostingList.of(docs);
+    }
+
+    /**
+     * @param dictionary dictionary of the index.
+     * @param term       string value of a record or a posting map.
+     * @return int code of the value in the dictionary.
+     * @throws IOException if the value is not in the dictionary.
+     */
+    private static int codeOf(TermDictionary dictionary, String term) throws IOException {
+        int code = dictionary.find(term);
+        if (code < 0) {
+            throw new IOException("Value missing from the dictionary of the index: " + term);
+        }
+        return code;
+    }
+
+    private static void writeColumn(DataOutputStream out, RecordColumn column) throws IOException {
+        out.writeByte(column.getKind().ordinal());
+        switch (column.getKind()) {
+        case TERM:
+            for (int doc = 0; doc < column.size(); doc++) {
+                writeVarInt(out, column.getCode(doc) + 1);
+            }
+            break;
+        case LONG:
+            PostingList nulls = new PostingList();
+            for (int doc = 0; doc < column.size(); doc++) {
+                if (column.isNull(doc)) {
+                    nulls.add(doc);
+                }
+            }
+            writePostings(out, nulls);
+            for (int doc = 0; doc < column.size(); doc++) {
+                out.writeLong(column.getLong(doc));
+            }
+            break;
+        case BOOLEAN:
+            for (int doc = 0; doc < column.size(); doc++) {
+                out.writeByte(column.getBoolean(doc));
+            }
+            break;
+        case LIST:
+            for (int doc = 0; doc < column.size(); doc++) {
+                int start = column.getStart(doc);
+                int end = column.getStart(doc + 1);
+                writeVarInt(out, column.isNull(doc) ? 0 : end - start + 1);
+                for (int i = start; i < end; i++) {
+                    writeVarInt(out, column.getCode(i) + 1);
+                }
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private static RecordColumn readColumn(ByteBuffer buffer, int recordCount, int termCount) {
+        RecordColumn.Kind kind = KINDS[buffer.get()];
+        switch (kind) {
+        case TERM:
+            int[] codes = new int[recordCount];
+            for (int doc = 0; doc < recordCount; doc++) {
+                codes[doc] = readCode(buffer, termCount);
+            }
+            return RecordColumn.of(kind, recordCount, codes, null, null, null, null);
+        case LONG:
+            BitSet nulls = new BitSet(recordCount);
+            PostingList nullDocs = readPostings(buffer, recordCount);
+            for (int i = 0; i < nullDocs.size(); i++) {
+                nulls.set(nullDocs.get(i));
+            }
+            long[] longs = new long[recordCount];
+            for (int doc = 0; doc < recordCount; doc++) {
+                longs[doc] = buffer.getLong();
+            }
+            return RecordColumn.of(kind, recordCount, null, null, longs, null, nulls);
+        case BOOLEAN:
+            byte[] booleans = new byte[recordCount];
+            buffer.get(booleans);
+            return RecordColumn.of(kind, recordCount, null, null, null, booleans, null);
+        case LIST:
+            BitSet nullLists = new BitSet(recordCount);
+            int[] starts = new int[recordCount + 1];
+            int[] items = new int[recordCount];
+            int itemCount = 0;
+            for (int doc = 0; doc < recordCount; doc++) {
+                int length = readVarInt(buffer) - 1;
+                if (length < 0) {
+                    nullLists.set(doc);
+                    length = 0;
+                }
+                if (itemCount + length > items.length) {
+                    items = Arrays.copyOf(items, Math.max(itemCount + length, items.length * 2));
+                }
+                for (int i = 0; i < length; i++) {
+                    items[itemCount++] = readCode(buffer, termCount);
+                }
+                starts[doc + 1] = itemCount;
+            }
+            return RecordColumn.of(kind, recordCount, Arrays.copyOf(items, itemCount), starts, null, null,
+                    nullLists);
+        default:
+            return RecordColumn.of(kind, recordCount, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * @param buffer    snapshot being read.
+     * @param termCount number of values in the dictionary.
+     * @return int code of a string, written plus one, or -1 for null.
+     */
+    private static int readCode(ByteBuffer buffer, int termCount) {
+        int code = readVarInt(buffer) - 1;
+        if (code < -1 || code >= termCount) {
+            throw new IllegalArgumentException("Value code out of range " + code);
+        }
+        return code;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length integer");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,564 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.github.brunomarq.searchcli.domain.Entity;
+import com.github.brunomarq.searchcli.utils.DateTimeUtils;
+
+/*
+* Inverted index from the value of each field to the records holding that value. Every record is
+* given a document id, its position in the list of records, and values map to the sorted ids of
+* their records rather than to the records themselves. Records are only looked up when a search
+* returns them.
+*
+* Numeric values, that is foreign keys and the numeric ids of users and organizations, are kept in
+* long-keyed maps instead, so they are looked up without boxing nor string conversion.
+*
+* Timestamps are also parsed to epoch milliseconds and kept in sorted columns, so they can be
+* searched by range, and free text is split into terms kept in full-text indexes, so it can be
+* searched by its words.
+*
+* The records where a field is missing, null, empty or an empty list are kept in a posting list of
+* their own for each field, so searching for an empty value is a single lookup.
+*
+* Every string value goes through the dictionary of the index as it is added, and posting maps keep
+* the single instance found there instead of a copy of their own. Records are not kept as entity
+* objects but in columns of primitives and dictionary codes, and rebuilt only when returned.
+*/
+class InvertedIndex<T extends Entity> {
+
+    // Key: the field name
+    // Value: Map from the value of the field to the document ids of the records
+    private final Map<String, Map<String, PostingList>> fields = new HashMap<>();
+
+    // Key: the field name
+    // Value: document ids of the records where the field is missing or empty
+    private final Map<String, PostingList> missingFields = new HashMap<>();
+
+    // Key: the field name
+    // Value: Map from the numeric values of the field to the document ids of the records
+    private final Map<String, LongPostingMap> numericFields = new HashMap<>();
+
+    // Key: the field name
+    // Value: Timestamps of the field sorted along with the document ids of the records
+    private final Map<String, TimestampColumn> timestampFields = new HashMap<>();
+
+    // Key: the field name
+    // Value: Full-text index of the terms of the field
+    private final Map<String, TextIndex> textFields = new HashMap<>();
+
+    // Key: the field name
+    // Value: Values of the field in lexicographic order, sorted the first time a
+    // search needs them, once the index is complete and no longer changes
+    private final Map<String, SortedTerms> sortedTerms = new ConcurrentHashMap<>();
+
+    // Distinct string values of the records, each one kept once
+    private TermDictionary dictionary = new TermDictionary();
+
+    // Creates the empty entity objects the records are read into
+    private final Supplier<T> factory;
+
+    // Every record in the order it was loaded, indexed by document id
+    private RecordStore<T> records;
+
+    // Length and checksum of the json file the records were loaded from
+    private SourceFingerprint source;
+
+    /**
+     * @param factory creates an empty entity object, such as Organization::new.
+     */
+    InvertedIndex(Supplier<T> factory) {
+        this.factory = factory;
+        this.records = new RecordStore<>(factory);
+    }
+
+    /**
+     * Inserts a record in the inverted index.
+     *
+     * @param record record to be inserted in the inverted index.
+     */
+    void add(T record) {
+        int doc = records.size();
+        records.add(record, dictionary);
+        record.visitFields((key, fieldValue) -> {
+            Map<String, PostingList> valueMap = fields.computeIfAbsent(key, k -> new HashMap<>());
+            if (isMissing(fieldValue)) {
+                missingFields.computeIfAbsent(key, k -> new PostingList()).add(doc);
+            }
+
+            if (record.isTimestampField(key)) {
+                TimestampColumn column = timestampFields.computeIfAbsent(key, k -> new TimestampColumn());
+                Long millis = fieldValue == null ? null : DateTimeUtils.toEpochMillis(fieldValue.toString());
+                if (millis != null) {
+                    column.add(millis, doc);
+                }
+            }
+            if (record.isTextField(key)) {
+                textFields.computeIfAbsent(key, k -> new TextIndex()).add(doc,
+                        fieldValue == null ? null : fieldValue.toString());
+            }
+            if (fieldValue instanceof Long) {
+                numericFields.computeIfAbsent(key, k -> new LongPostingMap()).getOrCreate((Long) fieldValue).add(doc);
+            } else if (Entity.FIELD_ID.equals(key) && fieldValue != null
+                    && LongPostingMap.isCanonicalLong(fieldValue.toString())) {
+                // Ids are strings, as tickets have UUIDs, but users and organizations have numbers
+                numericFields.computeIfAbsent(key, k -> new LongPostingMap())
+                        .getOrCreate(Long.parseLong(fieldValue.toString())).add(doc);
+            } else if (fieldValue instanceof List) {
+                for (Object value : (List<?>) fieldValue) {
+                    // Nulls within a list, as in "tags": [null], are not values
+                    if (value != null) {
+                        postingsOf(valueMap, value.toString()).add(doc);
+                    }
+                }
+            } else if (fieldValue != null) {
+                postingsOf(valueMap, fieldValue.toString()).add(doc);
+            }
+        });
+    }
+
+    /**
+     * @param valueMap values of a field and their document ids.
+     * @param value    value of the field.
+     * @return PostingList document ids of the value, added to the map under the
+     *         instance of the value in the dictionary if not found.
+     */
+    private PostingList postingsOf(Map<String, PostingList> valueMap, String value) {
+        PostingList postings = valueMap.get(value);
+        if (postings == null) {
+            postings = new PostingList();
+            valueMap.put(dictionary.canonical(value), postings);
+        }
+        return postings;
+    }
+
+    /**
+     * Moves the strings of the posting maps of another index to the dictionary of
+     * this one.
+     *
+     * @param other partial index whose records are to be added to this one.
+     * @return int[] code in the dictionary of this index of every code of the
+     *         other one.
+     */
+    private int[] internAll(InvertedIndex<T> other) {
+        int[] codeMap = new int[other.dictionary.size()];
+        for (int code = 0; code < codeMap.length; code++) {
+            codeMap[code] = dictionary.intern(other.dictionary.get(code));
+        }
+        for (Entry<String, Map<String, PostingList>> field : other.fields.entrySet()) {
+            Map<String, PostingList> valueMap = new HashMap<>(field.getValue().size() * 4 / 3 + 1);
+            for (Entry<String, PostingList> value : field.getValue().entrySet()) {
+                valueMap.put(dictionary.canonical(value.getKey()), value.getValue());
+            }
+            field.setValue(valueMap);
+        }
+        return codeMap;
+    }
+
+    /**
+     * @param fieldValue value of a field, as visited.
+     * @return boolean true if the value is null, an empty string or a list without
+     *         any value.
+     */
+    private static boolean isMissing(Object fieldValue) {
+        if (fieldValue instanceof List) {
+            for (Object value : (List<?>) fieldValue) {
+                if (value != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return fieldValue == null || "".equals(fieldValue);
+    }
+
+    /**
+     * Adds all the records of another index into this one, after the records of
+     * this one. The other index must not be used afterwards as its posting lists
+     * may be shared.
+     *
+     * @param other partial index to be merged.
+     */
+    void merge(InvertedIndex<T> other) {
+        int offset = records.size();
+        if (offset == 0 && dictionary.size() == 0) {
+            dictionary = other.dictionary;
+            records = other.records;
+        } else {
+            records.addAll(other.records, internAll(other));
+        }
+        for (Entry<String, Map<String, PostingList>> field : other.fields.entrySet()) {
+            Map<String, PostingList> valueMap = fields.computeIfAbsent(field.getKey(), k -> new HashMap<>());
+            for (Entry<String, PostingList> value : field.getValue().entrySet()) {
+                PostingList existing = valueMap.get(value.getKey());
+                if (existing != null) {
+                    existing.addAll(value.getValue(), offset);
+                } else if (offset == 0) {
+                    valueMap.put(value.getKey(), value.getValue());
+                } else {
+                    PostingList postings = new PostingList();
+                    postings.addAll(value.getValue(), offset);
+                    valueMap.put(value.getKey(), postings);
+                }
+            }
+        }
+        for (Entry<String, PostingList> field : other.missingFields.entrySet()) {
+            PostingList existing = missingFields.get(field.getKey());
+            if (existing != null) {
+                existing.addAll(field.getValue(), offset);
+            } else if (offset == 0) {
+                missingFields.put(field.getKey(), field.getValue());
+            } else {
+                PostingList postings = new PostingList();
+                postings.addAll(field.getValue(), offset);
+                missingFields.put(field.getKey(), postings);
+            }
+        }
+        for (Entry<String, LongPostingMap> field : other.numericFields.entrySet()) {
+            LongPostingMap valueMap = numericFields.get(field.getKey());
+            if (valueMap == null && offset == 0) {
+                numericFields.put(field.getKey(), field.getValue());
+                continue;
+            }
+            LongPostingMap target = valueMap != null ? valueMap : new LongPostingMap(field.getValue().size());
+            numericFields.put(field.getKey(), target);
+            field.getValue().forEach((value, postings) -> target.getOrCreate(value).addAll(postings, offset));
+        }
+        for (Entry<String, TimestampColumn> field : other.timestampFields.entrySet()) {
+            timestampFields.computeIfAbsent(field.getKey(), k -> new TimestampColumn()).addAll(field.getValue(),
+                    offset);
+        }
+        for (Entry<String, TextIndex> field : other.textFields.entrySet()) {
+            TextIndex existing = textFields.get(field.getKey());
+            if (existing == null && offset == 0) {
+                textFields.put(field.getKey(), field.getValue());
+            } else {
+                textFields.computeIfAbsent(field.getKey(), k -> new TextIndex()).merge(field.getValue(), offset);
+            }
+        }
+    }
+
+    /**
+     * Creates a new index with the records of this one followed by the records of
+     * another one, leaving this index untouched so it can still be searched. Only
+     * the posting lists of the values found in the other index are copied, the
+     * others are shared by both indexes.
+     *
+     * @param appended partial index with the records to be appended.
+     * @return InvertedIndex<T> new index with the records of both.
+     */
+    InvertedIndex<T> append(InvertedIndex<T> appended) {
+        InvertedIndex<T> index = new InvertedIndex<>(factory);
+        index.dictionary = dictionary.copy();
+        index.records = records.copy();
+        index.records.addAll(appended.records, index.internAll(appended));
+        for (Entry<String, Map<String, PostingList>> field : fields.entrySet()) {
+            index.fields.put(field.getKey(), new HashMap<>(field.getValue()));
+        }
+        int offset = records.size();
+        for (Entry<String, Map<String, PostingList>> field : appended.fields.entrySet()) {
+            Map<String, PostingList> valueMap = index.fields.computeIfAbsent(field.getKey(), k -> new HashMap<>());
+            for (Entry<String, PostingList> value : field.getValue().entrySet()) {
+                PostingList existing = valueMap.get(value.getKey());
+                PostingList postings = existing == null ? new PostingList() : existing.copy();
+                postings.addAll(value.getValue(), offset);
+                postings.trim();
+                valueMap.put(value.getKey(), postings);
+            }
+        }
+        index.missingFields.putAll(missingFields);
+        for (Entry<String, PostingList> field : appended.missingFields.entrySet()) {
+            PostingList existing = index.missingFields.get(field.getKey());
+            PostingList postings = existing == null ? new PostingList() : existing.copy();
+            postings.addAll(field.getValue(), offset);
+            postings.trim();
+            index.missingFields.put(field.getKey(), postings);
+        }
+        for (Entry<String, LongPostingMap> field : numericFields.entrySet()) {
+            index.numericFields.put(field.getKey(), field.getValue().copy());
+        }
+        for (Entry<String, LongPostingMap> field : appended.numericFields.entrySet()) {
+            LongPostingMap valueMap = index.numericFields.computeIfAbsent(field.getKey(), k -> new LongPostingMap());
+            field.getValue().forEach((value, appendedPostings) -> {
+                PostingList existing = valueMap.get(value);
+                PostingList postings = existing == null ? new PostingList() : existing.copy();
+                postings.addAll(appendedPostings, offset);
+                postings.trim();
+                valueMap.put(value, postings);
+            });
+        }
+        index.timestampFields.putAll(timestampFields);
+        for (Entry<String, TimestampColumn> field : appended.timestampFields.entrySet()) {
+            TimestampColumn appendedColumn = field.getValue();
+            appendedColumn.sort();
+            TimestampColumn existing = index.timestampFields.getOrDefault(field.getKey(), new TimestampColumn());
+            index.timestampFields.put(field.getKey(), existing.append(appendedColumn, offset));
+        }
+        index.textFields.putAll(textFields);
+        for (Entry<String, TextIndex> field : appended.textFields.entrySet()) {
+            TextIndex existing = index.textFields.getOrDefault(field.getKey(), new TextIndex());
+            index.textFields.put(field.getKey(), existing.append(field.getValue(), offset));
+        }
+        return index;
+    }
+
+    /**
+     * Releases the capacity reserved for growth once all the records are loaded.
+     */
+    void trim() {
+        for (Map<String, PostingList> valueMap : fields.values()) {
+            for (PostingList postings : valueMap.values()) {
+                postings.trim();
+            }
+        }
+        for (PostingList postings : missingFields.values()) {
+            postings.trim();
+        }
+        for (LongPostingMap valueMap : numericFields.values()) {
+            valueMap.forEach((value, postings) -> postings.trim());
+        }
+        for (TimestampColumn column : timestampFields.values()) {
+            column.sort();
+            column.trim();
+        }
+        for (TextIndex textIndex : textFields.values()) {
+            textIndex.trim();
+        }
+        dictionary.trim();
+        records.trim();
+    }
+
+    /**
+     * @param field name of the field.
+     * @return Map<String, PostingList> values of the field and their document
+     *         ids, or null if the field is not indexed.
+     */
+    Map<String, PostingList> getField(String field) {
+        return fields.get(field);
+    }
+
+    /**
+     * @param field name of the field.
+     * @return SortedTerms values of the field in lexicographic order, or null if
+     *         the field is not indexed.
+     */
+    SortedTerms getSortedTerms(String field) {
+        Map<String, PostingList> values = fields.get(field);
+        if (values == null) {
+            return null;
+        }
+        return sortedTerms.computeIfAbsent(field, k -> SortedTerms.of(values.keySet()));
+    }
+
+    /**
+     * @param field name of the field.
+     * @return PostingList document ids of the records where the field is missing,
+     *         null, empty or an empty list, or null if there is none.
+     */
+    PostingList getMissingField(String field) {
+        return missingFields.get(field);
+    }
+
+    /**
+     * Restores the records missing a field, as read from a snapshot.
+     *
+     * @param field    name of the field.
+     * @param postings document ids of the records where the field is missing.
+     */
+    void putMissingField(String field, PostingList postings) {
+        missingFields.put(field, postings);
+    }
+
+    /**
+     * @return the names of the fields missing from any record
+     */
+    Set<String> getMissingFieldNames() {
+        return missingFields.keySet();
+    }
+
+    /**
+     * @param field name of the field.
+     * @return LongPostingMap numeric values of the field and their document ids,
+     *         or null if the field has no numeric values.
+     */
+    LongPostingMap getNumericField(String field) {
+        return numericFields.get(field);
+    }
+
+    /**
+     * Restores the numeric values of a field, as read from a snapshot.
+     *
+     * @param field  name of the field.
+     * @param values numeric values of the field and their document ids.
+     */
+    void putNumericField(String field, LongPostingMap values) {
+        numericFields.put(field, values);
+    }
+
+    /**
+     * @return the names of the fields with numeric values
+     */
+    Set<String> getNumericFieldNames() {
+        return numericFields.keySet();
+    }
+
+    /**
+     * @param field name of the field.
+     * @return TimestampColumn sorted timestamps of the field, or null if the field
+     *         does not hold timestamps.
+     */
+    TimestampColumn getTimestampField(String field) {
+        return timestampFields.get(field);
+    }
+
+    /**
+     * Restores the sorted timestamps of a field, as read from a snapshot.
+     *
+     * @param field  name of the field.
+     * @param column sorted timestamps of the field and their document ids.
+     */
+    void putTimestampField(String field, TimestampColumn column) {
+        timestampFields.put(field, column);
+    }
+
+    /**
+     * @return the names of the fields holding timestamps
+     */
+    Set<String> getTimestampFieldNames() {
+        return timestampFields.keySet();
+    }
+
+    /**
+     * @param field name of the field.
+     * @return TextIndex full-text index of the field, or null if the field does not
+     *         hold free text.
+     */
+    TextIndex getTextField(String field) {
+        return textFields.get(field);
+    }
+
+    /**
+     * Restores the full-text index of a field, as read from a snapshot.
+     *
+     * @param field     name of the field.
+     * @param textIndex full-text index of the field.
+     */
+    void putTextField(String field, TextIndex textIndex) {
+        textFields.put(field, textIndex);
+    }
+
+    /**
+     * @return the names of the fields holding free text
+     */
+    Set<String> getTextFieldNames() {
+        return textFields.keySet();
+    }
+
+    /**
+     * Restores the values of a field, as read from a snapshot.
+     *
+     * @param field  name of the field.
+     * @param values values of the field and their document ids.
+     */
+    void putField(String field, Map<String, PostingList> values) {
+        fields.put(field, values);
+    }
+
+    /**
+     * @return the distinct string values of the records
+     */
+    TermDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Restores the distinct string values of the records, as read from a snapshot.
+     *
+     * @param dictionary distinct string values of the records.
+     */
+    void setDictionary(TermDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * @return the records, kept in columns
+     */
+    RecordStore<T> getRecordStore() {
+        return records;
+    }
+
+    /**
+     * Restores the records without indexing them, as read from a snapshot.
+     *
+     * @param records the records, kept in columns.
+     */
+    void setRecordStore(RecordStore<T> records) {
+        this.records = records;
+    }
+
+    /**
+     * @param postings document ids of the records.
+     * @return Set<T> read-only view of the records.
+     */
+    Set<T> resolve(PostingList postings) {
+        return new RecordSet<>(this, postings);
+    }
+
+    /**
+     * @return the names of the indexed fields, including the numeric ones
+     */
+    Set<String> getFieldNames() {
+        return fields.keySet();
+    }
+
+    /**
+     * @return read-only view of the records in the order they were loaded, that
+     *         is by document id, each one built as it is read
+     */
+    List<T> getRecords() {
+        RecordStore<T> store = records;
+        TermDictionary codes = dictionary;
+        return new AbstractList<T>() {
+
+            @Override
+            public T get(int doc) {
+                return store.get(doc, codes);
+            }
+
+            @Override
+            public int size() {
+                return store.size();
+            }
+
+        };
+    }
+
+    /**
+     * @return the number of records in the index
+     */
+    long getRecordCount() {
+        return records.size();
+    }
+
+    /**
+     * @return the fingerprint of the json file the records were loaded from
+     */
+    SourceFingerprint getSource() {
+        return source;
+    }
+
+    /**
+     * @param source the fingerprint of the json file the records were loaded from
+     */
+    void setSource(SourceFingerprint source) {
+        this.source = source;
+    }
+
+}
@@ -0,0 +1,278 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.github.brunomarq.searchcli.domain.Entity;
+import com.github.brunomarq.searchcli.domain.Organization;
+import com.github.brunomarq.searchcli.domain.Ticket;
+import com.github.brunomarq.searchcli.domain.User;
+
+/*
+* Links between organizations, users and tickets by document id, built once from a generation of
+* each index, so the records related to a search result are found by position instead of by
+* looking up the value of a foreign key in the other index.
+*
+* A link to a single record is the document id of the related record, -1 if there is none. Links
+* to many records are the posting lists of the foreign key in the other index, shared with it
+* rather than copied. Results found through another generation of an index, as while a file is
+* being reloaded, are not linked: the methods return null and callers look them up instead.
+*/
+public final class JoinIndex {
+
+    private static final int NONE = -1;
+
+    private static final JoinIndex EMPTY = new JoinIndex(null, null, null);
+
+    private final InvertedIndex<Organization> organizations;
+
+    private final InvertedIndex<User> users;
+
+    private final InvertedIndex<Ticket> tickets;
+
+    // Organization of every user
+    private int[] userOrganizations;
+
+    // Users and tickets of every organization, null where there is none
+    private PostingList[] organizationUsers;
+    private PostingList[] organizationTickets;
+
+    // Tickets submitted by every user, null where there is none
+    private PostingList[] submittedTickets;
+
+    // Organization, submitter and assignee of every ticket
+    private int[] ticketOrganizations;
+    private int[] ticketSubmitters;
+    private int[] ticketAssignees;
+
+    private JoinIndex(InvertedIndex<Organization> organizations, InvertedIndex<User> users,
+            InvertedIndex<Ticket> tickets) {
+        this.organizations = organizations;
+        this.users = users;
+        this.tickets = tickets;
+    }
+
+    /**
+     * @return JoinIndex join index linking no record, so every relation is looked
+     *         up
+     */
+    public static JoinIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Links the records of the current generation of every index. Each foreign key
+     * value is looked up once, whatever the number of records holding it.
+     *
+     * @param organizationRepository repository of the organizations.
+     * @param userRepository         repository of the users.
+     * @param ticketRepository       repository of the tickets.
+     * @return JoinIndex links between the records of the three indexes.
+     */
+    public static JoinIndex build(SearchRepository<Organization> organizationRepository,
+            SearchRepository<User> userRepository, SearchRepository<Ticket> ticketRepository) {
+        InvertedIndex<Organization> organizations = organizationRepository.getIndex();
+        InvertedIndex<User> users = userRepository.getIndex();
+        InvertedIndex<Ticket> tickets = ticketRepository.getIndex();
+        if (organizations == null || users == null || tickets == null) {
+            return EMPTY;
+        }
+
+        JoinIndex joins = new JoinIndex(organizations, users, tickets);
+        LongPostingMap organizationIds = organizations.getNumericField(Entity.FIELD_ID);
+        LongPostingMap userIds = users.getNumericField(Entity.FIELD_ID);
+        LongPostingMap userOrganizationIds = users.getNumericField(User.FIELD_ORGANIZATION_ID);
+        LongPostingMap ticketOrganizationIds = tickets.getNumericField(Ticket.FIELD_ORGANIZATION_ID);
+        LongPostingMap submitterIds = tickets.getNumericField(Ticket.FIELD_SUBMITTER_ID);
+        int organizationCount = (int) organizations.getRecordCount();
+        int userCount = (int) users.getRecordCount();
+        int ticketCount = (int) tickets.getRecordCount();
+
+        joins.userOrganizations = linkToOne(userOrganizationIds, organizationIds, userCount);
+        joins.ticketOrganizations = linkToOne(ticketOrganizationIds, organizationIds, ticketCount);
+        joins.ticketSubmitters = linkToOne(submitterIds, userIds, ticketCount);
+        joins.ticketAssignees = linkToOne(tickets.getNumericField(Ticket.FIELD_ASSIGNEE_ID), userIds, ticketCount);
+        joins.organizationUsers = linkToMany(organizationIds, userOrganizationIds, organizationCount);
+        joins.organizationTickets = linkToMany(organizationIds, ticketOrganizationIds, organizationCount);
+        joins.submittedTickets = linkToMany(userIds, submitterIds, userCount);
+        return joins;
+    }
+
+    /**
+     * @param foreignKeys values of a foreign key and the records holding them.
+     * @param ids         ids of the referenced records and their document ids.
+     * @param count       number of records holding the foreign key.
+     * @return int[] document id of the first record referenced by every record,
+     *         or -1 if it references none.
+     */
+    private static int[] linkToOne(LongPostingMap foreignKeys, LongPostingMap ids, int count) {
+        int[] links = new int[count];
+        Arrays.fill(links, NONE);
+        if (foreignKeys != null && ids != null) {
+            foreignKeys.forEach((id, docs) -> {
+                PostingList referenced = ids.get(id);
+                if (referenced != null) {
+                    for (int i = 0; i < docs.size(); i++) {
+                        links[docs.get(i)] = referenced.get(0);
+                    }
+                }
+            });
+        }
+        return links;
+    }
+
+    /**
+     * @param ids         ids of the referenced records and their document ids.
+     * @param foreignKeys values of a foreign key and the records holding them.
+     * @param count       number of referenced records.
+     * @return PostingList[] document ids of the records referencing every record,
+     *         or null if none does.
+     */
+    private static PostingList[] linkToMany(LongPostingMap ids, LongPostingMap foreignKeys, int count) {
+        PostingList[] links = new PostingList[count];
+        if (foreignKeys != null && ids != null) {
+            ids.forEach((id, docs) -> {
+                PostingList referencing = foreignKeys.get(id);
+                if (referencing != null) {
+                    for (int i = 0; i < docs.size(); i++) {
+                        links[docs.get(i)] = referencing;
+                    }
+                }
+            });
+        }
+        return links;
+    }
+
+    /**
+     * @param users users found by a search.
+     * @return List<Organization> organization of every user, in the order of the
+     *         users and null where there is none, or null if the users were not
+     *         found through the index this was built from.
+     */
+    public List<Organization> organizationsOfUsers(Collection<User> users) {
+        return toOne(docsOf(users, this.users), userOrganizations, organizations);
+    }
+
+    /**
+     * @param users users found by a search.
+     * @return List<List<Ticket>> tickets submitted by every user, in the order of
+     *         the users, or null if the users were not found through the index this
+     *         was built from.
+     */
+    public List<List<Ticket>> ticketsSubmittedBy(Collection<User> users) {
+        return toMany(docsOf(users, this.users), submittedTickets, tickets);
+    }
+
+    /**
+     * @param organizations organizations found by a search.
+     * @return List<List<User>> users of every organization, in the order of the
+     *         organizations, or null if the organizations were not found through
+     *         the index this was built from.
+     */
+    public List<List<User>> usersOfOrganizations(Collection<Organization> organizations) {
+        return toMany(docsOf(organizations, this.organizations), organizationUsers, users);
+    }
+
+    /**
+     * @param organizations organizations found by a search.
+     * @return List<List<Ticket>> tickets of every organization, in the order of
+     *         the organizations, or null if the organizations were not found
+     *         through the index this was built from.
+     */
+    public List<List<Ticket>> ticketsOfOrganizations(Collection<Organization> organizations) {
+        return toMany(docsOf(organizations, this.organizations), organizationTickets, tickets);
+    }
+
+    /**
+     * @param tickets tickets found by a search.
+     * @return List<Organization> organization of every ticket, in the order of the
+     *         tickets and null where there is none, or null if the tickets were not
+     *         found through the index this was built from.
+     */
+    public List<Organization> organizationsOfTickets(Collection<Ticket> tickets) {
+        return toOne(docsOf(tickets, this.tickets), ticketOrganizations, organizations);
+    }
+
+    /**
+     * @param tickets tickets found by a search.
+     * @return List<User> submitter of every ticket, in the order of the tickets
+     *         and null where there is none, or null if the tickets were not found
+     *         through the index this was built from.
+     */
+    public List<User> submittersOf(Collection<Ticket> tickets) {
+        return toOne(docsOf(tickets, this.tickets), ticketSubmitters, users);
+    }
+
+    /**
+     * @param tickets tickets found by a search.
+     * @return List<User> assignee of every ticket, in the order of the tickets and
+     *         null where there is none, or null if the tickets were not found
+     *         through the index this was built from.
+     */
+    public List<User> assigneesOf(Collection<Ticket> tickets) {
+        return toOne(docsOf(tickets, this.tickets), ticketAssignees, users);
+    }
+
+    /**
+     * @param records records found by a search.
+     * @param index   index the join index was built from.
+     * @return int[] document ids of the records, in the order they are iterated,
+     *         or null if they were not resolved from the index.
+     */
+    private static <T extends Entity> int[] docsOf(Collection<T> records, InvertedIndex<T> index) {
+        if (records instanceof RecordSet && ((RecordSet<T>) records).getIndex() == index) {
+            return ((RecordSet<T>) records).getDocs();
+        } else if (records instanceof RecordList && ((RecordList<T>) records).getIndex() == index) {
+            return ((RecordList<T>) records).getDocs();
+        }
+        return null;
+    }
+
+    private static <R extends Entity> List<R> toOne(int[] docs, int[] links, InvertedIndex<R> related) {
+        if (docs == null) {
+            return null;
+        }
+        // Many results share the same related record, which is built only once: the
+        // distinct related documents are sorted and each result finds its own by search
+        int[] linked = new int[docs.length];
+        int linkedCount = 0;
+        for (int doc : docs) {
+            if (links[doc] != NONE) {
+                linked[linkedCount++] = links[doc];
+            }
+        }
+        Arrays.sort(linked, 0, linkedCount);
+        int distinct = 0;
+        for (int i = 0; i < linkedCount; i++) {
+            if (distinct == 0 || linked[distinct - 1] != linked[i]) {
+                linked[distinct++] = linked[i];
+            }
+        }
+        List<R> relatedRecords = related.getRecords();
+        List<R> built = new ArrayList<>(distinct);
+        for (int i = 0; i < distinct; i++) {
+            built.add(relatedRecords.get(linked[i]));
+        }
+
+        List<R> result = new ArrayList<>(docs.length);
+        for (int doc : docs) {
+            result.add(links[doc] == NONE ? null : built.get(Arrays.binarySearch(linked, 0, distinct, links[doc])));
+        }
+        return result;
+    }
+
+    private static <R extends Entity> List<List<R>> toMany(int[] docs, PostingList[] links,
+            InvertedIndex<R> related) {
+        if (docs == null) {
+            return null;
+        }
+        List<List<R>> result = new ArrayList<>(docs.length);
+        for (int doc : docs) {
+            result.add(links[doc] == null ? new ArrayList<>() : new ArrayList<>(related.resolve(links[doc])));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,237 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+/*
+* Splits a memory mapped json file into record-aligned chunks that can be parsed independently from
+* each other. The file holds either a top level array of records or one record per line (json lines).
+*/
+final class JsonChunker {
+
+    // Size of each mapping of the file while looking for record boundaries
+    private static final long SCAN_WINDOW_SIZE = 256L * 1024 * 1024;
+
+    // A chunk is mapped at once, so it must stay well below the 2GB limit of FileChannel.map
+    private static final long MAX_CHUNK_SIZE = 1024L * 1024 * 1024;
+
+    private static final byte[] ARRAY_START = { '[' };
+    private static final byte[] ARRAY_END = { ']' };
+
+    private JsonChunker() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /*
+    * Range of the file [start, end) holding one or more complete records, separated by commas when
+    * they come from an array or by new lines otherwise.
+    */
+    static final class Chunk {
+        final long start;
+        final long end;
+        final boolean arrayItems;
+
+        Chunk(long start, long end, boolean arrayItems) {
+            this.start = start;
+            this.end = end;
+            this.arrayItems = arrayItems;
+        }
+    }
+
+    /**
+     * Tells whether the file holds json lines rather than a json array, from its
+     * extension or else from its first significant character.
+     *
+     * @param channel  channel of the json file.
+     * @param fileName name of the json file.
+     * @return boolean true if the file holds one record per line.
+     * @throws IOException if the file cannot be read.
+     */
+    static boolean isJsonLines(FileChannel channel, String fileName) throws IOException {
+        String lowerCaseName = fileName.toLowerCase();
+        if (lowerCaseName.endsWith(".jsonl") || lowerCaseName.endsWith(".ndjson")) {
+            return true;
+        }
+        MappedByteBuffer head = channel.map(MapMode.READ_ONLY, 0, Math.min(SCAN_WINDOW_SIZE, channel.size()));
+        while (head.hasRemaining()) {
+            byte b = head.get();
+            if (!Character.isWhitespace(b)) {
+                return b == '{';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cuts a json lines file into chunks of roughly the same size, each one ending
+     * right after a new line. Only the bytes around each cut are read.
+     *
+     * @param channel    channel of the json file.
+     * @param chunkCount number of chunks wanted.
+     * @return List<Chunk> chunks in file order.
+     * @throws IOException if the file cannot be mapped.
+     */
+    static List<Chunk> splitLines(FileChannel channel, int chunkCount) throws IOException {
+        return splitLines(channel, 0, channel.size(), chunkCount);
+    }
+
+    /**
+     * Cuts the range [start, size) of a json lines file into chunks, as lines
+     * appended to a file that was already loaded.
+     *
+     * @param channel    channel of the json file.
+     * @param start      position of the first line of the range.
+     * @param size       end of the range.
+     * @param chunkCount number of chunks wanted.
+     * @return List<Chunk> chunks in file order.
+     * @throws IOException if the file cannot be mapped.
+     */
+    static List<Chunk> splitLines(FileChannel channel, long start, long size, int chunkCount) throws IOException {
+        long targetSize = Math.min(MAX_CHUNK_SIZE, Math.max(1, (size - start) / chunkCount));
+        List<Chunk> chunks = new ArrayList<>(chunkCount);
+
+        long chunkStart = start;
+        while (chunkStart < size) {
+            long cut = chunkStart + targetSize;
+            if (cut >= size) {
+                chunks.add(new Chunk(chunkStart, size, false));
+                break;
+            }
+            long chunkEnd = nextLineStart(channel, cut - 1, size);
+            chunks.add(new Chunk(chunkStart, chunkEnd, false));
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    /**
+     * @param channel  channel of the json file.
+     * @param position position from which to look for a new line.
+     * @param size     size of the file.
+     * @return long position right after the next new line, or the size of the
+     *         file if there is none.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        for (long windowStart = position; windowStart < size; windowStart += SCAN_WINDOW_SIZE) {
+            MappedByteBuffer window = channel.map(MapMode.READ_ONLY, windowStart,
+                    Math.min(SCAN_WINDOW_SIZE, size - windowStart));
+            int limit = window.limit();
+            for (int i = 0; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Scans a json array file once, keeping track of nesting and strings, and cuts
+     * it into chunks of roughly the same size that start and end on record
+     * boundaries.
+     *
+     * @param channel    channel of the json file.
+     * @param chunkCount number of chunks wanted.
+     * @return List<Chunk> chunks in file order.
+     * @throws IOException if the file cannot be mapped or is not a json array.
+     */
+    static List<Chunk> splitArray(FileChannel channel, int chunkCount) throws IOException {
+        long size = channel.size();
+        long targetSize = Math.min(MAX_CHUNK_SIZE, Math.max(1, size / chunkCount));
+        List<Chunk> chunks = new ArrayList<>(chunkCount);
+
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        long chunkStart = -1;
+        long lastRecordEnd = -1;
+
+        for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW_SIZE) {
+            MappedByteBuffer window = channel.map(MapMode.READ_ONLY, windowStart,
+                    Math.min(SCAN_WINDOW_SIZE, size - windowStart));
+            int limit = window.limit();
+            for (int i = 0; i < limit; i++) {
+                byte b = window.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+
+                switch (b) {
+                case '"':
+                    inString = true;
+                    break;
+                case '[':
+                case '{':
+                    if (depth == 0 && b != '[') {
+                        throw new IOException("Expected a json array of records");
+                    }
+                    if (depth == 1 && chunkStart < 0) {
+                        chunkStart = windowStart + i;
+                    }
+                    depth++;
+                    break;
+                case ']':
+                case '}':
+                    depth--;
+                    if (depth == 1) {
+                        lastRecordEnd = windowStart + i + 1;
+                        if (lastRecordEnd - chunkStart >= targetSize) {
+                            chunks.add(new Chunk(chunkStart, lastRecordEnd, true));
+                            chunkStart = -1;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+
+        if (depth != 0) {
+            throw new IOException("Unexpected end of the json array of records");
+        }
+        if (chunkStart >= 0) {
+            chunks.add(new Chunk(chunkStart, lastRecordEnd, true));
+        }
+        return chunks;
+    }
+
+    /**
+     * Maps a chunk so it can be read by the same code that reads a whole file.
+     * Array items are wrapped in square brackets to make them a json array again.
+     *
+     * @param channel channel of the json file.
+     * @param chunk   chunk to be opened.
+     * @return InputStream stream of the chunk.
+     * @throws IOException if the chunk cannot be mapped.
+     */
+    static InputStream open(FileChannel channel, Chunk chunk) throws IOException {
+        MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+        if (!chunk.arrayItems) {
+            return new ByteBufferBackedInputStream(buffer);
+        }
+        List<InputStream> parts = Arrays.asList(new ByteArrayInputStream(ARRAY_START),
+                new ByteBufferBackedInputStream(buffer), new ByteArrayInputStream(ARRAY_END));
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.function.Consumer;
+
+/*
+* Automaton accepting the values within a maximum number of edits (insertions, deletions or
+* substitutions of a character) from a query, ignoring case. Its state after reading some characters
+* is the row of the edit distances between them and every prefix of the query, capped above the
+* maximum, and the automaton is dead once every distance in the row is above it.
+*
+* Values are fed from a dictionary in lexicographic order, so the states of the prefix a value
+* shares with the previous one are reused, and all the values starting with a prefix that kills the
+* automaton are skipped at once.
+*/
+final class LevenshteinAutomaton {
+
+    private final char[] query;
+
+    private final int maxEdits;
+
+    LevenshteinAutomaton(String query, int maxEdits) {
+        this.query = query.toLowerCase().toCharArray();
+        this.maxEdits = maxEdits;
+    }
+
+    /**
+     * Maximum number of edits for a query, growing with its length so that short
+     * queries do not match unrelated values: none up to 2 characters, 1 up to 5 and
+     * 2 beyond.
+     *
+     * @param query value looked for.
+     * @return int maximum number of edits.
+     */
+    static int maxEditsFor(String query) {
+        int length = query.codePointCount(0, query.length());
+        return length <= 2 ? 0 : length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Feeds every value of the dictionary to the automaton and reports the ones it
+     * accepts, skipping the values starting with a prefix that kills it.
+     *
+     * @param terms   values in lexicographic order.
+     * @param visitor consumer receiving every value accepted, in order.
+     */
+    void intersect(SortedTerms terms, Consumer<String> visitor) {
+        // rows[d] is the state after reading the first d characters of the previous value
+        int[][] rows = new int[16][];
+        rows[0] = new int[query.length + 1];
+        for (int j = 0; j <= query.length; j++) {
+            rows[0][j] = Math.min(j, maxEdits + 1);
+        }
+        String previous = "";
+        int validDepth = 0;
+
+        int i = 0;
+        while (i < terms.size()) {
+            String term = terms.get(i);
+            int depth = Math.min(validDepth, commonPrefixLength(previous, term));
+            boolean dead = false;
+            while (depth < term.length()) {
+                if (depth + 1 >= rows.length) {
+                    int[][] grown = new int[rows.length * 2][];
+                    System.arraycopy(rows, 0, grown, 0, rows.length);
+                    rows = grown;
+                }
+                rows[depth + 1] = step(rows[depth], term.charAt(depth), rows[depth + 1]);
+                depth++;
+                if (isDead(rows[depth])) {
+                    dead = true;
+                    break;
+                }
+            }
+            previous = term;
+            if (dead) {
+                // No value starting with this prefix can be accepted
+                validDepth = depth - 1;
+                i = Math.max(i + 1, terms.endOfPrefix(term.substring(0, depth)));
+                continue;
+            }
+            validDepth = depth;
+            if (rows[depth][query.length] <= maxEdits) {
+                visitor.accept(term);
+            }
+            i++;
+        }
+    }
+
+    /**
+     * @param row    state before the character.
+     * @param c      character read.
+     * @param target array the next state is written to, if large enough.
+     * @return int[] state after the character.
+     */
+    private int[] step(int[] row, char c, int[] target) {
+        int[] next = target != null && target.length == row.length ? target : new int[row.length];
+        char lower = Character.toLowerCase(c);
+        next[0] = Math.min(row[0] + 1, maxEdits + 1);
+        for (int j = 1; j <= query.length; j++) {
+            int substitution = row[j - 1] + (query[j - 1] == lower ? 0 : 1);
+            int deletion = row[j] + 1;
+            int insertion = next[j - 1] + 1;
+            next[j] = Math.min(Math.min(substitution, deletion), Math.min(insertion, maxEdits + 1));
+        }
+        return next;
+    }
+
+    /**
+     * @param row state of the automaton.
+     * @return boolean true if no value can be accepted from this state.
+     */
+    private boolean isDead(int[] row) {
+        for (int distance : row) {
+            if (distance <= maxEdits) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.Arrays;
+
+/*
+* Open addressing hash map from long values to their posting lists, used for numeric ids and
+* foreign keys so they are looked up without boxing or converting them to strings. Slots are probed
+* linearly and a slot is free when it has no posting list.
+*/
+final class LongPostingMap {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Multiplier of the Fibonacci hashing, spreading sequential ids over the table
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+
+    private PostingList[] values;
+
+    private int size;
+
+    private int shift;
+
+    /*
+    * Receives every value of the map with its posting list.
+    */
+    interface Visitor {
+        void visit(long value, PostingList postings);
+    }
+
+    LongPostingMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of values the map is expected to hold.
+     */
+    LongPostingMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new PostingList[capacity];
+        shift = Long.numberOfLeadingZeros(capacity - 1L);
+    }
+
+    private int slot(long value) {
+        int mask = keys.length - 1;
+        int slot = (int) ((value * GOLDEN_RATIO) >>> shift) & mask;
+        while (values[slot] != null && keys[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param value numeric value.
+     * @return PostingList document ids of the records holding the value, or null
+     *         if there is none.
+     */
+    PostingList get(long value) {
+        return values[slot(value)];
+    }
+
+    /**
+     * @param value numeric value.
+     * @return PostingList posting list of the value, created empty if the value
+     *         was not in the map yet.
+     */
+    PostingList getOrCreate(long value) {
+        int slot = slot(value);
+        PostingList postings = values[slot];
+        if (postings == null) {
+            postings = new PostingList();
+            put(slot, value, postings);
+        }
+        return postings;
+    }
+
+    /**
+     * @param value    numeric value.
+     * @param postings document ids of the records holding the value.
+     */
+    void put(long value, PostingList postings) {
+        int slot = slot(value);
+        if (values[slot] != null) {
+            values[slot] = postings;
+        } else {
+            put(slot, value, postings);
+        }
+    }
+
+    private void put(int slot, long value, PostingList postings) {
+        keys[slot] = value;
+        values[slot] = postings;
+        // Kept at most half full so probe sequences stay short
+        if (++size * 2 > keys.length) {
+            long[] oldKeys = keys;
+            PostingList[] oldValues = values;
+            allocate(keys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int newSlot = slot(oldKeys[i]);
+                    keys[newSlot] = oldKeys[i];
+                    values[newSlot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * @param visitor visitor of every value and its posting list, in no
+     *                particular order.
+     */
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return LongPostingMap copy of the map sharing the posting lists.
+     */
+    LongPostingMap copy() {
+        LongPostingMap copy = new LongPostingMap();
+        copy.keys = Arrays.copyOf(keys, keys.length);
+        copy.values = Arrays.copyOf(values, values.length);
+        copy.size = size;
+        copy.shift = shift;
+        return copy;
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Tells whether a string is the canonical decimal form of a long, that is the
+     * form Long.toString gives, so it can be searched in a numeric index without
+     * matching other spellings such as "007".
+     *
+     * @param value string to be checked.
+     * @return boolean true if the value is a canonical long.
+     */
+    static boolean isCanonicalLong(String value) {
+        int length = value.length();
+        int start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > 19 || (value.charAt(start) == '0' && length > start + 1)
+                || (start == 1 && value.charAt(1) == '0')) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if (length - start < 19) {
+            return true;
+        }
+        try {
+            Long.parseLong(value);
+            return true;
+        } catch (NumberFormatException e) {
+            // Out of the range of a long
+            return false;
+        }
+    }
+
+}
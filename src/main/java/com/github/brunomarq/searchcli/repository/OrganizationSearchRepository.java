@@ -9,4 +9,9 @@ import org.springframework.stereotype.Repository;
 */
 @Repository
 public class OrganizationSearchRepository extends SearchRepository<Organization> {
+
+    public OrganizationSearchRepository() {
+        super(Organization::new);
+    }
+
 }
@@ -0,0 +1,225 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+* Sorted list of the document ids of the records holding a value. Document ids are the positions
+* of the records in the index, so a list only grows at its end while the records are loaded.
+*/
+final class PostingList {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private int[] docs;
+
+    private int size;
+
+    PostingList() {
+        this.docs = new int[INITIAL_CAPACITY];
+    }
+
+    private PostingList(int[] docs, int size) {
+        this.docs = docs;
+        this.size = size;
+    }
+
+    /**
+     * @param docs sorted document ids, kept as they are.
+     * @return PostingList list of the document ids.
+     */
+    static PostingList of(int[] docs) {
+        return new PostingList(docs, docs.length);
+    }
+
+    /**
+     * @param lists sorted lists of document ids.
+     * @return PostingList sorted list of the document ids found in any of them.
+     */
+    static PostingList union(List<PostingList> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+        int[] docs = new int[total];
+        int size = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.docs, 0, docs, size, list.size);
+            size += list.size;
+        }
+        Arrays.sort(docs);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || docs[unique - 1] != docs[i]) {
+                docs[unique++] = docs[i];
+            }
+        }
+        return new PostingList(docs, unique);
+    }
+
+    /**
+     * @param count number of records.
+     * @return PostingList list of every document id below the count.
+     */
+    static PostingList all(int count) {
+        int[] docs = new int[count];
+        for (int i = 0; i < count; i++) {
+            docs[i] = i;
+        }
+        return new PostingList(docs, count);
+    }
+
+    /**
+     * Keeps the document ids found in both lists. Each id of the shorter list is
+     * looked for in the longer one by galloping from the position of the previous
+     * one, so the time taken grows with the length of the shorter list times the
+     * logarithm of the gaps skipped in the longer one, rather than with the sum of
+     * both lengths.
+     *
+     * @param a sorted list of document ids.
+     * @param b sorted list of document ids.
+     * @return PostingList sorted list of the document ids found in both of them.
+     */
+    static PostingList intersect(PostingList a, PostingList b) {
+        PostingList shorter = a.size <= b.size ? a : b;
+        PostingList longer = shorter == a ? b : a;
+        int[] docs = new int[shorter.size];
+        int size = 0;
+        int from = 0;
+        for (int i = 0; i < shorter.size && from < longer.size; i++) {
+            from = longer.gallop(shorter.docs[i], from);
+            if (from < longer.size && longer.docs[from] == shorter.docs[i]) {
+                docs[size++] = shorter.docs[i];
+            }
+        }
+        return new PostingList(docs, size);
+    }
+
+    /**
+     * Keeps the document ids of a list not found in another one, which is galloped
+     * through as in {@link #intersect(PostingList, PostingList)}.
+     *
+     * @param a sorted list of document ids to be kept.
+     * @param b sorted list of document ids to be removed.
+     * @return PostingList sorted list of the document ids of a not found in b.
+     */
+    static PostingList difference(PostingList a, PostingList b) {
+        int[] docs = new int[a.size];
+        int size = 0;
+        int from = 0;
+        for (int i = 0; i < a.size; i++) {
+            from = b.gallop(a.docs[i], from);
+            if (from == b.size || b.docs[from] != a.docs[i]) {
+                docs[size++] = a.docs[i];
+            }
+        }
+        return new PostingList(docs, size);
+    }
+
+    /**
+     * Looks for a document id with steps doubling from a position, then by binary
+     * search within the last step.
+     *
+     * @param doc  document id looked for.
+     * @param from position the search starts from.
+     * @return int position of the first id not lower than the one looked for, or
+     *         the size of the list if there is none.
+     */
+    private int gallop(int doc, int from) {
+        int low = from;
+        int step = 1;
+        while (low + step < size && docs[low + step] < doc) {
+            low += step;
+            step <<= 1;
+        }
+        if (low < size && docs[low] >= doc) {
+            return low;
+        }
+        int high = Math.min(low + step, size);
+        // docs[low] is below the id looked for, and docs[high] is not if within the list
+        while (low + 1 < high) {
+            int middle = (low + high) >>> 1;
+            if (docs[middle] < doc) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Appends a document id, which must not be lower than the last one. Adding the
+     * last one again does nothing, as when a list field repeats a value.
+     *
+     * @param doc document id.
+     */
+    void add(int doc) {
+        if (size > 0 && docs[size - 1] == doc) {
+            return;
+        }
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+        }
+        docs[size++] = doc;
+    }
+
+    /**
+     * Appends all the document ids of another list, shifted by an offset larger
+     * than the last id of this list.
+     *
+     * @param other  list to be appended.
+     * @param offset offset added to every id of the other list.
+     */
+    void addAll(PostingList other, int offset) {
+        if (size + other.size > docs.length) {
+            docs = Arrays.copyOf(docs, Math.max(size + other.size, size + (size >> 1) + 1));
+        }
+        for (int i = 0; i < other.size; i++) {
+            docs[size++] = other.docs[i] + offset;
+        }
+    }
+
+    /**
+     * @return PostingList copy of this list that can grow without changing this
+     *         one.
+     */
+    PostingList copy() {
+        return new PostingList(Arrays.copyOf(docs, size), size);
+    }
+
+    /**
+     * Releases the capacity reserved for ids that were never added.
+     */
+    void trim() {
+        if (docs.length != size) {
+            docs = Arrays.copyOf(docs, size);
+        }
+    }
+
+    /**
+     * @return the number of document ids
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param i position in the list.
+     * @return int document id at the position.
+     */
+    int get(int i) {
+        return docs[i];
+    }
+
+    /**
+     * @return the sorted document ids, without copy, so they must not be modified
+     */
+    int[] toArray() {
+        return size == docs.length ? docs : Arrays.copyOf(docs, size);
+    }
+
+}
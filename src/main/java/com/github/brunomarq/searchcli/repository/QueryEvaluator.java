@@ -0,0 +1,226 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.query.AndQuery;
+import com.github.brunomarq.searchcli.query.FieldPredicate;
+import com.github.brunomarq.searchcli.query.NotQuery;
+import com.github.brunomarq.searchcli.query.OrQuery;
+import com.github.brunomarq.searchcli.query.Query;
+
+/*
+* Turns values and queries into the posting lists of the records matching them in an index.
+*
+* The operands of an AND are intersected smallest first: predicates on exact values cost a lookup
+* each, so they are all looked up, sorted by size and intersected before wildcards, fuzzy values
+* and nested queries are evaluated, and none of those is evaluated once the intersection is empty.
+* Negated operands are removed from the intersection last, so they are only looked through for
+* the records that are left.
+*/
+final class QueryEvaluator {
+
+    // Marks a value looked for with fuzzy matching, unless escaped
+    private static final String FUZZY_PREFIX = "~";
+
+    private static final PostingList EMPTY = PostingList.of(new int[0]);
+
+    private QueryEvaluator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param index index to be searched.
+     * @param query query to be evaluated.
+     * @return PostingList document ids of the records matching the query.
+     * @throws InvalidFieldNameException in case the query holds a field that is
+     *                                   not indexed.
+     */
+    static PostingList evaluate(InvertedIndex<?> index, Query query) throws InvalidFieldNameException {
+        if (query instanceof FieldPredicate) {
+            FieldPredicate predicate = (FieldPredicate) query;
+            List<PostingList> matches = new ArrayList<>();
+            for (String value : predicate.getValues()) {
+                PostingList postings = match(index, predicate.getField(), value);
+                if (postings.size() > 0) {
+                    matches.add(postings);
+                }
+            }
+            return matches.isEmpty() ? EMPTY : PostingList.union(matches);
+        } else if (query instanceof OrQuery) {
+            List<PostingList> matches = new ArrayList<>();
+            for (Query operand : ((OrQuery) query).getQueries()) {
+                PostingList postings = evaluate(index, operand);
+                if (postings.size() > 0) {
+                    matches.add(postings);
+                }
+            }
+            return matches.isEmpty() ? EMPTY : PostingList.union(matches);
+        } else if (query instanceof NotQuery) {
+            PostingList all = PostingList.all((int) index.getRecordCount());
+            return PostingList.difference(all, evaluate(index, ((NotQuery) query).getQuery()));
+        }
+        return evaluateAnd(index, ((AndQuery) query).getQueries());
+    }
+
+    /**
+     * @param index    index to be searched.
+     * @param operands queries all of which must match.
+     * @return PostingList document ids of the records matching every operand.
+     * @throws InvalidFieldNameException in case an operand holds a field that is
+     *                                   not indexed.
+     */
+    private static PostingList evaluateAnd(InvertedIndex<?> index, List<Query> operands)
+            throws InvalidFieldNameException {
+        List<PostingList> cheap = new ArrayList<>();
+        List<Query> expensive = new ArrayList<>();
+        List<Query> negated = new ArrayList<>();
+        for (Query operand : operands) {
+            if (operand instanceof NotQuery) {
+                negated.add(((NotQuery) operand).getQuery());
+            } else if (isExact(operand)) {
+                cheap.add(evaluate(index, operand));
+            } else {
+                expensive.add(operand);
+            }
+        }
+
+        cheap.sort(Comparator.comparingInt(PostingList::size));
+        PostingList result = null;
+        for (PostingList postings : cheap) {
+            result = result == null ? postings : PostingList.intersect(result, postings);
+            if (result.size() == 0) {
+                return EMPTY;
+            }
+        }
+        for (Query operand : expensive) {
+            PostingList postings = evaluate(index, operand);
+            result = result == null ? postings : PostingList.intersect(result, postings);
+            if (result.size() == 0) {
+                return EMPTY;
+            }
+        }
+        if (result == null) {
+            result = PostingList.all((int) index.getRecordCount());
+        }
+        for (Query operand : negated) {
+            result = PostingList.difference(result, evaluate(index, operand));
+            if (result.size() == 0) {
+                return EMPTY;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param query query to be evaluated.
+     * @return boolean true if the query is a predicate whose values are all looked
+     *         up as they are, without wildcards nor fuzzy matching.
+     */
+    private static boolean isExact(Query query) {
+        if (!(query instanceof FieldPredicate)) {
+            return false;
+        }
+        for (String value : ((FieldPredicate) query).getValues()) {
+            if (value.startsWith(FUZZY_PREFIX) || WildcardPattern.isPattern(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Looks for the records holding a value in a field.
+     *
+     * An empty value matches the records where the field is missing, null, empty
+     * or an empty list. A value with wildcards, * for any sequence of characters
+     * and ? for any single one, matches every value of the field it fits. A value
+     * starting with ~ matches the values within a few edits from the rest of it,
+     * ignoring case. A backslash makes the next character literal.
+     *
+     * @param index index to be searched.
+     * @param field field in the model to be used in the search.
+     * @param value value to be searched for in the field.
+     * @return PostingList document ids of the records holding the value.
+     * @throws InvalidFieldNameException in case the field is not indexed.
+     */
+    static PostingList match(InvertedIndex<?> index, String field, String value) throws InvalidFieldNameException {
+        Map<String, PostingList> idInvertedIndex = index.getField(field);
+        if (idInvertedIndex == null) {
+            throw new InvalidFieldNameException();
+        }
+        if (value.isEmpty()) {
+            PostingList missing = index.getMissingField(field);
+            return missing == null ? EMPTY : missing;
+        } else if (value.startsWith(FUZZY_PREFIX)) {
+            return matchFuzzy(index, field, value.substring(FUZZY_PREFIX.length()));
+        } else if (WildcardPattern.isPattern(value)) {
+            return matchPattern(index, field, WildcardPattern.compile(value));
+        }
+        // Escaped characters, such as \* or a leading \~, are looked up as they are
+        value = WildcardPattern.unescape(value);
+        // Numeric values are parsed once here rather than converted on every record
+        LongPostingMap numericValues = index.getNumericField(field);
+        PostingList postings = numericValues != null && LongPostingMap.isCanonicalLong(value)
+                ? numericValues.get(Long.parseLong(value))
+                : idInvertedIndex.get(value);
+        return postings == null ? EMPTY : postings;
+    }
+
+    /**
+     * Looks for the records holding any value of a field that matches a pattern.
+     * Only the values starting with the literal prefix of the pattern are matched
+     * against it, found by binary search on the values of the field in
+     * lexicographic order. Numeric values, which are not kept as text, are all
+     * matched instead.
+     *
+     * @param index   index to be searched.
+     * @param field   field in the model to be used in the search.
+     * @param pattern pattern the values must match.
+     * @return PostingList document ids of the records holding any matching value.
+     */
+    private static PostingList matchPattern(InvertedIndex<?> index, String field, WildcardPattern pattern) {
+        Map<String, PostingList> values = index.getField(field);
+        SortedTerms terms = index.getSortedTerms(field);
+        String prefix = pattern.getPrefix();
+        List<PostingList> matches = new ArrayList<>();
+        for (int i = terms.firstWithPrefix(prefix), end = terms.endOfPrefix(prefix); i < end; i++) {
+            if (pattern.matches(terms.get(i))) {
+                matches.add(values.get(terms.get(i)));
+            }
+        }
+        LongPostingMap numericValues = index.getNumericField(field);
+        if (numericValues != null) {
+            numericValues.forEach((value, postings) -> {
+                if (pattern.matches(Long.toString(value))) {
+                    matches.add(postings);
+                }
+            });
+        }
+        return matches.isEmpty() ? EMPTY : PostingList.union(matches);
+    }
+
+    /**
+     * Looks for the records holding any value of a field within a few edits from
+     * the one looked for, ignoring case. The values of the field are fed in
+     * lexicographic order to a Levenshtein automaton, which skips at once all the
+     * values starting with a prefix already too far from the one looked for.
+     *
+     * @param index index to be searched.
+     * @param field field in the model to be used in the search.
+     * @param value value looked for, possibly misspelled.
+     * @return PostingList document ids of the records holding any close enough
+     *         value.
+     */
+    private static PostingList matchFuzzy(InvertedIndex<?> index, String field, String value) {
+        Map<String, PostingList> values = index.getField(field);
+        List<PostingList> matches = new ArrayList<>();
+        new LevenshteinAutomaton(value, LevenshteinAutomaton.maxEditsFor(value))
+                .intersect(index.getSortedTerms(field), term -> matches.add(values.get(term)));
+        return matches.isEmpty() ? EMPTY : PostingList.union(matches);
+    }
+
+}
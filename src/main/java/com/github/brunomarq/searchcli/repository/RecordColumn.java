@@ -0,0 +1,373 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/*
+* Values of one field for every record, by document id, in primitive arrays: strings and the items
+* of lists as their code in the dictionary of the index, numbers as longs and booleans as bytes.
+* Nulls are kept apart, as code -1, a zero byte or a bit in a set.
+*
+* The kind of the column is set by the first value that is not null, as the records of an entity
+* always hold the same type of value in a field. Until then the column only counts its nulls.
+*/
+final class RecordColumn {
+
+    enum Kind {
+        NULL, TERM, LONG, BOOLEAN, LIST
+    }
+
+    private static final int NULL_CODE = -1;
+
+    private static final byte NULL_BOOLEAN = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+
+    private Kind kind = Kind.NULL;
+
+    private int size;
+
+    // TERM: codes of the values. LIST: codes of the items of every list, one list after the other
+    private int[] codes;
+
+    // LIST: position of the first item of every list in the codes, plus the end of the last one
+    private int[] starts;
+
+    private int itemCount;
+
+    // LONG: the values
+    private long[] longs;
+
+    // BOOLEAN: the values
+    private byte[] booleans;
+
+    // LONG and LIST: document ids whose value is null
+    private BitSet nulls;
+
+    /**
+     * Appends the value of the next record.
+     *
+     * @param value      value of the field, as visited: String, Long, Boolean, List
+     *                   of String or null.
+     * @param dictionary dictionary the strings are added to.
+     */
+    void add(Object value, TermDictionary dictionary) {
+        if (kind == Kind.NULL && value != null) {
+            becomeKindOf(value);
+        }
+        switch (kind) {
+        case TERM:
+            codes = grow(codes, size + 1);
+            codes[size] = value == null ? NULL_CODE : dictionary.intern((String) value);
+            break;
+        case LONG:
+            longs = grow(longs, size + 1);
+            if (value == null) {
+                nulls.set(size);
+            } else {
+                longs[size] = (Long) value;
+            }
+            break;
+        case BOOLEAN:
+            booleans = grow(booleans, size + 1);
+            booleans[size] = value == null ? NULL_BOOLEAN : (Boolean) value ? TRUE : FALSE;
+            break;
+        case LIST:
+            starts = grow(starts, size + 2);
+            if (value == null) {
+                nulls.set(size);
+            } else {
+                List<?> items = (List<?>) value;
+                codes = grow(codes, itemCount + items.size());
+                for (Object item : items) {
+                    codes[itemCount++] = item == null ? NULL_CODE : dictionary.intern(item.toString());
+                }
+            }
+            starts[size + 1] = itemCount;
+            break;
+        default:
+            break;
+        }
+        size++;
+    }
+
+    /**
+     * Appends the values of another column, with the codes of its strings
+     * translated to the dictionary of this one.
+     *
+     * @param other   column of the same field.
+     * @param codeMap code in the dictionary of this column of every code of the
+     *                other one.
+     */
+    void addAll(RecordColumn other, int[] codeMap) {
+        if (kind == Kind.NULL && other.kind != Kind.NULL) {
+            kind = other.kind;
+            allocate(size + other.size);
+        }
+        int offset = size;
+        switch (kind) {
+        case TERM:
+            codes = grow(codes, size + other.size);
+            for (int doc = 0; doc < other.size; doc++) {
+                codes[offset + doc] = other.kind == Kind.NULL ? NULL_CODE : translate(other.codes[doc], codeMap);
+            }
+            break;
+        case LONG:
+            longs = grow(longs, size + other.size);
+            if (other.kind == Kind.NULL) {
+                nulls.set(offset, offset + other.size);
+            } else {
+                System.arraycopy(other.longs, 0, longs, offset, other.size);
+                other.nulls.stream().forEach(doc -> nulls.set(offset + doc));
+            }
+            break;
+        case BOOLEAN:
+            booleans = grow(booleans, size + other.size);
+            if (other.kind != Kind.NULL) {
+                System.arraycopy(other.booleans, 0, booleans, offset, other.size);
+            }
+            break;
+        case LIST:
+            starts = grow(starts, size + other.size + 1);
+            if (other.kind == Kind.NULL) {
+                nulls.set(offset, offset + other.size);
+                Arrays.fill(starts, offset + 1, offset + other.size + 1, itemCount);
+            } else {
+                codes = grow(codes, itemCount + other.itemCount);
+                for (int i = 0; i < other.itemCount; i++) {
+                    codes[itemCount + i] = translate(other.codes[i], codeMap);
+                }
+                for (int doc = 1; doc <= other.size; doc++) {
+                    starts[offset + doc] = itemCount + other.starts[doc];
+                }
+                itemCount += other.itemCount;
+                other.nulls.stream().forEach(doc -> nulls.set(offset + doc));
+            }
+            break;
+        default:
+            break;
+        }
+        size += other.size;
+    }
+
+    /**
+     * @param doc        document id.
+     * @param dictionary dictionary of the codes of the column.
+     * @return Object value of the record, as visited.
+     */
+    Object get(int doc, TermDictionary dictionary) {
+        switch (kind) {
+        case TERM:
+            return codes[doc] == NULL_CODE ? null : dictionary.get(codes[doc]);
+        case LONG:
+            return nulls.get(doc) ? null : Long.valueOf(longs[doc]);
+        case BOOLEAN:
+            return booleans[doc] == NULL_BOOLEAN ? null : Boolean.valueOf(booleans[doc] == TRUE);
+        case LIST:
+            if (nulls.get(doc)) {
+                return null;
+            }
+            List<String> items = new ArrayList<>(starts[doc + 1] - starts[doc]);
+            for (int i = starts[doc]; i < starts[doc + 1]; i++) {
+                items.add(codes[i] == NULL_CODE ? null : dictionary.get(codes[i]));
+            }
+            return items;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * @return RecordColumn copy of this column that can grow without changing
+     *         this one.
+     */
+    RecordColumn copy() {
+        RecordColumn copy = new RecordColumn();
+        copy.kind = kind;
+        copy.size = size;
+        copy.itemCount = itemCount;
+        copy.codes = codes == null ? null : codes.clone();
+        copy.starts = starts == null ? null : starts.clone();
+        copy.longs = longs == null ? null : longs.clone();
+        copy.booleans = booleans == null ? null : booleans.clone();
+        copy.nulls = nulls == null ? null : (BitSet) nulls.clone();
+        return copy;
+    }
+
+    /**
+     * Releases the capacity reserved for values that were never added.
+     */
+    void trim() {
+        switch (kind) {
+        case TERM:
+            codes = Arrays.copyOf(codes, size);
+            break;
+        case LONG:
+            longs = Arrays.copyOf(longs, size);
+            break;
+        case BOOLEAN:
+            booleans = Arrays.copyOf(booleans, size);
+            break;
+        case LIST:
+            starts = Arrays.copyOf(starts, size + 1);
+            codes = Arrays.copyOf(codes, itemCount);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * @return the kind of values of the column
+     */
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the number of records
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param doc document id.
+     * @return int code of the string of a TERM column, or -1 if it is null.
+     */
+    int getCode(int doc) {
+        return codes[doc];
+    }
+
+    /**
+     * @param doc document id.
+     * @return boolean true if the value of a LONG or LIST column is null.
+     */
+    boolean isNull(int doc) {
+        return nulls.get(doc);
+    }
+
+    /**
+     * @param doc document id.
+     * @return long value of a LONG column, 0 if it is null.
+     */
+    long getLong(int doc) {
+        return longs[doc];
+    }
+
+    /**
+     * @param doc document id.
+     * @return byte value of a BOOLEAN column: 0 for null, 1 for false, 2 for true.
+     */
+    byte getBoolean(int doc) {
+        return booleans[doc];
+    }
+
+    /**
+     * @param doc document id.
+     * @return int position of the first item of the list of a LIST column.
+     */
+    int getStart(int doc) {
+        return starts[doc];
+    }
+
+    /**
+     * @return the number of items of all the lists of a LIST column
+     */
+    int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Rebuilds a column, as read from a snapshot.
+     *
+     * @param kind     kind of the values.
+     * @param size     number of records.
+     * @param codes    codes of a TERM or LIST column.
+     * @param starts   starts of the lists of a LIST column.
+     * @param longs    values of a LONG column.
+     * @param booleans values of a BOOLEAN column.
+     * @param nulls    document ids whose value is null in a LONG or LIST column.
+     * @return RecordColumn the column.
+     */
+    static RecordColumn of(Kind kind, int size, int[] codes, int[] starts, long[] longs, byte[] booleans,
+            BitSet nulls) {
+        RecordColumn column = new RecordColumn();
+        column.kind = kind;
+        column.size = size;
+        column.codes = codes;
+        column.starts = starts;
+        column.itemCount = starts == null ? 0 : starts[size];
+        column.longs = longs;
+        column.booleans = booleans;
+        column.nulls = nulls;
+        return column;
+    }
+
+    /**
+     * Sets the kind of the column from its first value that is not null, with
+     * every previous record as null.
+     *
+     * @param value first value that is not null.
+     */
+    private void becomeKindOf(Object value) {
+        if (value instanceof Long) {
+            kind = Kind.LONG;
+        } else if (value instanceof Boolean) {
+            kind = Kind.BOOLEAN;
+        } else if (value instanceof List) {
+            kind = Kind.LIST;
+        } else {
+            kind = Kind.TERM;
+        }
+        allocate(size + 1);
+    }
+
+    /**
+     * @param capacity number of records the arrays are allocated for, with the
+     *                 records already counted as null.
+     */
+    private void allocate(int capacity) {
+        switch (kind) {
+        case TERM:
+            codes = new int[capacity];
+            Arrays.fill(codes, 0, size, NULL_CODE);
+            break;
+        case LONG:
+            longs = new long[capacity];
+            nulls = new BitSet();
+            nulls.set(0, size);
+            break;
+        case BOOLEAN:
+            booleans = new byte[capacity];
+            break;
+        case LIST:
+            starts = new int[capacity + 1];
+            codes = new int[0];
+            nulls = new BitSet();
+            nulls.set(0, size);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private static int translate(int code, int[] codeMap) {
+        return code == NULL_CODE ? NULL_CODE : codeMap[code];
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 3 / 2 + 1));
+    }
+
+    private static long[] grow(long[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 3 / 2 + 1));
+    }
+
+    private static byte[] grow(byte[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 3 / 2 + 1));
+    }
+
+}
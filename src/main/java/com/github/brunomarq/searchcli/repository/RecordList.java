@@ -0,0 +1,47 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.AbstractList;
+
+import com.github.brunomarq.searchcli.domain.Entity;
+
+/*
+* Read-only list of records in a given order of document ids, such as the ranking of a text search,
+* resolved from the records of the index only as they are read. As a RecordSet, it keeps the index
+* and document ids it was resolved from.
+*/
+final class RecordList<T extends Entity> extends AbstractList<T> {
+
+    private final InvertedIndex<T> index;
+
+    private final int[] docs;
+
+    RecordList(InvertedIndex<T> index, int[] docs) {
+        this.index = index;
+        this.docs = docs;
+    }
+
+    @Override
+    public T get(int i) {
+        return index.getRecords().get(docs[i]);
+    }
+
+    @Override
+    public int size() {
+        return docs.length;
+    }
+
+    /**
+     * @return the index the records were resolved from
+     */
+    InvertedIndex<T> getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the document ids of the records, in the order of the list
+     */
+    int[] getDocs() {
+        return docs;
+    }
+
+}
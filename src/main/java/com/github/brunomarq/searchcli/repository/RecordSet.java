@@ -0,0 +1,89 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.github.brunomarq.searchcli.domain.Entity;
+
+/*
+* Read-only set of the records of a posting list, resolved from the records of the index only as
+* they are iterated. The set keeps the index and document ids it was resolved from, so the records
+* related to them can be found through a join index built on the same index.
+*/
+final class RecordSet<T extends Entity> extends AbstractSet<T> {
+
+    private final InvertedIndex<T> index;
+
+    private final List<T> records;
+
+    private final int[] docs;
+
+    private final int size;
+
+    RecordSet(InvertedIndex<T> index, PostingList postings) {
+        // Later additions to the list are past this size, so they are never seen
+        this(index, postings.toArray(), postings.size());
+    }
+
+    private RecordSet(InvertedIndex<T> index, int[] docs, int size) {
+        this.index = index;
+        this.records = index.getRecords();
+        this.docs = docs;
+        this.size = size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public T next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return records.get(docs[next++]);
+            }
+
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param from position of the first record kept.
+     * @param to   position after the last record kept.
+     * @return RecordSet<T> set of the records between both positions, none of
+     *         them resolved yet.
+     */
+    RecordSet<T> slice(int from, int to) {
+        return new RecordSet<>(index, Arrays.copyOfRange(docs, from, to), to - from);
+    }
+
+    /**
+     * @return the index the records were resolved from
+     */
+    InvertedIndex<T> getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the document ids of the records, in the order they are iterated
+     */
+    int[] getDocs() {
+        return size == docs.length ? docs : Arrays.copyOf(docs, size);
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.github.brunomarq.searchcli.domain.Entity;
+
+/*
+* Records of an index kept column by column, one column per searchable field in the order the
+* fields are visited, instead of as entity objects. Strings are held as their code in the dictionary
+* of the index, so a record costs a few primitives per field rather than an object with its boxed
+* numbers and lists.
+*
+* Entity objects are only built when a record is read, from the values of its columns, and are not
+* kept: each read returns a new object equal to the record that was added.
+*/
+final class RecordStore<T extends Entity> {
+
+    // Creates the empty entity objects the records are read into
+    private final Supplier<T> factory;
+
+    private final List<String> fieldNames = new ArrayList<>();
+
+    // Column of every field, at the position of its name
+    private final List<RecordColumn> columns = new ArrayList<>();
+
+    private int size;
+
+    /**
+     * @param factory creates an empty entity object, such as Organization::new.
+     */
+    RecordStore(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Appends a record, taking the names of the fields from the first one.
+     *
+     * @param record     record to be appended.
+     * @param dictionary dictionary the strings of the record are added to.
+     */
+    void add(T record, TermDictionary dictionary) {
+        if (size == 0) {
+            record.visitFields((field, value) -> {
+                fieldNames.add(field);
+                columns.add(new RecordColumn());
+            });
+        }
+        int[] position = new int[1];
+        record.visitFields((field, value) -> columns.get(position[0]++).add(value, dictionary));
+        size++;
+    }
+
+    /**
+     * Appends all the records of another store.
+     *
+     * @param other   store of records of the same entity.
+     * @param codeMap code in the dictionary of this store of every code of the
+     *                other one.
+     */
+    void addAll(RecordStore<T> other, int[] codeMap) {
+        if (other.size == 0) {
+            return;
+        }
+        if (size == 0) {
+            fieldNames.addAll(other.fieldNames);
+            for (int i = 0; i < other.fieldNames.size(); i++) {
+                columns.add(new RecordColumn());
+            }
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).addAll(other.columns.get(i), codeMap);
+        }
+        size += other.size;
+    }
+
+    /**
+     * @param doc        document id.
+     * @param dictionary dictionary of the codes of the store.
+     * @return T new entity object with the values of the record.
+     */
+    T get(int doc, TermDictionary dictionary) {
+        if (doc < 0 || doc >= size) {
+            throw new IndexOutOfBoundsException("Document id out of range " + doc);
+        }
+        T record = factory.get();
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = columns.get(i).get(doc, dictionary);
+            // A new entity already holds nulls, and primitive fields cannot be set to one
+            if (value != null) {
+                record.setFieldValue(fieldNames.get(i), value);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * @return RecordStore<T> copy of this store that can grow without changing
+     *         this one.
+     */
+    RecordStore<T> copy() {
+        RecordStore<T> copy = new RecordStore<>(factory);
+        copy.fieldNames.addAll(fieldNames);
+        for (RecordColumn column : columns) {
+            copy.columns.add(column.copy());
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Releases the capacity reserved for records that were never added.
+     */
+    void trim() {
+        for (RecordColumn column : columns) {
+            column.trim();
+        }
+    }
+
+    /**
+     * @return the names of the fields, in the order they are visited
+     */
+    List<String> getFieldNames() {
+        return Collections.unmodifiableList(fieldNames);
+    }
+
+    /**
+     * @param i position of the field.
+     * @return RecordColumn values of the field for every record.
+     */
+    RecordColumn getColumn(int i) {
+        return columns.get(i);
+    }
+
+    /**
+     * @param field name of the field.
+     * @return RecordColumn values of the field for every record, or null if the
+     *         records have no such field.
+     */
+    RecordColumn getColumn(String field) {
+        int i = fieldNames.indexOf(field);
+        return i < 0 ? null : columns.get(i);
+    }
+
+    /**
+     * @return the number of records
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Rebuilds a store, as read from a snapshot.
+     *
+     * @param factory    creates an empty entity object.
+     * @param fieldNames names of the fields, in the order they are visited.
+     * @param columns    column of every field, all of the same size.
+     * @param size       number of records.
+     * @return RecordStore<T> the store.
+     * @throws IllegalArgumentException if a column does not hold every record.
+     */
+    static <T extends Entity> RecordStore<T> of(Supplier<T> factory, List<String> fieldNames,
+            List<RecordColumn> columns, int size) {
+        RecordStore<T> store = new RecordStore<>(factory);
+        for (RecordColumn column : columns) {
+            if (column.size() != size) {
+                throw new IllegalArgumentException("Column of " + column.size() + " values for " + size + " records");
+            }
+        }
+        if (size > 0) {
+            store.fieldNames.addAll(fieldNames);
+            store.columns.addAll(columns);
+            store.size = size;
+        }
+        return store;
+    }
+
+}
@@ -4,128 +4,711 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.github.brunomarq.searchcli.domain.Entity;
 import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.exception.TooManyGroupsException;
+import com.github.brunomarq.searchcli.query.Query;
+import com.github.brunomarq.searchcli.repository.JsonChunker.Chunk;
+import com.github.brunomarq.searchcli.repository.SourceFingerprint.FingerprintInputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.util.StopWatch;
 
-public abstract class SearchRepository<T> {
+public abstract class SearchRepository<T extends Entity> {
 
     static final Logger log = LoggerFactory.getLogger(SearchRepository.class);
 
-    // Key: the field name
-    // Value: Map from the value of the field to the set of instances of the entity
-    private Map<String, Map<String, Set<T>>> invertedIndex = new HashMap<>();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Files at least this large are memory mapped and parsed in parallel chunks
+    static final long DEFAULT_PARALLEL_LOAD_THRESHOLD = 64L * 1024 * 1024;
+
+    // Current generation of the index. A reload builds a new index on the side and
+    // publishes it here in one write, so searches never see a partial index and
+    // never wait for a reload. The previous generation is left to the garbage
+    // collector once the searches still holding it are done.
+    private volatile InvertedIndex<T> invertedIndex;
+
+    // Creates the empty entity objects the records of the index are read into
+    private final Supplier<T> factory;
+
+    private long parallelLoadThreshold = DEFAULT_PARALLEL_LOAD_THRESHOLD;
+
+    /**
+     * @param factory creates an empty entity object, such as Organization::new.
+     */
+    protected SearchRepository(Supplier<T> factory) {
+        this.factory = factory;
+        this.invertedIndex = new InvertedIndex<>(factory);
+    }
 
     /**
      * Loads the json files into the invertedIndex to allow efficient searches.
      * 
+     * The file holds either a top level array of records or json lines, one record
+     * per line. Small files and files bundled as resources are read as a stream:
+     * each record is bound straight into the entity type and indexed before the
+     * next one is read, so the whole file is never held in memory as a list of
+     * records. Files on the filesystem larger than the parallel load threshold are
+     * memory mapped and indexed in parallel instead.
+     * 
+     * Gzip compressed files, told apart by their magic bytes, are decompressed
+     * while they are parsed without ever being written to disk.
+     * 
+     * Searches keep using the previous index until the new one is complete, and
+     * keep using it for good if the load fails.
+     * 
      * @throws IOException if the files are not found or cannot be loaded.
      */
     public void loadDatabases(String filePath, Class<T> typeClass) throws IOException {
-        this.invertedIndex = new HashMap<>();
+        StopWatch watch = new StopWatch();
+        watch.start();
+        ObjectReader reader = MAPPER.readerFor(typeClass);
+
         // The class loader that loaded the class
         ClassLoader classLoader = getClass().getClassLoader();
 
-        List<Map<String, Object>> records;
-        ObjectMapper mapper = new ObjectMapper();
-
         log.info("Looking for file {} under resources...", filePath);
-        InputStream inputStream = classLoader.getResourceAsStream(filePath);
-        if (inputStream == null) {
+        InputStream resourceStream = classLoader.getResourceAsStream(filePath);
+        InvertedIndex<T> index;
+        if (resourceStream != null) {
+            index = loadStream(resourceStream, filePath, reader);
+        } else {
             log.info("Looking for file {} on the filesystem...", filePath);
-            inputStream = new FileInputStream(new File(filePath));
+            File file = new File(filePath);
+            if (file.isFile() && file.length() >= parallelLoadThreshold) {
+                index = loadChunks(file, reader);
+            } else {
+                index = loadStream(new FileInputStream(file), filePath, reader);
+            }
+        }
+        index.trim();
+        this.invertedIndex = index;
+
+        watch.stop();
+        log.info("Inverted index for {} created with {} records in {} seconds", filePath, index.getRecordCount(),
+                watch.getTotalTimeSeconds());
+    }
+
+    /**
+     * Reads and indexes all the records of a stream on the calling thread. The
+     * stream holds either a json array of records or json lines, that is one
+     * record per line, which is told apart from the first token. Gzip compressed
+     * streams are decompressed as they are parsed, while the fingerprint is
+     * computed on the compressed bytes, as they are in the file.
+     * 
+     * @param inputStream stream with the records, closed once read.
+     * @param source      name of the source used in messages.
+     * @param reader      reader bound to the entity type.
+     * @return InvertedIndex<T> index of all the records.
+     * @throws IOException if the content cannot be parsed.
+     */
+    private InvertedIndex<T> loadStream(InputStream inputStream, String source, ObjectReader reader)
+            throws IOException {
+        log.info("Building inverted index for {}...", source);
+        try (FingerprintInputStream in = new FingerprintInputStream(inputStream);
+                InputStream content = GzipMembers.decompress(in)) {
+            InvertedIndex<T> index = parseRecords(content, source, reader);
+            index.setSource(in.drain());
+            return index;
+        }
+    }
+
+    /**
+     * Reads and indexes the records of a chunk of a file, decompressing it if it
+     * holds gzip members. No fingerprint is computed, as the one of the whole file
+     * is computed on its own.
+     * 
+     * @param inputStream stream with the records of the chunk, closed once read.
+     * @param source      name of the source used in messages.
+     * @param reader      reader bound to the entity type.
+     * @return InvertedIndex<T> index of the records of the chunk, without source.
+     * @throws IOException if the content cannot be parsed.
+     */
+    private InvertedIndex<T> loadChunk(InputStream inputStream, String source, ObjectReader reader)
+            throws IOException {
+        try (InputStream content = GzipMembers.decompress(inputStream)) {
+            return parseRecords(content, source, reader);
+        }
+    }
+
+    /**
+     * Indexes the records of a json array or of json lines, told apart from the
+     * first token.
+     * 
+     * @param content stream with the json content, left open.
+     * @param source  name of the source used in messages.
+     * @param reader  reader bound to the entity type.
+     * @return InvertedIndex<T> index of all the records, without source.
+     * @throws IOException if the content cannot be parsed.
+     */
+    private InvertedIndex<T> parseRecords(InputStream content, String source, ObjectReader reader)
+            throws IOException {
+        InvertedIndex<T> index = new InvertedIndex<>(factory);
+        try (JsonParser parser = MAPPER.getFactory().createParser(content)) {
+            // The caller may still need the stream after the last record, as to complete a fingerprint
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    T record = reader.readValue(parser);
+                    index.add(record);
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    throw new JsonParseException(parser, "Expected a json object for each record in " + source);
+                }
+            } else {
+                // Json lines: a sequence of root level records
+                while (token == JsonToken.START_OBJECT) {
+                    T record = reader.readValue(parser);
+                    index.add(record);
+                    token = parser.nextToken();
+                }
+                if (token != null) {
+                    throw new JsonParseException(parser,
+                            "Expected a json array or one json object per line in " + source);
+                }
+            }
         }
+        return index;
+    }
+
+    /**
+     * Memory maps the file, splits it in record-aligned chunks and indexes each
+     * chunk on its own thread. The partial indexes are merged at the end. Json
+     * lines files are cut at new lines, json arrays at the end of a record.
+     * 
+     * Gzip compressed json lines are cut at member boundaries and each chunk is
+     * decompressed on its own thread. This only works when every member holds
+     * whole lines, which is only known once the chunks are parsed, so the file is
+     * decompressed and parsed on a single thread when any chunk fails. Compressed
+     * json arrays are always read on a single thread.
+     * 
+     * @param file   json file to be loaded.
+     * @param reader reader bound to the entity type.
+     * @return InvertedIndex<T> index of all the records.
+     * @throws IOException if the file cannot be mapped or parsed.
+     */
+    private InvertedIndex<T> loadChunks(File file, ObjectReader reader) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (GzipMembers.isGzip(channel)) {
+                return loadGzipChunks(executor, channel, file, reader, threads * 4);
+            }
+            // More chunks than threads, so a slow chunk does not hold the others back
+            List<Chunk> chunks = JsonChunker.isJsonLines(channel, file.getName())
+                    ? JsonChunker.splitLines(channel, threads * 4)
+                    : JsonChunker.splitArray(channel, threads * 4);
+            log.info("Building inverted index for {} in {} chunks...", file, chunks.size());
+
+            // The checksum is computed alongside the chunks from the same mapped pages
+            Future<SourceFingerprint> source = executor.submit(() -> SourceFingerprint.of(file));
+            InvertedIndex<T> index = loadChunks(executor, channel, chunks, file, reader);
+            index.setSource(source.get());
+            return index;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unexpected error while loading " + file, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading " + file);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Decompresses and indexes the members of a gzip file in parallel chunks when
+     * possible, or else on the calling thread.
+     * 
+     * @param executor   executor running the tasks.
+     * @param channel    channel of the gzip file.
+     * @param file       gzip file to be loaded.
+     * @param reader     reader bound to the entity type.
+     * @param chunkCount number of chunks wanted.
+     * @return InvertedIndex<T> index of all the records.
+     * @throws IOException          if the file cannot be read or parsed.
+     * @throws InterruptedException if interrupted while waiting for the chunks.
+     */
+    private InvertedIndex<T> loadGzipChunks(ExecutorService executor, FileChannel channel, File file,
+            ObjectReader reader, int chunkCount) throws IOException, InterruptedException {
+        List<Chunk> chunks = GzipMembers.isJsonLines(channel, file.getName()) ? GzipMembers.split(channel, chunkCount)
+                : Collections.emptyList();
+        if (chunks.size() > 1) {
+            log.info("Building inverted index for {} in {} compressed chunks...", file, chunks.size());
+            Future<SourceFingerprint> source = executor.submit(() -> SourceFingerprint.of(file));
+            try {
+                InvertedIndex<T> index = loadChunks(executor, channel, chunks, file, reader);
+                index.setSource(source.get());
+                return index;
+            } catch (ExecutionException e) {
+                log.info("Members of {} do not hold whole lines ({}), decompressing it on a single thread", file,
+                        e.getCause().getMessage());
+                source.cancel(true);
+            }
+        }
+        return loadStream(new FileInputStream(file), file.getPath(), reader);
+    }
+
+    /**
+     * Indexes each chunk on its own task and merges the partial indexes in file
+     * order.
+     * 
+     * @param executor executor running the tasks.
+     * @param channel  channel of the json file.
+     * @param chunks   chunks to be indexed.
+     * @param file     json file, used in messages.
+     * @param reader   reader bound to the entity type.
+     * @return InvertedIndex<T> index of the records of all the chunks, without
+     *         source.
+     * @throws ExecutionException   if any chunk cannot be parsed.
+     * @throws InterruptedException if interrupted while waiting for the chunks.
+     */
+    private InvertedIndex<T> loadChunks(ExecutorService executor, FileChannel channel, List<Chunk> chunks, File file,
+            ObjectReader reader) throws ExecutionException, InterruptedException {
+        List<Future<InvertedIndex<T>>> partialIndexes = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks) {
+            partialIndexes.add(
+                    executor.submit(() -> loadChunk(JsonChunker.open(channel, chunk), file.getPath(), reader)));
+        }
+
+        InvertedIndex<T> index = new InvertedIndex<>(factory);
+        try {
+            for (Future<InvertedIndex<T>> partialIndex : partialIndexes) {
+                index.merge(partialIndex.get());
+            }
+        } catch (ExecutionException e) {
+            // The other chunks are of no use anymore
+            for (Future<InvertedIndex<T>> partialIndex : partialIndexes) {
+                partialIndex.cancel(true);
+            }
+            throw e;
+        }
+        return index;
+    }
+
+    /**
+     * Brings the index up to date with the json file after it has changed.
+     * 
+     * When the current index was loaded from a json lines file that has only had
+     * lines appended since, only the new lines are parsed and added to a copy of
+     * the current index. Any other change, such as a json array or an edited
+     * line, reloads the whole file.
+     * 
+     * @param filePath  path of the json file the current index was loaded from.
+     * @param typeClass type of the entity.
+     * @throws IOException if the file cannot be found or loaded.
+     */
+    public void refreshDatabases(String filePath, Class<T> typeClass) throws IOException {
+        InvertedIndex<T> current = this.invertedIndex;
+        File file = new File(filePath);
+        if (current.getSource() == null || !file.isFile()) {
+            loadDatabases(filePath, typeClass);
+            return;
+        }
+
         StopWatch watch = new StopWatch();
         watch.start();
-        records = mapper.readValue(inputStream, List.class);
+        InvertedIndex<T> index;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Lines appended after this point are left for the next refresh
+            long size = channel.size();
+            SourceFingerprint source = JsonChunker.isJsonLines(channel, file.getName())
+                    ? SourceFingerprint.ofAppended(channel, size, current.getSource())
+                    : null;
+            if (source == null) {
+                log.info("File {} has been rewritten, reloading it...", filePath);
+            } else if (source.equals(current.getSource())) {
+                log.info("File {} has not changed", filePath);
+                return;
+            } else {
+                index = current.append(loadAppended(channel, current.getSource().getLength(), size, file,
+                        MAPPER.readerFor(typeClass)));
+                index.setSource(source);
+                this.invertedIndex = index;
 
-        log.info("Building inverted index for {}...", filePath);
-        for (Map<String, Object> record : records) {
-            buildInvertedIndex(record, typeClass);
+                watch.stop();
+                log.info("Inverted index for {} refreshed with {} new records in {} seconds", filePath,
+                        index.getRecordCount() - current.getRecordCount(), watch.getTotalTimeSeconds());
+                return;
+            }
+        }
+        loadDatabases(filePath, typeClass);
+    }
+
+    /**
+     * Indexes the lines appended to a json lines file, in parallel chunks when
+     * they add up to more than the parallel load threshold.
+     * 
+     * @param channel channel of the json file.
+     * @param start   end of the content already indexed.
+     * @param size    end of the content to be indexed.
+     * @param file    json file, used in messages.
+     * @param reader  reader bound to the entity type.
+     * @return InvertedIndex<T> index of the appended records, without source.
+     * @throws IOException if the lines cannot be parsed.
+     */
+    private InvertedIndex<T> loadAppended(FileChannel channel, long start, long size, File file, ObjectReader reader)
+            throws IOException {
+        int threads = size - start >= parallelLoadThreshold ? Runtime.getRuntime().availableProcessors() : 1;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Chunk> chunks = JsonChunker.splitLines(channel, start, size, threads == 1 ? 1 : threads * 4);
+            log.info("Indexing {} bytes appended to {} in {} chunks...", size - start, file, chunks.size());
+            return loadChunks(executor, channel, chunks, file, reader);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unexpected error while loading " + file, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading " + file);
+        } finally {
+            executor.shutdownNow();
         }
-        watch.stop();
-        log.info("Inverted index for {} created in {} seconds", filePath, watch.getTotalTimeSeconds());
     }
 
     /**
-     * Populates the hashmap representing the inverted index.
+     * Writes the current index and its records to a binary snapshot next to the
+     * json file, named after it with the .snapshot extension.
      * 
-     * @param record    record to be inserted in the inverted index.
+     * @param filePath  path of the json file the index was loaded from.
      * @param typeClass type of the entity.
+     * @throws IOException if nothing was loaded yet or the snapshot cannot be
+     *                     written.
      */
-    private void buildInvertedIndex(Map<String, Object> record, Class<T> typeClass) {
-        ObjectMapper mapper = new ObjectMapper();
-        T convertedRecord = mapper.convertValue(record, typeClass);
+    public void saveSnapshot(String filePath, Class<T> typeClass) throws IOException {
+        InvertedIndex<T> index = this.invertedIndex;
+        if (index.getSource() == null) {
+            throw new IOException("No json file has been loaded yet");
+        }
+        Path snapshotPath = Paths.get(filePath + IndexSnapshot.EXTENSION);
 
-        for (Entry<String, Object> entry : record.entrySet()) {
-            String key = entry.getKey();
+        StopWatch watch = new StopWatch();
+        watch.start();
+        IndexSnapshot.write(index, typeClass, snapshotPath);
+        watch.stop();
+        log.info("Snapshot {} saved with {} records in {} seconds", snapshotPath, index.getRecordCount(),
+                watch.getTotalTimeSeconds());
+    }
 
-            invertedIndex.computeIfAbsent(key, k -> new HashMap<>());
-            Map<String, Set<T>> valueMap = invertedIndex.get(key);
+    /**
+     * Replaces the current index with the one in the snapshot of the json file,
+     * provided the snapshot exists, was written by this version and matches the
+     * length and checksum of the current content of the json file.
+     * 
+     * @param filePath  path of the json file.
+     * @param typeClass type of the entity.
+     * @return boolean true if a valid snapshot was loaded.
+     * @throws IOException if the json file or the snapshot cannot be read.
+     */
+    public boolean loadSnapshot(String filePath, Class<T> typeClass) throws IOException {
+        Path snapshotPath = Paths.get(filePath + IndexSnapshot.EXTENSION);
+        if (!Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
 
-            if (entry.getValue() instanceof List) {
-                List<String> listValues = (List<String>) entry.getValue();
-                for (String value : listValues) {
-                    valueMap.computeIfAbsent(value, k -> new HashSet<>());
-                    valueMap.get(value).add(convertedRecord);
-                }
-            } else {
-                String value = entry.getValue().toString();
-                valueMap.computeIfAbsent(value, k -> new HashSet<>());
-                valueMap.get(value).add(convertedRecord);
-            }
+        StopWatch watch = new StopWatch();
+        watch.start();
+        SourceFingerprint source = SourceFingerprint.of(filePath, getClass().getClassLoader());
+        InvertedIndex<T> index = IndexSnapshot.read(snapshotPath, typeClass, factory, source);
+        if (index == null) {
+            return false;
         }
+        this.invertedIndex = index;
+        watch.stop();
+        log.info("Inverted index for {} restored from {} with {} records in {} seconds", filePath, snapshotPath,
+                index.getRecordCount(), watch.getTotalTimeSeconds());
+        return true;
+    }
+
+    /**
+     * @param parallelLoadThreshold size in bytes from which files on the
+     *                              filesystem are loaded in parallel chunks.
+     */
+    @Value("${searchcli.load.parallel-threshold-bytes:" + DEFAULT_PARALLEL_LOAD_THRESHOLD + "}")
+    public void setParallelLoadThreshold(long parallelLoadThreshold) {
+        this.parallelLoadThreshold = parallelLoadThreshold;
     }
 
     /**
      * Looks for record in the inverted index, and, if no record is found, returns
      * and empty collection.
      * 
+     * An empty value matches the records where the field is missing, null, empty
+     * or an empty list, such as the tickets without assignee.
+     * 
+     * A value with wildcards, * for any sequence of characters and ? for any
+     * single one, matches every value of the field it fits, such as En* for the
+     * values starting with En. A backslash makes the next character literal.
+     * 
+     * A value starting with ~ matches the values of the field within a few edits
+     * from the rest of it, ignoring case, so misspelled names are still found.
+     * 
      * @param field field in the model to be used in the search.
      * @param value value to be searched for in the field.
-     * @return List<Entity> result of the search as a collection
+     * @return List<Entity> result of the search as a read-only collection, as it
+     *         is shared with every other search of the same index.
      */
     public Set<T> findByFieldValue(String field, String value) throws InvalidFieldNameException {
+        InvertedIndex<T> index = this.invertedIndex;
+
+        PostingList postings = QueryEvaluator.match(index, field, value);
+        if (postings.size() == 0) {
+            return Collections.emptySet();
+        }
+        return index.resolve(postings);
+    }
+
+    /**
+     * Looks for the records matching a query combining predicates on several
+     * fields with AND, OR and NOT. Each predicate matches values as
+     * {@link #findByFieldValue(String, String)} does.
+     * 
+     * @param query parsed query.
+     * @return Set<T> result of the search as a read-only collection, in the order
+     *         the records were loaded.
+     * @throws InvalidFieldNameException in case the query holds an invalid field.
+     */
+    public Set<T> findByQuery(Query query) throws InvalidFieldNameException {
+        InvertedIndex<T> index = this.invertedIndex;
+
+        PostingList postings = QueryEvaluator.evaluate(index, query);
+        if (postings.size() == 0) {
+            return Collections.emptySet();
+        }
+        return index.resolve(postings);
+    }
 
-        Map<String, Set<T>> idInvertedIndex = invertedIndex.get(field);
-        if (idInvertedIndex == null) {
+    /**
+     * Counts the records {@link #findByFieldValue(String, String)} would find,
+     * from the size of their posting list, without resolving any record. An exact
+     * value is counted in constant time.
+     * 
+     * @param field field in the model to be used in the search.
+     * @param value value to be searched for in the field.
+     * @return int number of records found.
+     * @throws InvalidFieldNameException in case an invalid field name is provided.
+     */
+    public int countByFieldValue(String field, String value) throws InvalidFieldNameException {
+        return QueryEvaluator.match(this.invertedIndex, field, value).size();
+    }
+
+    /**
+     * Counts the records {@link #findByQuery(Query)} would find, from the size of
+     * the posting list the query evaluates to, without resolving any record.
+     * 
+     * @param query parsed query.
+     * @return int number of records found.
+     * @throws InvalidFieldNameException in case the query holds an invalid field.
+     */
+    public int countByQuery(Query query) throws InvalidFieldNameException {
+        return QueryEvaluator.evaluate(this.invertedIndex, query).size();
+    }
+
+    /**
+     * Counts the records grouped by the values of some fields, such as the tickets
+     * of every status and priority, from the columns of the records rather than
+     * by resolving any of them. A record holding a list is counted once in the
+     * group of every distinct item of the list.
+     * 
+     * @param fields fields the records are grouped by.
+     * @param query  parsed query the records counted must match, or null for all
+     *               of them.
+     * @return Map<List<String>, Integer> number of records of every group found,
+     *         keyed by the values of the fields in the same order, empty where a
+     *         field is missing.
+     * @throws InvalidFieldNameException in case a field or the query holds an
+     *                                   invalid field.
+     * @throws TooManyGroupsException    in case the fields hold too many
+     *                                   combinations of values to be counted.
+     */
+    public Map<List<String>, Integer> aggregate(List<String> fields, Query query)
+            throws InvalidFieldNameException, TooManyGroupsException {
+        InvertedIndex<T> index = this.invertedIndex;
+
+        PostingList postings = query == null ? PostingList.all((int) index.getRecordCount())
+                : QueryEvaluator.evaluate(index, query);
+        return FacetCounter.count(index, fields, postings);
+    }
+
+    /**
+     * Looks for the records whose timestamp in a field is within a range, by
+     * binary search on the sorted timestamps of the field. Records without a valid
+     * timestamp in the field are never returned.
+     *
+     * @param field timestamp field in the model to be used in the search.
+     * @param from  lowest timestamp in epoch milliseconds, inclusive.
+     * @param to    highest timestamp in epoch milliseconds, inclusive.
+     * @return Set<T> result of the search as a read-only collection, in the order
+     *         the records were loaded.
+     * @throws InvalidFieldNameException in case the field does not hold
+     *                                   timestamps.
+     */
+    public Set<T> findByTimeRange(String field, long from, long to) throws InvalidFieldNameException {
+        InvertedIndex<T> index = this.invertedIndex;
+
+        TimestampColumn column = index.getTimestampField(field);
+        if (column == null) {
             throw new InvalidFieldNameException();
         }
-        Set<T> result = idInvertedIndex.get(value);
-        if (result == null) {
-            result = new HashSet<>();
+        PostingList postings = column.range(from, to);
+        if (postings.size() == 0) {
+            return Collections.emptySet();
         }
-        return result;
+        return index.resolve(postings);
+    }
+
+    /**
+     * Looks for the records whose free text holds any word of a query, ranked by
+     * BM25. The query is analyzed as the indexed text is, so words match whatever
+     * their case and whether singular or plural.
+     *
+     * @param field free text field to be searched, or empty for all of them.
+     * @param query words to be searched for.
+     * @param limit maximum number of records returned.
+     * @return List<T> read-only view of the best matching records, the best
+     *         first.
+     * @throws InvalidFieldNameException in case the field does not hold free
+     *                                   text.
+     */
+    public List<T> findByText(String field, String query, int limit) throws InvalidFieldNameException {
+        InvertedIndex<T> index = this.invertedIndex;
+
+        List<TextIndex> textIndexes = new ArrayList<>();
+        if (field.isEmpty()) {
+            for (String textField : index.getTextFieldNames()) {
+                textIndexes.add(index.getTextField(textField));
+            }
+        } else if (index.getTextField(field) != null) {
+            textIndexes.add(index.getTextField(field));
+        } else {
+            throw new InvalidFieldNameException();
+        }
+
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        return new RecordList<>(index, Bm25Scorer.topDocs(textIndexes, terms, limit));
     }
 
     /**
      * Helper method to look for a singular record by id. Return null if not found.
+     * Numeric ids are looked up in the numeric index, without boxing nor string
+     * conversion.
      * 
      * @param id unique identifier of the record to be looked for.
      * @return T Entity to be returned.
      * @throws InvalidFieldNameException in case an invalid field string is
      *                                   provided.
      */
-    public T findById(Long id) throws InvalidFieldNameException {
-        T entity = null;
-        if (id != null) {
-            Set<T> result = this.findByFieldValue(Entity.FIELD_ID, id.toString());
-            if (result != null && !result.isEmpty()) {
-                entity = result.iterator().next();
+    public T findById(long id) throws InvalidFieldNameException {
+        InvertedIndex<T> index = this.invertedIndex;
+        LongPostingMap ids = index.getNumericField(Entity.FIELD_ID);
+        if (ids == null) {
+            Set<T> result = this.findByFieldValue(Entity.FIELD_ID, Long.toString(id));
+            return result.isEmpty() ? null : result.iterator().next();
+        }
+        PostingList postings = ids.get(id);
+        return postings == null ? null : index.getRecords().get(postings.get(0));
+    }
+
+    /**
+     * Looks for the records of many ids at once, such as the foreign keys of a
+     * whole search result. Each distinct id is looked up and its record built
+     * once, however many times it is given, and all of them are looked up in the
+     * same generation of the index.
+     *
+     * @param ids unique identifiers of the records to be looked for, possibly
+     *            repeated.
+     * @return Map<Long, T> record of every id found, ids not found being left
+     *         out.
+     * @throws InvalidFieldNameException in case an invalid field string is
+     *                                   provided.
+     */
+    public Map<Long, T> findByIds(long[] ids) throws InvalidFieldNameException {
+        InvertedIndex<T> index = this.invertedIndex;
+        LongPostingMap idPostings = index.getNumericField(Entity.FIELD_ID);
+        List<T> records = index.getRecords();
+        // Each distinct id is looked up once, whether it is found or not
+        long[] distinctIds = ids.clone();
+        Arrays.sort(distinctIds);
+        Map<Long, T> result = new HashMap<>();
+        for (int i = 0; i < distinctIds.length; i++) {
+            long id = distinctIds[i];
+            if (i > 0 && distinctIds[i - 1] == id) {
+                continue;
+            }
+            if (idPostings == null) {
+                PostingList postings = QueryEvaluator.match(index, Entity.FIELD_ID, Long.toString(id));
+                if (postings.size() > 0) {
+                    result.put(id, records.get(postings.get(0)));
+                }
+            } else {
+                PostingList postings = idPostings.get(id);
+                if (postings != null) {
+                    result.put(id, records.get(postings.get(0)));
+                }
             }
         }
-        return entity;
+        return result;
+    }
+
+    /**
+     * Keeps a page of the records found by a search. The records found by this
+     * repository are resolved from the index only as they are read, so the ones
+     * outside of the page are never built.
+     *
+     * @param records records found by a search.
+     * @param offset  number of records skipped.
+     * @param limit   maximum number of records kept, all of them if 0.
+     * @return Collection<T> records of the page, in the order they were found.
+     */
+    public static <T extends Entity> Collection<T> page(Collection<T> records, int offset, int limit) {
+        int from = Math.min(offset, records.size());
+        int to = limit == 0 ? records.size() : (int) Math.min((long) from + limit, records.size());
+        if (records instanceof RecordSet) {
+            return ((RecordSet<T>) records).slice(from, to);
+        }
+        return records.stream().skip(from).limit((long) to - from).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the current generation of the index
+     */
+    InvertedIndex<T> getIndex() {
+        return invertedIndex;
     }
 
 }
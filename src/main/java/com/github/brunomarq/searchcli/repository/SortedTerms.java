@@ -0,0 +1,92 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/*
+* Values of a field in lexicographic order, so the values starting with a prefix are a contiguous
+* range found by binary search rather than by going through every value.
+*/
+final class SortedTerms {
+
+    private final String[] terms;
+
+    private SortedTerms(String[] terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * @param terms values of a field, without repetition.
+     * @return SortedTerms the values in lexicographic order.
+     */
+    static SortedTerms of(Collection<String> terms) {
+        String[] sorted = terms.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return new SortedTerms(sorted);
+    }
+
+    /**
+     * @param prefix prefix of the values looked for, empty for all of them.
+     * @return int position of the first value starting with the prefix, or of the
+     *         first one after it if there is none.
+     */
+    int firstWithPrefix(String prefix) {
+        return firstNotBelow(prefix);
+    }
+
+    /**
+     * @param prefix prefix of the values looked for, empty for all of them.
+     * @return int position after the last value starting with the prefix.
+     */
+    int endOfPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return terms.length;
+        }
+        int start = firstNotBelow(prefix);
+        int low = start;
+        int high = terms.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (terms[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param i position in the dictionary.
+     * @return String value at the position.
+     */
+    String get(int i) {
+        return terms[i];
+    }
+
+    /**
+     * @return the number of values
+     */
+    int size() {
+        return terms.length;
+    }
+
+    /**
+     * @param value value looked for.
+     * @return int position of the first value not lower than the one looked for.
+     */
+    private int firstNotBelow(String value) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (terms[middle].compareTo(value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/*
+* Length and CRC32C checksum of a json file, used to tell whether a snapshot was built from the
+* current content of the file.
+*/
+final class SourceFingerprint {
+
+    // Size of each mapping of the file while computing the checksum
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final long length;
+
+    private final long checksum;
+
+    SourceFingerprint(long length, long checksum) {
+        this.length = length;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Computes the fingerprint of a file, looking for it under resources first and
+     * then on the filesystem.
+     *
+     * @param filePath    path of the json file.
+     * @param classLoader class loader used to look for resources.
+     * @return SourceFingerprint fingerprint of the current content of the file.
+     * @throws IOException if the file cannot be found or read.
+     */
+    static SourceFingerprint of(String filePath, ClassLoader classLoader) throws IOException {
+        InputStream resourceStream = classLoader.getResourceAsStream(filePath);
+        if (resourceStream != null) {
+            try (FingerprintInputStream in = new FingerprintInputStream(resourceStream)) {
+                return in.drain();
+            }
+        }
+        return of(new File(filePath));
+    }
+
+    /**
+     * Computes the fingerprint of a file on the filesystem through memory mapping.
+     *
+     * @param file json file.
+     * @return SourceFingerprint fingerprint of the current content of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    static SourceFingerprint of(File file) throws IOException {
+        if (!file.isFile()) {
+            // Let FileInputStream report the missing file as the loaders do
+            new FileInputStream(file).close();
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            CRC32C crc = new CRC32C();
+            for (long position = 0; position < size; position += WINDOW_SIZE) {
+                crc.update(channel.map(MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position)));
+            }
+            return new SourceFingerprint(size, crc.getValue());
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the first bytes of a file, provided they start
+     * with the exact content a previous fingerprint was computed from, that is
+     * the file has only been appended to since.
+     *
+     * @param channel  channel of the file.
+     * @param size     number of bytes to be fingerprinted.
+     * @param previous fingerprint of an earlier content of the file.
+     * @return SourceFingerprint fingerprint of the first size bytes, or null if
+     *         the file does not start with the previous content.
+     * @throws IOException if the file cannot be read.
+     */
+    static SourceFingerprint ofAppended(FileChannel channel, long size, SourceFingerprint previous)
+            throws IOException {
+        if (size < previous.length) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        for (long position = 0; position < previous.length; position += WINDOW_SIZE) {
+            crc.update(channel.map(MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, previous.length - position)));
+        }
+        if (crc.getValue() != previous.checksum) {
+            return null;
+        }
+        for (long position = previous.length; position < size; position += WINDOW_SIZE) {
+            crc.update(channel.map(MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position)));
+        }
+        return new SourceFingerprint(size, crc.getValue());
+    }
+
+    /**
+     * @return the length of the file in bytes
+     */
+    long getLength() {
+        return length;
+    }
+
+    /**
+     * @return the CRC32C checksum of the file
+     */
+    long getChecksum() {
+        return checksum;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(length) * 31 + Long.hashCode(checksum);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof SourceFingerprint))
+            return false;
+        SourceFingerprint other = (SourceFingerprint) obj;
+        return length == other.length && checksum == other.checksum;
+    }
+
+    /*
+    * Stream that computes the fingerprint of everything read through it, so the json file does not
+    * have to be read twice while loading.
+    */
+    static final class FingerprintInputStream extends FilterInputStream {
+
+        private final CRC32C crc = new CRC32C();
+
+        private long length;
+
+        FingerprintInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                crc.update(b);
+                length++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                crc.update(b, off, read);
+                length += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes must be part of the checksum too
+            byte[] buffer = new byte[8192];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        /**
+         * Reads whatever the parser left unread and returns the fingerprint.
+         *
+         * @return SourceFingerprint fingerprint of the whole stream.
+         * @throws IOException if the stream cannot be read.
+         */
+        SourceFingerprint drain() throws IOException {
+            byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // Keep reading until the end of the stream
+            }
+            return new SourceFingerprint(length, crc.getValue());
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.Arrays;
+
+/*
+* Dictionary of the distinct string values of an index, each one kept once and given an int code,
+* its position in the dictionary. Values such as statuses, locales or tags repeat across most
+* records, so records and posting maps refer to the single instance kept here instead of holding
+* a copy each.
+*
+* Codes are found through an open addressing table of ints, so the dictionary holds no boxed
+* integers nor map entries. It only grows, and a published index never changes its dictionary.
+*/
+final class TermDictionary {
+
+    private static final int FREE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] terms;
+
+    private int size;
+
+    // Codes of the terms at the position of their hash, FREE where there is none.
+    // Its length is a power of two, at least twice the number of terms.
+    private int[] table;
+
+    TermDictionary() {
+        this.terms = new String[INITIAL_CAPACITY];
+        this.table = newTable(INITIAL_CAPACITY * 2);
+    }
+
+    /**
+     * @param terms distinct values, each one at the position of its code.
+     * @return TermDictionary dictionary of the values.
+     * @throws IllegalArgumentException if a value is repeated.
+     */
+    static TermDictionary of(String[] terms) {
+        TermDictionary dictionary = new TermDictionary();
+        dictionary.terms = terms;
+        dictionary.table = newTable(tableLengthFor(terms.length));
+        for (int code = 0; code < terms.length; code++) {
+            int slot = dictionary.slotOf(terms[code]);
+            if (dictionary.table[slot] != FREE) {
+                throw new IllegalArgumentException("Repeated value in dictionary " + terms[code]);
+            }
+            dictionary.table[slot] = code;
+        }
+        dictionary.size = terms.length;
+        return dictionary;
+    }
+
+    /**
+     * Adds a value unless it is already in the dictionary.
+     *
+     * @param term value to be added.
+     * @return int code of the value.
+     */
+    int intern(String term) {
+        int slot = slotOf(term);
+        if (table[slot] != FREE) {
+            return table[slot];
+        }
+        if (size == terms.length) {
+            terms = Arrays.copyOf(terms, size + (size >> 1) + 1);
+        }
+        int code = size++;
+        terms[code] = term;
+        table[slot] = code;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return code;
+    }
+
+    /**
+     * @param term value to be added.
+     * @return String the instance of the value kept in the dictionary.
+     */
+    String canonical(String term) {
+        // The array is read after intern, which may replace it
+        int code = intern(term);
+        return terms[code];
+    }
+
+    /**
+     * @param term value looked for.
+     * @return int code of the value, or -1 if it is not in the dictionary.
+     */
+    int find(String term) {
+        return table[slotOf(term)];
+    }
+
+    /**
+     * @param code code of a value.
+     * @return String the value.
+     */
+    String get(int code) {
+        return terms[code];
+    }
+
+    /**
+     * @return the number of values
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return TermDictionary copy of this dictionary that can grow without
+     *         changing this one.
+     */
+    TermDictionary copy() {
+        TermDictionary copy = new TermDictionary();
+        copy.terms = Arrays.copyOf(terms, Math.max(size, INITIAL_CAPACITY));
+        copy.table = table.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Releases the capacity reserved for values that were never added.
+     */
+    void trim() {
+        if (terms.length != size) {
+            terms = Arrays.copyOf(terms, size);
+        }
+    }
+
+    /**
+     * @param term value looked for.
+     * @return int slot of the table holding the code of the value, or the free
+     *         slot it would take.
+     */
+    private int slotOf(String term) {
+        int mask = table.length - 1;
+        int slot = spread(term.hashCode()) & mask;
+        while (table[slot] != FREE && !terms[table[slot]].equals(term)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int length) {
+        table = newTable(length);
+        int mask = length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = spread(terms[code].hashCode()) & mask;
+            while (table[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = code;
+        }
+    }
+
+    private static int[] newTable(int length) {
+        int[] table = new int[length];
+        Arrays.fill(table, FREE);
+        return table;
+    }
+
+    private static int tableLengthFor(int size) {
+        return Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, size)) << 2);
+    }
+
+    // Mixes all the bits of the hash into the low ones used by the mask
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+* Splits free text into terms: runs of letters and digits, lowercased and reduced to their singular
+* form by the S-stemmer, so "Tickets" and "ticket" are the same term. The same analysis is applied
+* to the indexed text and to the queries.
+*/
+final class TextAnalyzer {
+
+    // Words this short are never stemmed, so "is" and "gas" are left alone
+    private static final int MIN_STEMMED_LENGTH = 4;
+
+    /*
+    * Receives every term of a text along with its position, counted in terms from 0.
+    */
+    @FunctionalInterface
+    interface TermVisitor {
+        void visit(String term, int position);
+    }
+
+    private TextAnalyzer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param text    text to be analyzed, may be null.
+     * @param visitor visitor receiving every term of the text in order.
+     * @return int number of terms in the text.
+     */
+    static int analyze(String text, TermVisitor visitor) {
+        if (text == null) {
+            return 0;
+        }
+        int position = 0;
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (term.length() > 0) {
+                visitor.visit(stem(term), position++);
+                term.setLength(0);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @param text text to be analyzed, may be null.
+     * @return List<String> terms of the text in order.
+     */
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        analyze(text, (term, position) -> terms.add(term));
+        return terms;
+    }
+
+    /**
+     * Harman's S-stemmer: only plurals are removed, which is enough to match most
+     * variants while never merging unrelated words.
+     *
+     * @param word lowercased word.
+     * @return String singular form of the word.
+     */
+    private static String stem(CharSequence word) {
+        int length = word.length();
+        String value = word.toString();
+        if (length < MIN_STEMMED_LENGTH || word.charAt(length - 1) != 's') {
+            return value;
+        }
+        if (value.endsWith("ies") && !value.endsWith("eies") && !value.endsWith("aies")) {
+            return value.substring(0, length - 3) + "y";
+        }
+        if (value.endsWith("es") && !value.endsWith("aes") && !value.endsWith("ees") && !value.endsWith("oes")) {
+            return value.substring(0, length - 1);
+        }
+        if (!value.endsWith("us") && !value.endsWith("ss")) {
+            return value.substring(0, length - 1);
+        }
+        return value;
+    }
+
+}
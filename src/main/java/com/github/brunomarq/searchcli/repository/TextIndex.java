@@ -0,0 +1,191 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/*
+* Full-text index of a free text field: the positional postings of every term of the field and the
+* number of terms in the field of every record, as needed to rank the records with BM25.
+*/
+final class TextIndex {
+
+    // Key: the term
+    // Value: Records holding the term and its positions in them
+    private final Map<String, TextPostings> terms;
+
+    // Number of terms in the field of each record, indexed by document id
+    private int[] lengths;
+
+    private int lengthCount;
+
+    // Number of records with at least one term in the field
+    private int docCount;
+
+    // Number of terms in the field of all the records
+    private long totalLength;
+
+    TextIndex() {
+        this(new HashMap<>(), new int[16], 0);
+    }
+
+    private TextIndex(Map<String, TextPostings> terms, int[] lengths, int lengthCount) {
+        this.terms = terms;
+        this.lengths = lengths;
+        this.lengthCount = lengthCount;
+        for (int i = 0; i < lengthCount; i++) {
+            if (lengths[i] > 0) {
+                docCount++;
+                totalLength += lengths[i];
+            }
+        }
+    }
+
+    /**
+     * @param terms   positional postings of every term, kept as they are.
+     * @param lengths number of terms in the field of each record, kept as they
+     *                are.
+     * @return TextIndex full-text index of the field.
+     */
+    static TextIndex of(Map<String, TextPostings> terms, int[] lengths) {
+        return new TextIndex(terms, lengths, lengths.length);
+    }
+
+    /**
+     * Indexes the text of a record. Records must be added in document order.
+     *
+     * @param doc  document id of the record.
+     * @param text text of the field in the record, may be null.
+     */
+    void add(int doc, String text) {
+        int length = TextAnalyzer.analyze(text,
+                (term, position) -> terms.computeIfAbsent(term, k -> new TextPostings()).add(doc, position));
+        setLength(doc, length);
+    }
+
+    /**
+     * Adds all the records of another full-text index, after the records of this
+     * one. The other index must not be used afterwards as its postings may be
+     * shared.
+     *
+     * @param other  full-text index to be merged.
+     * @param offset offset added to every document id of the other index.
+     */
+    void merge(TextIndex other, int offset) {
+        for (Entry<String, TextPostings> term : other.terms.entrySet()) {
+            TextPostings existing = terms.get(term.getKey());
+            if (existing != null) {
+                existing.addAll(term.getValue(), offset);
+            } else if (offset == 0) {
+                terms.put(term.getKey(), term.getValue());
+            } else {
+                TextPostings postings = new TextPostings();
+                postings.addAll(term.getValue(), offset);
+                terms.put(term.getKey(), postings);
+            }
+        }
+        for (int i = 0; i < other.lengthCount; i++) {
+            setLength(i + offset, other.lengths[i]);
+        }
+    }
+
+    /**
+     * Creates a new full-text index with the records of this one followed by the
+     * records of another one, leaving this one untouched. Only the postings of the
+     * terms found in the other index are copied.
+     *
+     * @param other  full-text index of the records to be appended.
+     * @param offset offset added to every document id of the other index.
+     * @return TextIndex full-text index of the records of both.
+     */
+    TextIndex append(TextIndex other, int offset) {
+        TextIndex index = new TextIndex(new HashMap<>(terms), Arrays.copyOf(lengths, lengthCount), lengthCount);
+        for (Entry<String, TextPostings> term : other.terms.entrySet()) {
+            TextPostings existing = index.terms.get(term.getKey());
+            TextPostings postings = existing == null ? new TextPostings() : existing.copy();
+            postings.addAll(term.getValue(), offset);
+            postings.trim();
+            index.terms.put(term.getKey(), postings);
+        }
+        for (int i = 0; i < other.lengthCount; i++) {
+            index.setLength(i + offset, other.lengths[i]);
+        }
+        index.trim();
+        return index;
+    }
+
+    /**
+     * Releases the capacity reserved for growth once all the records are loaded.
+     */
+    void trim() {
+        for (TextPostings postings : terms.values()) {
+            postings.trim();
+        }
+        if (lengths.length != lengthCount) {
+            lengths = Arrays.copyOf(lengths, lengthCount);
+        }
+    }
+
+    /**
+     * @param term analyzed term.
+     * @return TextPostings postings of the term, or null if no record holds it.
+     */
+    TextPostings getPostings(String term) {
+        return terms.get(term);
+    }
+
+    /**
+     * @return the positional postings of every term, for snapshots
+     */
+    Map<String, TextPostings> getTerms() {
+        return terms;
+    }
+
+    /**
+     * @param doc document id of the record.
+     * @return int number of terms in the field of the record.
+     */
+    int getLength(int doc) {
+        return doc < lengthCount ? lengths[doc] : 0;
+    }
+
+    /**
+     * @return the number of records the lengths are known for, the others have
+     *         none
+     */
+    int getLengthCount() {
+        return lengthCount;
+    }
+
+    /**
+     * @return the number of records with at least one term in the field
+     */
+    int getDocCount() {
+        return docCount;
+    }
+
+    /**
+     * @return the average number of terms in the field of the records holding it
+     */
+    double getAverageLength() {
+        return docCount == 0 ? 0 : (double) totalLength / docCount;
+    }
+
+    /**
+     * @param doc    document id of the record, not lower than the ones set so far.
+     * @param length number of terms in the field of the record.
+     */
+    private void setLength(int doc, int length) {
+        if (doc >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(doc + 1, lengths.length + (lengths.length >> 1)));
+        }
+        lengths[doc] = length;
+        lengthCount = Math.max(lengthCount, doc + 1);
+        if (length > 0) {
+            docCount++;
+            totalLength += length;
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.Arrays;
+
+/*
+* Positional postings of a term: the sorted document ids of the records whose text holds the term
+* and, for each of them, the positions of the term in the text. The positions of all the records
+* are kept in a single array, each record pointing at the start of its own.
+*/
+final class TextPostings {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private int[] docs;
+
+    // Start of the positions of each record, in document order
+    private int[] starts;
+
+    private int size;
+
+    private int[] positions;
+
+    private int positionCount;
+
+    TextPostings() {
+        this(new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], 0, new int[INITIAL_CAPACITY], 0);
+    }
+
+    private TextPostings(int[] docs, int[] starts, int size, int[] positions, int positionCount) {
+        this.docs = docs;
+        this.starts = starts;
+        this.size = size;
+        this.positions = positions;
+        this.positionCount = positionCount;
+    }
+
+    /**
+     * @param docs      sorted document ids, kept as they are.
+     * @param starts    start of the positions of each record, kept as they are.
+     * @param positions positions of every record, kept as they are.
+     * @return TextPostings postings of the term.
+     */
+    static TextPostings of(int[] docs, int[] starts, int[] positions) {
+        return new TextPostings(docs, starts, docs.length, positions, positions.length);
+    }
+
+    /**
+     * Adds an occurrence of the term. Records must be added in document order and
+     * the positions of a record in increasing order.
+     *
+     * @param doc      document id of the record.
+     * @param position position of the term in the text of the record.
+     */
+    void add(int doc, int position) {
+        if (size == 0 || docs[size - 1] != doc) {
+            if (size == docs.length) {
+                int capacity = size + (size >> 1) + 1;
+                docs = Arrays.copyOf(docs, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+            }
+            docs[size] = doc;
+            starts[size++] = positionCount;
+        }
+        if (positionCount == positions.length) {
+            positions = Arrays.copyOf(positions, positionCount + (positionCount >> 1) + 1);
+        }
+        positions[positionCount++] = position;
+    }
+
+    /**
+     * Appends all the occurrences of another postings list, with document ids
+     * shifted by an offset larger than the last id of this list.
+     *
+     * @param other  postings to be appended.
+     * @param offset offset added to every document id of the other list.
+     */
+    void addAll(TextPostings other, int offset) {
+        if (size + other.size > docs.length) {
+            int capacity = Math.max(size + other.size, size + (size >> 1) + 1);
+            docs = Arrays.copyOf(docs, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+        }
+        if (positionCount + other.positionCount > positions.length) {
+            positions = Arrays.copyOf(positions,
+                    Math.max(positionCount + other.positionCount, positionCount + (positionCount >> 1) + 1));
+        }
+        for (int i = 0; i < other.size; i++) {
+            docs[size] = other.docs[i] + offset;
+            starts[size++] = other.starts[i] + positionCount;
+        }
+        System.arraycopy(other.positions, 0, positions, positionCount, other.positionCount);
+        positionCount += other.positionCount;
+    }
+
+    /**
+     * @return TextPostings copy of this list that can grow without changing this
+     *         one.
+     */
+    TextPostings copy() {
+        return new TextPostings(Arrays.copyOf(docs, size), Arrays.copyOf(starts, size), size,
+                Arrays.copyOf(positions, positionCount), positionCount);
+    }
+
+    /**
+     * Releases the capacity reserved for occurrences that were never added.
+     */
+    void trim() {
+        if (docs.length != size) {
+            docs = Arrays.copyOf(docs, size);
+            starts = Arrays.copyOf(starts, size);
+        }
+        if (positions.length != positionCount) {
+            positions = Arrays.copyOf(positions, positionCount);
+        }
+    }
+
+    /**
+     * @return the number of records holding the term
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param i position in the list.
+     * @return int document id at the position.
+     */
+    int getDoc(int i) {
+        return docs[i];
+    }
+
+    /**
+     * @param i position in the list.
+     * @return int number of occurrences of the term in the record at the position.
+     */
+    int getFrequency(int i) {
+        return (i + 1 < size ? starts[i + 1] : positionCount) - starts[i];
+    }
+
+    /**
+     * @param i position in the list.
+     * @param j occurrence of the term in the record, from 0 to its frequency.
+     * @return int position of the occurrence in the text of the record.
+     */
+    int getPosition(int i, int j) {
+        return positions[starts[i] + j];
+    }
+
+}
@@ -9,4 +9,9 @@ import org.springframework.stereotype.Repository;
 */
 @Repository
 public class TicketSearchRepository extends SearchRepository<Ticket> {
+
+    public TicketSearchRepository() {
+        super(Ticket::new);
+    }
+
 }
@@ -0,0 +1,232 @@
+package com.github.brunomarq.searchcli.repository;
+
+import java.util.Arrays;
+
+/*
+* Timestamps of a field in epoch milliseconds, sorted along with the document ids of their records,
+* so the records in a range of time are found by binary search. Records without a valid timestamp
+* are left out. Values are added in document order while the records are loaded and sorted once
+* all of them are in.
+*/
+final class TimestampColumn {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] values;
+
+    private int[] docs;
+
+    private int size;
+
+    // Whether the values were added in order, so sorting can be skipped
+    private boolean sorted = true;
+
+    TimestampColumn() {
+        this(new long[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], 0);
+    }
+
+    private TimestampColumn(long[] values, int[] docs, int size) {
+        this.values = values;
+        this.docs = docs;
+        this.size = size;
+    }
+
+    /**
+     * @param values timestamps sorted in ascending order, kept as they are.
+     * @param docs   document ids of the records of each timestamp, kept as they
+     *               are.
+     * @return TimestampColumn sorted column of the timestamps.
+     */
+    static TimestampColumn of(long[] values, int[] docs) {
+        return new TimestampColumn(values, docs, values.length);
+    }
+
+    /**
+     * Adds the timestamp of a record.
+     *
+     * @param value timestamp in epoch milliseconds.
+     * @param doc   document id of the record.
+     */
+    void add(long value, int doc) {
+        if (size == values.length) {
+            grow(size + 1);
+        }
+        if (size > 0 && values[size - 1] > value) {
+            sorted = false;
+        }
+        values[size] = value;
+        docs[size++] = doc;
+    }
+
+    /**
+     * Adds all the timestamps of another column, with their document ids shifted
+     * by an offset.
+     *
+     * @param other  column to be added.
+     * @param offset offset added to every document id of the other column.
+     */
+    void addAll(TimestampColumn other, int offset) {
+        if (size + other.size > values.length) {
+            grow(size + other.size);
+        }
+        for (int i = 0; i < other.size; i++) {
+            add(other.values[i], other.docs[i] + offset);
+        }
+    }
+
+    /**
+     * Sorts the timestamps, keeping the records of equal timestamps in document
+     * order.
+     */
+    void sort() {
+        if (sorted) {
+            return;
+        }
+        long[] sourceValues = values;
+        int[] sourceDocs = docs;
+        long[] targetValues = new long[values.length];
+        int[] targetDocs = new int[docs.length];
+        // Bottom-up merge sort, stable so equal timestamps stay in document order
+        for (int width = 1; width < size; width *= 2) {
+            for (int start = 0; start < size; start += 2 * width) {
+                int middle = Math.min(start + width, size);
+                int end = Math.min(start + 2 * width, size);
+                merge(sourceValues, sourceDocs, start, middle, sourceValues, sourceDocs, middle, end, 0,
+                        targetValues, targetDocs, start);
+            }
+            long[] swapValues = sourceValues;
+            sourceValues = targetValues;
+            targetValues = swapValues;
+            int[] swapDocs = sourceDocs;
+            sourceDocs = targetDocs;
+            targetDocs = swapDocs;
+        }
+        values = sourceValues;
+        docs = sourceDocs;
+        sorted = true;
+    }
+
+    /**
+     * Creates a new sorted column with the timestamps of this one followed by the
+     * ones of another column, leaving both untouched. Both must be sorted.
+     *
+     * @param other  column to be appended.
+     * @param offset offset added to every document id of the other column.
+     * @return TimestampColumn sorted column with the timestamps of both.
+     */
+    TimestampColumn append(TimestampColumn other, int offset) {
+        int total = size + other.size;
+        TimestampColumn column = new TimestampColumn(new long[total], new int[total], total);
+        merge(values, docs, 0, size, other.values, other.docs, 0, other.size, offset, column.values, column.docs,
+                0);
+        return column;
+    }
+
+    /**
+     * Releases the capacity reserved for growth.
+     */
+    void trim() {
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+            docs = Arrays.copyOf(docs, size);
+        }
+    }
+
+    /**
+     * Looks for the records whose timestamp is within a range. The column must be
+     * sorted.
+     *
+     * @param from lowest timestamp in epoch milliseconds, inclusive.
+     * @param to   highest timestamp in epoch milliseconds, inclusive.
+     * @return PostingList document ids of the records in the range, in document
+     *         order.
+     */
+    PostingList range(long from, long to) {
+        if (from > to) {
+            return PostingList.of(new int[0]);
+        }
+        int start = firstAtLeast(from);
+        int end = to == Long.MAX_VALUE ? size : firstAtLeast(to + 1);
+        int[] result = Arrays.copyOfRange(docs, start, end);
+        Arrays.sort(result);
+        return PostingList.of(result);
+    }
+
+    /**
+     * @return the number of timestamps
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param i position in the column.
+     * @return long timestamp at the position.
+     */
+    long getValue(int i) {
+        return values[i];
+    }
+
+    /**
+     * @param i position in the column.
+     * @return int document id of the timestamp at the position.
+     */
+    int getDoc(int i) {
+        return docs[i];
+    }
+
+    /**
+     * @param value timestamp looked for.
+     * @return int position of the first timestamp not lower than the value, or the
+     *         size if there is none.
+     */
+    private int firstAtLeast(long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, size + (size >> 1) + 1);
+        values = Arrays.copyOf(values, capacity);
+        docs = Arrays.copyOf(docs, capacity);
+    }
+
+    /**
+     * Merges two sorted runs, the second one with its document ids shifted by an
+     * offset, taking from the first one on equal timestamps.
+     */
+    private static void merge(long[] leftValues, int[] leftDocs, int leftStart, int leftEnd, long[] rightValues,
+            int[] rightDocs, int rightStart, int rightEnd, int rightOffset, long[] targetValues, int[] targetDocs,
+            int targetStart) {
+        int left = leftStart;
+        int right = rightStart;
+        int target = targetStart;
+        while (left < leftEnd && right < rightEnd) {
+            if (rightValues[right] < leftValues[left]) {
+                targetValues[target] = rightValues[right];
+                targetDocs[target++] = rightDocs[right++] + rightOffset;
+            } else {
+                targetValues[target] = leftValues[left];
+                targetDocs[target++] = leftDocs[left++];
+            }
+        }
+        while (left < leftEnd) {
+            targetValues[target] = leftValues[left];
+            targetDocs[target++] = leftDocs[left++];
+        }
+        while (right < rightEnd) {
+            targetValues[target] = rightValues[right];
+            targetDocs[target++] = rightDocs[right++] + rightOffset;
+        }
+    }
+
+}
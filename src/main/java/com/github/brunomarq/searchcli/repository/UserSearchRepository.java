@@ -9,4 +9,9 @@ import org.springframework.stereotype.Repository;
 */
 @Repository
 public class UserSearchRepository extends SearchRepository<User> {
+
+    public UserSearchRepository() {
+        super(User::new);
+    }
+
 }
@@ -0,0 +1,132 @@
+package com.github.brunomarq.searchcli.repository;
+
+/*
+* Value of a search with wildcards: * stands for any sequence of characters, ? for any single one.
+* A backslash makes the next character literal, so \* looks for an actual asterisk. The characters
+* before the first wildcard make up the prefix every matching value starts with.
+*/
+final class WildcardPattern {
+
+    private static final int ANY_SEQUENCE = -1;
+    private static final int ANY_CHARACTER = -2;
+
+    private static final char ESCAPE = '\\';
+
+    // Literal characters, or one of the wildcards
+    private final int[] symbols;
+
+    private final String prefix;
+
+    private WildcardPattern(int[] symbols, String prefix) {
+        this.symbols = symbols;
+        this.prefix = prefix;
+    }
+
+    /**
+     * @param value value of a search.
+     * @return boolean true if the value holds a wildcard that is not escaped.
+     */
+    static boolean isPattern(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ESCAPE) {
+                i++;
+            } else if (c == '*' || c == '?') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param value value of a search without wildcards, possibly holding escaped
+     *              characters.
+     * @return String the value with every escaped character as it is, such as
+     *         Star*Corp for Star\*Corp.
+     */
+    static String unescape(String value) {
+        if (value.indexOf(ESCAPE) < 0) {
+            return value;
+        }
+        StringBuilder literal = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ESCAPE && i + 1 < value.length()) {
+                c = value.charAt(++i);
+            }
+            literal.append(c);
+        }
+        return literal.toString();
+    }
+
+    /**
+     * @param value value of a search holding wildcards.
+     * @return WildcardPattern the compiled pattern.
+     */
+    static WildcardPattern compile(String value) {
+        int[] symbols = new int[value.length()];
+        int size = 0;
+        StringBuilder prefix = new StringBuilder();
+        boolean inPrefix = true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ESCAPE && i + 1 < value.length()) {
+                c = value.charAt(++i);
+            } else if (c == '*' || c == '?') {
+                // Consecutive * are the same as a single one
+                if (c == '?' || size == 0 || symbols[size - 1] != ANY_SEQUENCE) {
+                    symbols[size++] = c == '*' ? ANY_SEQUENCE : ANY_CHARACTER;
+                }
+                inPrefix = false;
+                continue;
+            }
+            symbols[size++] = c;
+            if (inPrefix) {
+                prefix.append(c);
+            }
+        }
+        int[] trimmed = new int[size];
+        System.arraycopy(symbols, 0, trimmed, 0, size);
+        return new WildcardPattern(trimmed, prefix.toString());
+    }
+
+    /**
+     * @return the literal characters every matching value starts with
+     */
+    String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Matches the whole value against the pattern, going back to the last * on a
+     * mismatch, which takes linear time for patterns with a single *.
+     *
+     * @param value value to be matched.
+     * @return boolean true if the whole value matches the pattern.
+     */
+    boolean matches(String value) {
+        int v = 0;
+        int p = 0;
+        int starP = -1;
+        int starV = 0;
+        while (v < value.length()) {
+            if (p < symbols.length && (symbols[p] == ANY_CHARACTER || symbols[p] == value.charAt(v))) {
+                v++;
+                p++;
+            } else if (p < symbols.length && symbols[p] == ANY_SEQUENCE) {
+                starP = p++;
+                starV = v;
+            } else if (starP >= 0) {
+                p = starP + 1;
+                v = ++starV;
+            } else {
+                return false;
+            }
+        }
+        while (p < symbols.length && symbols[p] == ANY_SEQUENCE) {
+            p++;
+        }
+        return p == symbols.length;
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.github.brunomarq.searchcli.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/*
+* Watches the directory the database was loaded from and reloads the json files that change in it,
+* one at a time, on a background thread.
+*/
+@Component
+public class DataDirectoryWatcher {
+
+    static final Logger log = LoggerFactory.getLogger(DataDirectoryWatcher.class);
+
+    static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+    @Autowired
+    private SearchService searchService;
+
+    // Time without new events after which the changed files are reloaded, so a
+    // file being written is reloaded once rather than on every write
+    private long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+
+    private WatchService watchService;
+
+    private Thread thread;
+
+    /**
+     * Starts watching a directory, replacing the directory watched so far if any.
+     *
+     * @param directoryPath path of the directory containing the json files.
+     * @throws IOException if the directory cannot be watched.
+     */
+    public synchronized void start(String directoryPath) throws IOException {
+        stop();
+        Path directory = Paths.get(directoryPath);
+        WatchService newWatchService = FileSystems.getDefault().newWatchService();
+        try {
+            // Files replaced through a rename show up as created
+            directory.register(newWatchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            newWatchService.close();
+            throw e;
+        }
+        watchService = newWatchService;
+        thread = new Thread(() -> watch(newWatchService, directoryPath), "data-directory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} for changes", directory.toAbsolutePath());
+    }
+
+    /**
+     * Stops watching the directory, if any.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Error while closing the directory watcher. Reason: {}", e.getMessage());
+        }
+        thread.interrupt();
+        watchService = null;
+        thread = null;
+        log.info("Stopped watching for changes");
+    }
+
+    /**
+     * @return boolean true if a directory is being watched.
+     */
+    public synchronized boolean isWatching() {
+        return watchService != null;
+    }
+
+    /**
+     * @param debounceMillis time in milliseconds without new events after which
+     *                       the changed files are reloaded.
+     */
+    @Value("${searchcli.watch.debounce-millis:" + DEFAULT_DEBOUNCE_MILLIS + "}")
+    public void setDebounceMillis(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Waits for changes until the watch service is closed, collecting the names of
+     * the files changed until the directory settles and then reloading them.
+     *
+     * @param watcher       watch service registered on the directory.
+     * @param directoryPath path of the directory containing the json files.
+     */
+    private void watch(WatchService watcher, String directoryPath) {
+        try {
+            while (true) {
+                Set<String> changedFiles = new LinkedHashSet<>();
+                WatchKey key = watcher.take();
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() != StandardWatchEventKinds.OVERFLOW) {
+                            changedFiles.add(event.context().toString());
+                        }
+                    }
+                    key.reset();
+                    key = watcher.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                for (String fileName : changedFiles) {
+                    reload(directoryPath, fileName);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Stopped
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reloads a changed file, keeping the current index if it cannot be loaded, as
+     * the file may still be being written and will be reloaded on the next change.
+     *
+     * @param directoryPath path of the directory containing the json files.
+     * @param fileName      name of the file that changed.
+     */
+    private void reload(String directoryPath, String fileName) {
+        try {
+            if (searchService.reloadFile(directoryPath, fileName)) {
+                log.info("Reloaded {} after it changed", fileName);
+            }
+        } catch (IOException e) {
+            log.error("Error while reloading {}. Reason: {}", fileName, e.getMessage());
+        }
+    }
+
+}
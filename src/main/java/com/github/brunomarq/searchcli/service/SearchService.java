@@ -2,17 +2,35 @@ package com.github.brunomarq.searchcli.service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
+import com.github.brunomarq.searchcli.domain.Entity;
 import com.github.brunomarq.searchcli.domain.Organization;
 import com.github.brunomarq.searchcli.domain.Ticket;
 import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.dto.GroupDTO;
 import com.github.brunomarq.searchcli.dto.OrganizationDTO;
+import com.github.brunomarq.searchcli.dto.PageDTO;
 import com.github.brunomarq.searchcli.dto.TicketDTO;
 import com.github.brunomarq.searchcli.dto.UserDTO;
 import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.exception.TooManyGroupsException;
+import com.github.brunomarq.searchcli.query.Query;
+import com.github.brunomarq.searchcli.repository.JoinIndex;
 import com.github.brunomarq.searchcli.repository.SearchRepository;
 import com.github.brunomarq.searchcli.utils.Constants;
 
@@ -20,11 +38,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StopWatch;
 
 @Service
 public class SearchService {
     static final Logger log = LoggerFactory.getLogger(SearchService.class);
 
+    // One thread per json file: organizations, tickets and users
+    private static final int POOL_SIZE = 3;
+
     @Autowired
     private SearchRepository<Organization> organizationRepository;
 
@@ -34,22 +56,270 @@ public class SearchService {
     @Autowired
     private SearchRepository<User> userRepository;
 
+    // Links between the records of the current indexes, rebuilt whenever one of
+    // them is loaded or reloaded
+    private volatile JoinIndex joinIndex = JoinIndex.empty();
+
     /**
      * Invoke the preparation of the inverted index searches.
      * 
+     * The organizations, tickets and users are loaded concurrently, so the total
+     * time is close to the time taken by the largest file. A repository with a
+     * valid snapshot of its json file is restored from it instead of parsing the
+     * file again.
+     * 
+     * Searches are served from the current indexes while they are reloaded. Loads
+     * and restores run one at a time, so two reloads never race to publish their
+     * indexes.
+     * 
      * @param directoryPath path of the directory containing the json files.
      * @throws IOException an exception is raised if the files cannot be found or
      *                     loaded.
      */
-    public void loadDatabase(String directoryPath) throws IOException {
+    public synchronized void loadDatabase(String directoryPath) throws IOException {
+        String path = toPath(directoryPath);
+        String organizationsFile = resolveFile(path, Constants.ORGANIZATIONS_FILENAME);
+        String ticketsFile = resolveFile(path, Constants.TICKETS_FILENAME);
+        String usersFile = resolveFile(path, Constants.USERS_FILENAME);
+
+        Map<String, Callable<Void>> loads = new LinkedHashMap<>();
+        loads.put(organizationsFile, () -> load(organizationRepository, organizationsFile, Organization.class));
+        loads.put(ticketsFile, () -> load(ticketRepository, ticketsFile, Ticket.class));
+        loads.put(usersFile, () -> load(userRepository, usersFile, User.class));
+        try {
+            runConcurrently("load", loads);
+        } finally {
+            rebuildJoinIndex();
+        }
+    }
+
+    /**
+     * Restores the inverted indexes from the snapshots of the json files only.
+     * 
+     * @param directoryPath path of the directory containing the json files.
+     * @throws IOException an exception is raised if any of the snapshots is
+     *                     missing, stale or cannot be read.
+     */
+    public synchronized void loadSnapshot(String directoryPath) throws IOException {
+        String path = toPath(directoryPath);
+        String organizationsFile = resolveFile(path, Constants.ORGANIZATIONS_FILENAME);
+        String ticketsFile = resolveFile(path, Constants.TICKETS_FILENAME);
+        String usersFile = resolveFile(path, Constants.USERS_FILENAME);
+
+        Map<String, Callable<Void>> loads = new LinkedHashMap<>();
+        loads.put(organizationsFile, () -> loadSnapshot(organizationRepository, organizationsFile, Organization.class));
+        loads.put(ticketsFile, () -> loadSnapshot(ticketRepository, ticketsFile, Ticket.class));
+        loads.put(usersFile, () -> loadSnapshot(userRepository, usersFile, User.class));
+        try {
+            runConcurrently("restore", loads);
+        } finally {
+            rebuildJoinIndex();
+        }
+    }
+
+    /**
+     * Brings the inverted index of a single json file up to date after it has
+     * changed, leaving the other two untouched. Appended json lines are indexed on
+     * their own, any other change reloads the whole file.
+     * 
+     * @param directoryPath path of the directory containing the json files.
+     * @param fileName      name of the file that changed in the directory.
+     * @return boolean true if the file is one of the json files in use and was
+     *         reloaded, false if it is not a json file of the database.
+     * @throws IOException an exception is raised if the file cannot be loaded.
+     */
+    public synchronized boolean reloadFile(String directoryPath, String fileName) throws IOException {
+        String path = toPath(directoryPath);
+        String filePath = path + fileName;
+        if (filePath.equals(resolveFile(path, Constants.ORGANIZATIONS_FILENAME))) {
+            organizationRepository.refreshDatabases(filePath, Organization.class);
+        } else if (filePath.equals(resolveFile(path, Constants.TICKETS_FILENAME))) {
+            ticketRepository.refreshDatabases(filePath, Ticket.class);
+        } else if (filePath.equals(resolveFile(path, Constants.USERS_FILENAME))) {
+            userRepository.refreshDatabases(filePath, User.class);
+        } else {
+            return false;
+        }
+        rebuildJoinIndex();
+        return true;
+    }
+
+    /**
+     * Links the records of the current indexes, so the records related to a search
+     * result are found by position rather than looked up. Results found through an
+     * index loaded after the links were built are looked up instead.
+     */
+    private void rebuildJoinIndex() {
+        StopWatch watch = new StopWatch();
+        watch.start();
+        joinIndex = JoinIndex.build(organizationRepository, userRepository, ticketRepository);
+        watch.stop();
+        log.info("Join index built in {} seconds", watch.getTotalTimeSeconds());
+    }
+
+    /**
+     * Writes a snapshot of every inverted index next to its json file.
+     * 
+     * @param directoryPath path of the directory containing the json files.
+     * @throws IOException an exception is raised if any of the snapshots cannot
+     *                     be written.
+     */
+    public void saveSnapshot(String directoryPath) throws IOException {
+        String path = toPath(directoryPath);
+        String organizationsFile = resolveFile(path, Constants.ORGANIZATIONS_FILENAME);
+        String ticketsFile = resolveFile(path, Constants.TICKETS_FILENAME);
+        String usersFile = resolveFile(path, Constants.USERS_FILENAME);
+
+        Map<String, Callable<Void>> saves = new LinkedHashMap<>();
+        saves.put(organizationsFile, () -> {
+            organizationRepository.saveSnapshot(organizationsFile, Organization.class);
+            return null;
+        });
+        saves.put(ticketsFile, () -> {
+            ticketRepository.saveSnapshot(ticketsFile, Ticket.class);
+            return null;
+        });
+        saves.put(usersFile, () -> {
+            userRepository.saveSnapshot(usersFile, User.class);
+            return null;
+        });
+        runConcurrently("save the snapshot of", saves);
+    }
+
+    /**
+     * @param directoryPath path of the directory containing the json files.
+     * @return String prefix to be prepended to the json file names.
+     */
+    private String toPath(String directoryPath) {
         String path = "";
         if (directoryPath != null && !directoryPath.isEmpty()) {
             path = directoryPath + File.separator;
         }
+        return path;
+    }
+
+    /**
+     * Looks for the json file under its default name and then with the other
+     * supported extensions, so json lines exports such as tickets.jsonl are picked
+     * up as well.
+     * 
+     * @param path     prefix of the directory containing the json files.
+     * @param fileName default name of the json file.
+     * @return String path of the first existing file, or the default one if none
+     *         exists on the filesystem.
+     */
+    private String resolveFile(String path, String fileName) {
+        String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+        for (String extension : Constants.DATA_FILE_EXTENSIONS) {
+            String candidate = path + baseName + extension;
+            if (new File(candidate).isFile()) {
+                return candidate;
+            }
+        }
+        return path + fileName;
+    }
 
-        organizationRepository.loadDatabases(path + Constants.ORGANIZATIONS_FILENAME, Organization.class);
-        ticketRepository.loadDatabases(path + Constants.TICKETS_FILENAME, Ticket.class);
-        userRepository.loadDatabases(path + Constants.USERS_FILENAME, User.class);
+    /**
+     * Restores the repository from the snapshot of the json file when it is
+     * valid, otherwise loads the json file itself.
+     * 
+     * @param repository repository to be loaded.
+     * @param filePath   path of the json file.
+     * @param typeClass  type of the entity.
+     * @return Void nothing, so it can be used as a Callable.
+     * @throws IOException if the json file cannot be loaded.
+     */
+    private <T extends Entity> Void load(SearchRepository<T> repository, String filePath, Class<T> typeClass)
+            throws IOException {
+        if (!repository.loadSnapshot(filePath, typeClass)) {
+            repository.loadDatabases(filePath, typeClass);
+        }
+        return null;
+    }
+
+    /**
+     * Restores the repository from the snapshot of the json file.
+     * 
+     * @param repository repository to be restored.
+     * @param filePath   path of the json file.
+     * @param typeClass  type of the entity.
+     * @return Void nothing, so it can be used as a Callable.
+     * @throws IOException if there is no valid snapshot.
+     */
+    private <T extends Entity> Void loadSnapshot(SearchRepository<T> repository, String filePath,
+            Class<T> typeClass) throws IOException {
+        if (!repository.loadSnapshot(filePath, typeClass)) {
+            throw new IOException("No valid snapshot found for " + filePath);
+        }
+        return null;
+    }
+
+    /**
+     * Runs one task per json file on a bounded pool and waits for all of them.
+     * Every task is given the chance to finish before a failure is reported, and
+     * the time taken by each task and in total is logged.
+     * 
+     * @param action name of the action used in the log messages.
+     * @param tasks  tasks keyed by the path of their json file.
+     * @throws IOException the first failure, with the others attached as
+     *                     suppressed exceptions.
+     */
+    private void runConcurrently(String action, Map<String, Callable<Void>> tasks) throws IOException {
+        StopWatch watch = new StopWatch();
+        watch.start();
+        ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
+        try {
+            Map<String, Future<Double>> results = new LinkedHashMap<>();
+            for (Entry<String, Callable<Void>> task : tasks.entrySet()) {
+                results.put(task.getKey(), executor.submit(() -> {
+                    StopWatch taskWatch = new StopWatch();
+                    taskWatch.start();
+                    task.getValue().call();
+                    taskWatch.stop();
+                    return taskWatch.getTotalTimeSeconds();
+                }));
+            }
+
+            IOException failure = null;
+            for (Entry<String, Future<Double>> result : results.entrySet()) {
+                try {
+                    log.info("Done with {} in {} seconds", result.getKey(), result.getValue().get());
+                } catch (ExecutionException e) {
+                    log.error("Failed to {} {}. Reason: {}", action, result.getKey(), e.getCause().getMessage());
+                    IOException cause = asIOException(result.getKey(), e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            watch.stop();
+
+            if (failure != null) {
+                throw failure;
+            }
+            log.info("All files done in {} seconds", watch.getTotalTimeSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing the json files");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Wraps the failure of a task as an IOException if it is not one already.
+     * 
+     * @param fileName name of the file the task was working on.
+     * @param cause    failure raised by the task.
+     * @return IOException exception to be reported to the caller.
+     */
+    private IOException asIOException(String fileName, Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        return new IOException("Unexpected error while processing " + fileName, cause);
     }
 
     /**
@@ -57,23 +327,139 @@ public class SearchService {
      * transfer object containing all the associated information from all the
      * entities involved.
      * 
+     * @param field  name of the field to be looked at.
+     * @param value  value to be searched for in the field.
+     * @param offset number of records skipped.
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @return PageDTO<UserDTO> page of the data transfer objects containing the
+     *         results and relations to other entities.
+     * @throws InvalidFieldNameException in case an invalid field name is provided.
+     */
+    public PageDTO<UserDTO> searchUsers(String field, String value, int offset, int limit)
+            throws InvalidFieldNameException {
+        log.info("Searching users with {} equals to '{}'", field, value);
+        return toPage(userRepository.findByFieldValue(field, value), offset, limit, this::toUserDTOs);
+    }
+
+    /**
+     * Fetches the users whose timestamp in a field is within a range and assemble
+     * the data transfer objects as for {@link #searchUsers(String, String, int, int)}.
+     * 
+     * @param field  name of the timestamp field to be looked at.
+     * @param from   lowest timestamp in epoch milliseconds, inclusive.
+     * @param to     highest timestamp in epoch milliseconds, inclusive.
+     * @param offset number of records skipped.
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @return PageDTO<UserDTO> page of the data transfer objects containing the
+     *         results and relations to other entities.
+     * @throws InvalidFieldNameException in case the field does not hold
+     *                                   timestamps.
+     */
+    public PageDTO<UserDTO> searchUsersByTimeRange(String field, long from, long to, int offset, int limit)
+            throws InvalidFieldNameException {
+        log.info("Searching users with {} between {} and {}", field, from, to);
+        return toPage(userRepository.findByTimeRange(field, from, to), offset, limit, this::toUserDTOs);
+    }
+
+    /**
+     * Fetches the users whose free text holds the words of a query, ranked by
+     * relevance, and assemble the data transfer objects as for
+     * {@link #searchUsers(String, String, int, int)}.
+     * 
+     * @param field free text field to be looked at, or empty for all of them.
+     * @param query words to be searched for.
+     * @param limit maximum number of users returned.
+     * @return List<UserDTO> list of data transfer objects containing the results,
+     *         the most relevant first, and relations to other entities.
+     * @throws InvalidFieldNameException in case the field does not hold free
+     *                                   text.
+     */
+    public List<UserDTO> textSearchUsers(String field, String query, int limit) throws InvalidFieldNameException {
+        log.info("Searching users with {} matching '{}'", field.isEmpty() ? "any text field" : field, query);
+        return toUserDTOs(userRepository.findByText(field, query, limit));
+    }
+
+    /**
+     * Fetches the users matching a query and assemble the data transfer objects as
+     * for {@link #searchUsers(String, String, int, int)}.
+     * 
+     * @param query  parsed query combining predicates on the fields of users.
+     * @param offset number of records skipped.
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @return PageDTO<UserDTO> page of the data transfer objects containing the
+     *         results and relations to other entities.
+     * @throws InvalidFieldNameException in case the query holds an invalid field.
+     */
+    public PageDTO<UserDTO> queryUsers(Query query, int offset, int limit) throws InvalidFieldNameException {
+        log.info("Querying users");
+        return toPage(userRepository.findByQuery(query), offset, limit, this::toUserDTOs);
+    }
+
+    /**
+     * Counts the users with a value in a field, as found by
+     * {@link #searchUsers(String, String, int, int)}, without building any of them.
+     * 
      * @param field name of the field to be looked at.
      * @param value value to be searched for in the field.
-     * @return List<UserDTO> list of data transfer objects containing the results
-     *         and relations to other entities.
+     * @return int number of users found.
      * @throws InvalidFieldNameException in case an invalid field name is provided.
      */
-    public List<UserDTO> searchUsers(String field, String value) throws InvalidFieldNameException {
-        List<UserDTO> userDTOs = new ArrayList<>();
+    public int countUsers(String field, String value) throws InvalidFieldNameException {
+        log.info("Counting users with {} equals to '{}'", field, value);
+        return userRepository.countByFieldValue(field, value);
+    }
 
-        log.info("Searching users with {} equals to '{}'", field, value);
-        Set<User> users = userRepository.findByFieldValue(field, value);
+    /**
+     * Counts the users matching a query, as found by
+     * {@link #queryUsers(Query, int, int)}, without building any of them.
+     * 
+     * @param query parsed query combining predicates on the fields of users.
+     * @return int number of users found.
+     * @throws InvalidFieldNameException in case the query holds an invalid field.
+     */
+    public int countUsersByQuery(Query query) throws InvalidFieldNameException {
+        log.info("Counting users matching a query");
+        return userRepository.countByQuery(query);
+    }
 
+    /**
+     * Counts the users grouped by the values of some fields, without building any
+     * of them.
+     * 
+     * @param fields fields the users are grouped by.
+     * @param query  parsed query the users counted must match, or null for all of
+     *               them.
+     * @return List<GroupDTO> groups of users found, the largest first.
+     * @throws InvalidFieldNameException in case a field or the query holds an
+     *                                   invalid field.
+     * @throws TooManyGroupsException    in case the fields hold too many
+     *                                   combinations of values to be counted.
+     */
+    public List<GroupDTO> aggregateUsers(List<String> fields, Query query)
+            throws InvalidFieldNameException, TooManyGroupsException {
+        log.info("Aggregating users by {}", fields);
+        return toGroupDTOs(userRepository.aggregate(fields, query));
+    }
+
+    /**
+     * @param users users found by a search.
+     * @return List<UserDTO> users with their organization and submitted tickets.
+     * @throws InvalidFieldNameException in case a join field is not indexed.
+     */
+    private List<UserDTO> toUserDTOs(Collection<User> users) throws InvalidFieldNameException {
+        JoinIndex joins = this.joinIndex;
+        List<Organization> organizations = joins.organizationsOfUsers(users);
+        List<List<Ticket>> submittedTickets = joins.ticketsSubmittedBy(users);
+        Map<Long, Organization> organizationsById = organizations != null ? null
+                : organizationRepository.findByIds(foreignKeys(users, List.of(User::getOrganizationId)));
+        List<UserDTO> userDTOs = new ArrayList<>();
         for (User user : users) {
+            int i = userDTOs.size();
             UserDTO userDTO = new UserDTO();
             userDTO.setUser(user);
 
-            Organization organization = organizationRepository.findById(user.getOrganizationId());
+            Organization organization = organizations != null ? organizations.get(i)
+                    : referenced(organizationsById, user.getOrganizationId());
             if (organization != null) {
                 log.debug("Fetching organization for user {}", user.getName());
                 userDTO.setOrganization(organization);
@@ -82,10 +468,8 @@ public class SearchService {
             }
 
             log.debug("Fetching tickets in which the user {} is a submitter", user.getName());
-            Set<Ticket> tickets = ticketRepository.findByFieldValue(Ticket.FIELD_SUBMITTER_ID, user.getId());
-            List<Ticket> ticketList = new ArrayList<>();
-            ticketList.addAll(tickets);
-            userDTO.setTickets(ticketList);
+            userDTO.setTickets(submittedTickets != null ? submittedTickets.get(i)
+                    : findAll(ticketRepository, Ticket.FIELD_SUBMITTER_ID, user.getId()));
 
             userDTOs.add(userDTO);
         }
@@ -97,33 +481,148 @@ public class SearchService {
      * data transfer object containing all the associated information from all the
      * entities involved.
      * 
+     * @param field  name of the field to be looked at.
+     * @param value  value to be searched for in the field.
+     * @param offset number of records skipped.
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @return PageDTO<OrganizationDTO> page of the data transfer objects containing the
+     *         results and relations to other entities.
+     * @throws InvalidFieldNameException in case an invalid field name is provided.
+     */
+    public PageDTO<OrganizationDTO> searchOrganizations(String field, String value, int offset, int limit)
+            throws InvalidFieldNameException {
+        log.info("Searching organizations with {} equals to '{}'", field, value);
+        return toPage(organizationRepository.findByFieldValue(field, value), offset, limit, this::toOrganizationDTOs);
+    }
+
+    /**
+     * Fetches the organizations whose timestamp in a field is within a range and
+     * assemble the data transfer objects as for
+     * {@link #searchOrganizations(String, String, int, int)}.
+     * 
+     * @param field  name of the timestamp field to be looked at.
+     * @param from   lowest timestamp in epoch milliseconds, inclusive.
+     * @param to     highest timestamp in epoch milliseconds, inclusive.
+     * @param offset number of records skipped.
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @return PageDTO<OrganizationDTO> page of the data transfer objects containing the
+     *         results and relations to other entities.
+     * @throws InvalidFieldNameException in case the field does not hold
+     *                                   timestamps.
+     */
+    public PageDTO<OrganizationDTO> searchOrganizationsByTimeRange(String field, long from, long to, int offset,
+            int limit) throws InvalidFieldNameException {
+        log.info("Searching organizations with {} between {} and {}", field, from, to);
+        return toPage(organizationRepository.findByTimeRange(field, from, to), offset, limit, this::toOrganizationDTOs);
+    }
+
+    /**
+     * Fetches the organizations whose free text holds the words of a query, ranked
+     * by relevance, and assemble the data transfer objects as for
+     * {@link #searchOrganizations(String, String, int, int)}.
+     * 
+     * @param field free text field to be looked at, or empty for all of them.
+     * @param query words to be searched for.
+     * @param limit maximum number of organizations returned.
+     * @return List<OrganizationDTO> list of data transfer objects containing the
+     *         results, the most relevant first, and relations to other entities.
+     * @throws InvalidFieldNameException in case the field does not hold free
+     *                                   text.
+     */
+    public List<OrganizationDTO> textSearchOrganizations(String field, String query, int limit)
+            throws InvalidFieldNameException {
+        log.info("Searching organizations with {} matching '{}'", field.isEmpty() ? "any text field" : field,
+                query);
+        return toOrganizationDTOs(organizationRepository.findByText(field, query, limit));
+    }
+
+    /**
+     * Fetches the organizations matching a query and assemble the data transfer
+     * objects as for {@link #searchOrganizations(String, String, int, int)}.
+     * 
+     * @param query  parsed query combining predicates on the fields of
+     *               organizations.
+     * @param offset number of records skipped.
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @return PageDTO<OrganizationDTO> page of the data transfer objects containing the
+     *         results and relations to other entities.
+     * @throws InvalidFieldNameException in case the query holds an invalid field.
+     */
+    public PageDTO<OrganizationDTO> queryOrganizations(Query query, int offset, int limit)
+            throws InvalidFieldNameException {
+        log.info("Querying organizations");
+        return toPage(organizationRepository.findByQuery(query), offset, limit, this::toOrganizationDTOs);
+    }
+
+    /**
+     * Counts the organizations with a value in a field, as found by
+     * {@link #searchOrganizations(String, String, int, int)}, without building any of them.
+     * 
      * @param field name of the field to be looked at.
      * @param value value to be searched for in the field.
-     * @return List<UserDTO> list of data transfer objects containing the results
-     *         and relations to other entities.
+     * @return int number of organizations found.
      * @throws InvalidFieldNameException in case an invalid field name is provided.
      */
-    public List<OrganizationDTO> searchOrganizations(String field, String value) throws InvalidFieldNameException {
-        List<OrganizationDTO> organizationDTOs = new ArrayList<>();
+    public int countOrganizations(String field, String value) throws InvalidFieldNameException {
+        log.info("Counting organizations with {} equals to '{}'", field, value);
+        return organizationRepository.countByFieldValue(field, value);
+    }
 
-        log.info("Searching organizations with {} equals to '{}'", field, value);
-        Set<Organization> organizations = organizationRepository.findByFieldValue(field, value);
+    /**
+     * Counts the organizations matching a query, as found by
+     * {@link #queryOrganizations(Query, int, int)}, without building any of them.
+     * 
+     * @param query parsed query combining predicates on the fields of organizations.
+     * @return int number of organizations found.
+     * @throws InvalidFieldNameException in case the query holds an invalid field.
+     */
+    public int countOrganizationsByQuery(Query query) throws InvalidFieldNameException {
+        log.info("Counting organizations matching a query");
+        return organizationRepository.countByQuery(query);
+    }
 
+    /**
+     * Counts the organizations grouped by the values of some fields, without building any
+     * of them.
+     * 
+     * @param fields fields the organizations are grouped by.
+     * @param query  parsed query the organizations counted must match, or null for all of
+     *               them.
+     * @return List<GroupDTO> groups of organizations found, the largest first.
+     * @throws InvalidFieldNameException in case a field or the query holds an
+     *                                   invalid field.
+     * @throws TooManyGroupsException    in case the fields hold too many
+     *                                   combinations of values to be counted.
+     */
+    public List<GroupDTO> aggregateOrganizations(List<String> fields, Query query)
+            throws InvalidFieldNameException, TooManyGroupsException {
+        log.info("Aggregating organizations by {}", fields);
+        return toGroupDTOs(organizationRepository.aggregate(fields, query));
+    }
+
+    /**
+     * @param organizations organizations found by a search.
+     * @return List<OrganizationDTO> organizations with their users and tickets.
+     * @throws InvalidFieldNameException in case a join field is not indexed.
+     */
+    private List<OrganizationDTO> toOrganizationDTOs(Collection<Organization> organizations)
+            throws InvalidFieldNameException {
+        JoinIndex joins = this.joinIndex;
+        List<List<User>> users = joins.usersOfOrganizations(organizations);
+        List<List<Ticket>> tickets = joins.ticketsOfOrganizations(organizations);
+        List<OrganizationDTO> organizationDTOs = new ArrayList<>();
         for (Organization organization : organizations) {
+            int i = organizationDTOs.size();
             OrganizationDTO organizationDTO = new OrganizationDTO();
             organizationDTO.setOrganization(organization);
 
             log.debug("Fetching users beloging to organization {}", organization.getName());
-            Set<User> users = userRepository.findByFieldValue(User.FIELD_ORGANIZATION_ID, organization.getId());
-            List<User> userList = new ArrayList<>();
-            userList.addAll(users);
-            organizationDTO.setUsers(userList);
+            organizationDTO.setUsers(users != null ? users.get(i)
+                    : findAll(userRepository, User.FIELD_ORGANIZATION_ID, organization.getId()));
 
             log.debug("Fetching tickets related to organization {}", organization.getName());
-            Set<Ticket> tickets = ticketRepository.findByFieldValue(Ticket.FIELD_ORGANIZATION_ID, organization.getId());
-            List<Ticket> ticketList = new ArrayList<>();
-            ticketList.addAll(tickets);
-            organizationDTO.setTickets(ticketList);
+            organizationDTO.setTickets(tickets != null ? tickets.get(i)
+                    : findAll(ticketRepository, Ticket.FIELD_ORGANIZATION_ID, organization.getId()));
 
             organizationDTOs.add(organizationDTO);
         }
@@ -135,23 +634,147 @@ public class SearchService {
      * transfer object containing all the associated information from all the
      * entities involved.
      * 
+     * @param field  name of the field to be looked at.
+     * @param value  value to be searched for in the field.
+     * @param offset number of records skipped.
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @return PageDTO<TicketDTO> page of the data transfer objects containing the
+     *         results and relations to other entities.
+     * @throws InvalidFieldNameException in case an invalid field name is provided.
+     */
+    public PageDTO<TicketDTO> searchTickets(String field, String value, int offset, int limit)
+            throws InvalidFieldNameException {
+        log.info("Searching tickets with {} equals to '{}'", field, value);
+        return toPage(ticketRepository.findByFieldValue(field, value), offset, limit, this::toTicketDTOs);
+    }
+
+    /**
+     * Fetches the tickets whose timestamp in a field is within a range and
+     * assemble the data transfer objects as for
+     * {@link #searchTickets(String, String, int, int)}.
+     * 
+     * @param field  name of the timestamp field to be looked at.
+     * @param from   lowest timestamp in epoch milliseconds, inclusive.
+     * @param to     highest timestamp in epoch milliseconds, inclusive.
+     * @param offset number of records skipped.
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @return PageDTO<TicketDTO> page of the data transfer objects containing the
+     *         results and relations to other entities.
+     * @throws InvalidFieldNameException in case the field does not hold
+     *                                   timestamps.
+     */
+    public PageDTO<TicketDTO> searchTicketsByTimeRange(String field, long from, long to, int offset, int limit)
+            throws InvalidFieldNameException {
+        log.info("Searching tickets with {} between {} and {}", field, from, to);
+        return toPage(ticketRepository.findByTimeRange(field, from, to), offset, limit, this::toTicketDTOs);
+    }
+
+    /**
+     * Fetches the tickets whose free text holds the words of a query, ranked by
+     * relevance, and assemble the data transfer objects as for
+     * {@link #searchTickets(String, String, int, int)}.
+     * 
+     * @param field free text field to be looked at, or empty for all of them.
+     * @param query words to be searched for.
+     * @param limit maximum number of tickets returned.
+     * @return List<TicketDTO> list of data transfer objects containing the
+     *         results, the most relevant first, and relations to other entities.
+     * @throws InvalidFieldNameException in case the field does not hold free
+     *                                   text.
+     */
+    public List<TicketDTO> textSearchTickets(String field, String query, int limit)
+            throws InvalidFieldNameException {
+        log.info("Searching tickets with {} matching '{}'", field.isEmpty() ? "any text field" : field, query);
+        return toTicketDTOs(ticketRepository.findByText(field, query, limit));
+    }
+
+    /**
+     * Fetches the tickets matching a query and assemble the data transfer objects
+     * as for {@link #searchTickets(String, String, int, int)}.
+     * 
+     * @param query  parsed query combining predicates on the fields of tickets.
+     * @param offset number of records skipped.
+     * @param limit  maximum number of records returned, all of them if 0.
+     * @return PageDTO<TicketDTO> page of the data transfer objects containing the
+     *         results and relations to other entities.
+     * @throws InvalidFieldNameException in case the query holds an invalid field.
+     */
+    public PageDTO<TicketDTO> queryTickets(Query query, int offset, int limit) throws InvalidFieldNameException {
+        log.info("Querying tickets");
+        return toPage(ticketRepository.findByQuery(query), offset, limit, this::toTicketDTOs);
+    }
+
+    /**
+     * Counts the tickets with a value in a field, as found by
+     * {@link #searchTickets(String, String, int, int)}, without building any of them.
+     * 
      * @param field name of the field to be looked at.
      * @param value value to be searched for in the field.
-     * @return List<UserDTO> list of data transfer objects containing the results
-     *         and relations to other entities.
+     * @return int number of tickets found.
      * @throws InvalidFieldNameException in case an invalid field name is provided.
      */
-    public List<TicketDTO> searchTickets(String field, String value) throws InvalidFieldNameException {
-        List<TicketDTO> ticketDTOs = new ArrayList<>();
+    public int countTickets(String field, String value) throws InvalidFieldNameException {
+        log.info("Counting tickets with {} equals to '{}'", field, value);
+        return ticketRepository.countByFieldValue(field, value);
+    }
 
-        log.info("Searching tickets with {} equals to '{}'", field, value);
-        Set<Ticket> tickets = ticketRepository.findByFieldValue(field, value);
+    /**
+     * Counts the tickets matching a query, as found by
+     * {@link #queryTickets(Query, int, int)}, without building any of them.
+     * 
+     * @param query parsed query combining predicates on the fields of tickets.
+     * @return int number of tickets found.
+     * @throws InvalidFieldNameException in case the query holds an invalid field.
+     */
+    public int countTicketsByQuery(Query query) throws InvalidFieldNameException {
+        log.info("Counting tickets matching a query");
+        return ticketRepository.countByQuery(query);
+    }
 
+    /**
+     * Counts the tickets grouped by the values of some fields, without building any
+     * of them.
+     * 
+     * @param fields fields the tickets are grouped by.
+     * @param query  parsed query the tickets counted must match, or null for all of
+     *               them.
+     * @return List<GroupDTO> groups of tickets found, the largest first.
+     * @throws InvalidFieldNameException in case a field or the query holds an
+     *                                   invalid field.
+     * @throws TooManyGroupsException    in case the fields hold too many
+     *                                   combinations of values to be counted.
+     */
+    public List<GroupDTO> aggregateTickets(List<String> fields, Query query)
+            throws InvalidFieldNameException, TooManyGroupsException {
+        log.info("Aggregating tickets by {}", fields);
+        return toGroupDTOs(ticketRepository.aggregate(fields, query));
+    }
+
+    /**
+     * @param tickets tickets found by a search.
+     * @return List<TicketDTO> tickets with their organization, submitter and
+     *         assignee.
+     * @throws InvalidFieldNameException in case a join field is not indexed.
+     */
+    private List<TicketDTO> toTicketDTOs(Collection<Ticket> tickets) throws InvalidFieldNameException {
+        JoinIndex joins = this.joinIndex;
+        List<Organization> organizations = joins.organizationsOfTickets(tickets);
+        List<User> submitters = joins.submittersOf(tickets);
+        List<User> assignees = joins.assigneesOf(tickets);
+        // Without links, every distinct foreign key of the result is looked up once
+        Map<Long, Organization> organizationsById = organizations != null ? null
+                : organizationRepository.findByIds(foreignKeys(tickets, List.of(Ticket::getOrganizationId)));
+        Map<Long, User> usersById = submitters != null && assignees != null ? null
+                : userRepository
+                        .findByIds(foreignKeys(tickets, List.of(Ticket::getSubmitterId, Ticket::getAssigneeId)));
+        List<TicketDTO> ticketDTOs = new ArrayList<>();
         for (Ticket ticket : tickets) {
+            int i = ticketDTOs.size();
             TicketDTO ticketDTO = new TicketDTO();
             ticketDTO.setTicket(ticket);
 
-            Organization organization = organizationRepository.findById(ticket.getOrganizationId());
+            Organization organization = organizations != null ? organizations.get(i)
+                    : referenced(organizationsById, ticket.getOrganizationId());
             if (organization != null) {
                 log.debug("Fetching organization for ticket {}", ticket.getSubject());
                 ticketDTO.setOrganization(organization);
@@ -159,7 +782,7 @@ public class SearchService {
                 log.debug("Organization for ticket {} not found", ticket.getSubject());
             }
 
-            User submitter = userRepository.findById(ticket.getSubmitterId());
+            User submitter = submitters != null ? submitters.get(i) : referenced(usersById, ticket.getSubmitterId());
             if (submitter != null) {
                 log.debug("Fetching submitter for ticket {}", ticket.getSubject());
                 ticketDTO.setSubmitter(submitter);
@@ -167,7 +790,7 @@ public class SearchService {
                 log.debug("Submitter for ticket {} not found", ticket.getSubject());
             }
 
-            User assignee = userRepository.findById(ticket.getAssigneeId());
+            User assignee = assignees != null ? assignees.get(i) : referenced(usersById, ticket.getAssigneeId());
             if (assignee != null) {
                 log.debug("Fetching assignee for ticket {}", ticket.getSubject());
                 ticketDTO.setAssignee(assignee);
@@ -180,4 +803,92 @@ public class SearchService {
         return ticketDTOs;
     }
 
+    /**
+     * @param records records found by a search.
+     * @param keys    getters of the foreign keys of a record.
+     * @return long[] values of the foreign keys of all the records, without the
+     *         missing ones, repeated as often as they are found:
+     *         {@link SearchRepository#findByIds(long[])} looks each one up once.
+     */
+    private static <T> long[] foreignKeys(Collection<T> records, List<Function<T, Long>> keys) {
+        long[] ids = new long[records.size() * keys.size()];
+        int count = 0;
+        for (T record : records) {
+            for (Function<T, Long> key : keys) {
+                Long id = key.apply(record);
+                if (id != null) {
+                    ids[count++] = id;
+                }
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Assembles the data transfer objects of a page of the records found by a
+     * search, so the records outside of the page are neither built nor joined to
+     * the other entities.
+     * 
+     * @param records   records found by a search.
+     * @param offset    number of records skipped.
+     * @param limit     maximum number of records assembled, all of them if 0.
+     * @param assembler assembler of the data transfer objects of the records.
+     * @return PageDTO<D> page of the data transfer objects.
+     * @throws InvalidFieldNameException in case a join field is not indexed.
+     */
+    private <T extends Entity, D> PageDTO<D> toPage(Collection<T> records, int offset, int limit,
+            Assembler<T, D> assembler) throws InvalidFieldNameException {
+        PageDTO<D> page = new PageDTO<>();
+        page.setRecords(assembler.assemble(SearchRepository.page(records, offset, limit)));
+        page.setOffset(Math.min(offset, records.size()));
+        page.setTotal(records.size());
+        return page;
+    }
+
+    /**
+     * @param groups number of records of every group of an aggregation.
+     * @return List<GroupDTO> groups of the aggregation, the largest first and
+     *         groups of the same size in the order they were found.
+     */
+    private List<GroupDTO> toGroupDTOs(Map<List<String>, Integer> groups) {
+        List<GroupDTO> groupDTOs = new ArrayList<>();
+        groups.forEach((values, count) -> {
+            GroupDTO groupDTO = new GroupDTO();
+            groupDTO.setValues(values);
+            groupDTO.setCount(count);
+            groupDTOs.add(groupDTO);
+        });
+        groupDTOs.sort(Comparator.comparingInt(GroupDTO::getCount).reversed());
+        return groupDTOs;
+    }
+
+    /**
+     * @param recordsById records found by their id.
+     * @param id          value of a foreign key, or null.
+     * @return T referenced record, or null if the key is missing or dangling.
+     */
+    private static <T extends Entity> T referenced(Map<Long, T> recordsById, Long id) {
+        return id == null ? null : recordsById.get(id);
+    }
+
+    /**
+     * Looks for the records referencing another one through a foreign key.
+     * 
+     * @param repository repository of the referencing entity.
+     * @param field      foreign key field.
+     * @param id         id of the referenced record.
+     * @return List<T> referencing records.
+     * @throws InvalidFieldNameException in case the foreign key is not indexed.
+     */
+    private <T extends Entity> List<T> findAll(SearchRepository<T> repository, String field, String id)
+            throws InvalidFieldNameException {
+        return new ArrayList<>(repository.findByFieldValue(field, id));
+    }
+
+    // Builds the data transfer objects of the records found by a search
+    @FunctionalInterface
+    private interface Assembler<T, D> {
+        List<D> assemble(Collection<T> records) throws InvalidFieldNameException;
+    }
+
 }
@@ -1,5 +1,9 @@
 package com.github.brunomarq.searchcli.utils;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class Constants {
 
     private Constants() {
@@ -8,11 +12,30 @@ public class Constants {
 
     public static final String ERROR_LOADING_JSON_FILES = "JSON files could not be loaded.";
     public static final String DATABASE_READY = "Database ready.";
+    public static final String ERROR_LOADING_SNAPSHOT = "Snapshots could not be loaded. Run `load-database` instead.";
+    public static final String ERROR_SAVING_SNAPSHOT = "Snapshots could not be saved.";
+    public static final String SNAPSHOT_SAVED = "Snapshots saved.";
+    public static final String WATCHING_DIRECTORY = "Watching the directory for changes.";
+    public static final String ERROR_WATCHING_DIRECTORY = "The directory could not be watched for changes.";
+    public static final String ERROR_WATCHING_RESOURCES = "Only a directory can be watched for changes, not the json files in the jar.";
     public static final String INVALID_ENTITY = "Invalid entity. Choose organization, ticket or user.";
     public static final String INVALID_FIELD = "Invalid field. Use `fields <entity>` to list all available fields for an entity.";
+    public static final String INVALID_TIMESTAMP_FIELD = "Invalid field for a range. Use created_at, or due_at for tickets and last_login_at for users.";
+    public static final String INVALID_TIMESTAMP = "Invalid timestamp. Use 2016-04-28T11:19:34 -10:00, 2016-04-28 or now, now+24h, now-7d.";
+    public static final String INVALID_TEXT_FIELD = "Invalid text field. Use subject or description for tickets, details for organizations or signature for users.";
+    public static final String INVALID_LIMIT = "Invalid limit. Use a number greater than 0.";
+    public static final String INVALID_PAGE = "Invalid page. Use a --limit and an --offset of 0 or more.";
+    public static final String INVALID_QUERY = "Invalid query. Combine field=value and field IN (value, ...) with AND, OR, NOT and parentheses.";
+    public static final String FIELD_WITH_QUERY = "Count either the records with a value in a field or the ones matching --query, not both.";
+    public static final String TOO_MANY_GROUPS = "Too many groups. Group by fewer fields, or by fields holding fewer values.";
+    public static final String RANGE_WITH_VALUE = "Search either for a value or for a range with --from and --to, not both.";
 
     public static final String ORGANIZATIONS_FILENAME = "organizations.json";
     public static final String TICKETS_FILENAME = "tickets.json";
     public static final String USERS_FILENAME = "users.json";
 
+    // Extensions looked for, in order, when a json file is not found with its default name
+    public static final List<String> DATA_FILE_EXTENSIONS = Collections
+            .unmodifiableList(Arrays.asList(".json", ".jsonl", ".ndjson", ".json.gz", ".jsonl.gz", ".ndjson.gz"));
+
 }
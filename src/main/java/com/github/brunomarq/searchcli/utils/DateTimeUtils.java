@@ -0,0 +1,114 @@
+package com.github.brunomarq.searchcli.utils;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class DateTimeUtils {
+
+    private DateTimeUtils() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    // Format of the timestamps in the json files, such as 2016-04-28T11:19:34 -10:00
+    public static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd'T'HH:mm:ss XXX");
+
+    // Instants relative to the current time, such as now, now+24h or now-7d
+    private static final Pattern RELATIVE_INSTANT = Pattern.compile("now(?:([+-])(\\d{1,9})([smhd]))?");
+
+    /**
+     * Converts a timestamp as found in the json files to epoch milliseconds.
+     *
+     * @param timestamp timestamp in the format of the json files.
+     * @return Long milliseconds since the epoch, or null if the timestamp is
+     *         missing, in another format or too far from the epoch.
+     */
+    public static Long toEpochMillis(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(timestamp, TIMESTAMP_FORMATTER).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a bound of a range typed in the shell to epoch milliseconds. Bounds
+     * are either in the format of the json files, in the ISO-8601 format with an
+     * offset, a date alone, taken as its start in UTC, or relative to the current
+     * time, such as now, now+24h or now-7d.
+     *
+     * @param bound     bound as typed in the shell.
+     * @param nowMillis current time in milliseconds since the epoch.
+     * @return Long milliseconds since the epoch, or null if the bound cannot be
+     *         parsed or is too far from the epoch.
+     */
+    public static Long parseBound(String bound, long nowMillis) {
+        try {
+            return toBoundMillis(bound.trim(), nowMillis);
+        } catch (ArithmeticException | DateTimeException e) {
+            // Out of the range of epoch milliseconds, such as +999999999-12-31
+            return null;
+        }
+    }
+
+    /**
+     * @param rawBound  bound without surrounding spaces.
+     * @param nowMillis current time in milliseconds since the epoch.
+     * @return Long milliseconds since the epoch, or null if the bound cannot be
+     *         parsed.
+     * @throws ArithmeticException if the bound overflows epoch milliseconds.
+     */
+    private static Long toBoundMillis(String rawBound, long nowMillis) {
+        Matcher relative = RELATIVE_INSTANT.matcher(rawBound.toLowerCase());
+        if (relative.matches()) {
+            if (relative.group(1) == null) {
+                return nowMillis;
+            }
+            long amount = Math.multiplyExact(Long.parseLong(relative.group(2)), toUnit(relative.group(3)).toMillis(1));
+            return "+".equals(relative.group(1)) ? Math.addExact(nowMillis, amount)
+                    : Math.subtractExact(nowMillis, amount);
+        }
+        Long millis = toEpochMillis(rawBound);
+        if (millis != null) {
+            return millis;
+        }
+        try {
+            return OffsetDateTime.parse(rawBound).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // Not a date and time, maybe a date alone
+        }
+        try {
+            return LocalDate.parse(rawBound).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param unit unit of a relative instant: s, m, h or d.
+     * @return TimeUnit the matching time unit.
+     */
+    private static TimeUnit toUnit(String unit) {
+        switch (unit) {
+        case "s":
+            return TimeUnit.SECONDS;
+        case "m":
+            return TimeUnit.MINUTES;
+        case "h":
+            return TimeUnit.HOURS;
+        default:
+            return TimeUnit.DAYS;
+        }
+    }
+
+}
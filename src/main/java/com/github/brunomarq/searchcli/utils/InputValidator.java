@@ -56,4 +56,48 @@ public class InputValidator {
 
         return valid;
     }
+
+    /**
+     * Checks if the string is one of the fields holding timestamps for a specific
+     * entity, which can be searched by range.
+     * 
+     * @param entity string representing the entity
+     * @param field  string representing the field
+     * @return boolean false if it does not match
+     */
+    public boolean isTimestampFieldValid(String entity, String field) {
+        String rawField = field.trim().toLowerCase();
+        switch (entity.trim().toLowerCase()) {
+        case Organization.ENTITY_TYPE:
+            return Organization.TIMESTAMP_FIELDS.contains(rawField);
+        case User.ENTITY_TYPE:
+            return User.TIMESTAMP_FIELDS.contains(rawField);
+        case Ticket.ENTITY_TYPE:
+            return Ticket.TIMESTAMP_FIELDS.contains(rawField);
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the string is one of the fields holding free text for a specific
+     * entity, which can be searched by its words.
+     * 
+     * @param entity string representing the entity
+     * @param field  string representing the field
+     * @return boolean false if it does not match
+     */
+    public boolean isTextFieldValid(String entity, String field) {
+        String rawField = field.trim().toLowerCase();
+        switch (entity.trim().toLowerCase()) {
+        case Organization.ENTITY_TYPE:
+            return Organization.TEXT_FIELDS.contains(rawField);
+        case User.ENTITY_TYPE:
+            return User.TEXT_FIELDS.contains(rawField);
+        case Ticket.ENTITY_TYPE:
+            return Ticket.TEXT_FIELDS.contains(rawField);
+        default:
+            return false;
+        }
+    }
 }
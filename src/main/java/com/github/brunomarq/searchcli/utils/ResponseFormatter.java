@@ -7,6 +7,7 @@ import com.github.brunomarq.searchcli.domain.Entity;
 import com.github.brunomarq.searchcli.domain.Organization;
 import com.github.brunomarq.searchcli.domain.Ticket;
 import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.dto.GroupDTO;
 import com.github.brunomarq.searchcli.dto.OrganizationDTO;
 import com.github.brunomarq.searchcli.dto.TicketDTO;
 import com.github.brunomarq.searchcli.dto.UserDTO;
@@ -22,6 +23,9 @@ import org.springframework.stereotype.Component;
 @Component
 public class ResponseFormatter {
 
+    // Shown for the groups of the records where a field is missing or empty
+    private static final String MISSING_VALUE = "(none)";
+
     /**
      * Formats the response for a list of fields in an entity.
      * 
@@ -41,6 +45,36 @@ public class ResponseFormatter {
         return responseBuilder.toString();
     }
 
+    /**
+     * Formats the response for the groups of an aggregation, as a single table
+     * with a column per field grouped by and the number of records of every group.
+     * 
+     * @param fields names of the fields grouped by.
+     * @param groups groups of the aggregation.
+     * @return String formatted response.
+     */
+    public String formatAggregateResponse(List<String> fields, List<GroupDTO> groups) {
+        StringBuilder responseBuilder = new StringBuilder();
+
+        ArrayList<String[]> tableList = new ArrayList<>();
+        List<String> header = new ArrayList<>(fields);
+        header.add("count");
+        tableList.add(header.toArray(new String[0]));
+        for (GroupDTO groupDTO : groups) {
+            List<String> row = new ArrayList<>();
+            for (String value : groupDTO.getValues()) {
+                row.add(value.isEmpty() ? MISSING_VALUE : value);
+            }
+            row.add(Integer.toString(groupDTO.getCount()));
+            tableList.add(row.toArray(new String[0]));
+        }
+
+        formatRecord(responseBuilder, tableList);
+        responseBuilder.append(this.formatInfo("Total number of groups: " + groups.size()));
+
+        return responseBuilder.toString();
+    }
+
     /**
      * Formats the response for a list of users and its associations.
      * 
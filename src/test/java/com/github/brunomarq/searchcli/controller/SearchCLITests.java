@@ -1,18 +1,31 @@
 package com.github.brunomarq.searchcli.controller;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import com.github.brunomarq.searchcli.domain.Entity;
 import com.github.brunomarq.searchcli.domain.Organization;
 import com.github.brunomarq.searchcli.domain.Ticket;
 import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.dto.PageDTO;
+import com.github.brunomarq.searchcli.dto.TicketDTO;
 import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.exception.TooManyGroupsException;
+import com.github.brunomarq.searchcli.query.Query;
+import com.github.brunomarq.searchcli.service.DataDirectoryWatcher;
 import com.github.brunomarq.searchcli.service.SearchService;
 import com.github.brunomarq.searchcli.utils.Constants;
 import com.github.brunomarq.searchcli.utils.InputValidator;
@@ -35,6 +48,9 @@ public class SearchCLITests {
     @Mock
     InputValidator inputValidatorMock;
 
+    @Mock
+    DataDirectoryWatcher dataDirectoryWatcherMock;
+
     @Mock
     ResponseFormatter responseFormatterMock;
 
@@ -56,7 +72,7 @@ public class SearchCLITests {
                 .thenReturn(Constants.ERROR_LOADING_JSON_FILES);
 
         // Execute code
-        String response = searchCLI.loadDatabase(invalidDirectory);
+        String response = searchCLI.loadDatabase(invalidDirectory, false);
 
         // Validate results
         Assertions.assertThat(response).contains(Constants.ERROR_LOADING_JSON_FILES);
@@ -74,7 +90,7 @@ public class SearchCLITests {
         when(responseFormatterMock.formatInfo(Constants.DATABASE_READY)).thenReturn(Constants.DATABASE_READY);
 
         // Execute code
-        String response = searchCLI.loadDatabase(validDirectory);
+        String response = searchCLI.loadDatabase(validDirectory, false);
 
         // Validate results
         Assertions.assertThat(response).contains(Constants.DATABASE_READY);
@@ -83,6 +99,78 @@ public class SearchCLITests {
         verify(searchServiceMock, times(1)).loadDatabase(validDirectory);
     }
 
+    @Test
+    public void testLoadDatabaseCommandWithWatch() throws IOException {
+        final String validDirectory = "validDirectory";
+
+        // Mock behaviour of external dependencies
+        doNothing().when(searchServiceMock).loadDatabase(validDirectory);
+        doNothing().when(dataDirectoryWatcherMock).start(validDirectory);
+
+        // Execute code
+        String response = searchCLI.loadDatabase(validDirectory, true);
+
+        // Validate results
+        Assertions.assertThat(response).contains(Constants.DATABASE_READY).contains(Constants.WATCHING_DIRECTORY);
+
+        // Verify calls of external dependencies
+        verify(searchServiceMock, times(1)).loadDatabase(validDirectory);
+        verify(dataDirectoryWatcherMock, times(1)).start(validDirectory);
+    }
+
+    @Test
+    public void testFailedReloadKeepsDatabaseAvailable() throws IOException {
+        final String validDirectory = "validDirectory";
+        final String invalidDirectory = "invalidDirectory";
+
+        // Mock behaviour of external dependencies
+        doNothing().when(searchServiceMock).loadDatabase(validDirectory);
+        doThrow(new IOException()).when(searchServiceMock).loadDatabase(invalidDirectory);
+
+        // Execute code
+        searchCLI.loadDatabase(validDirectory, false);
+        searchCLI.loadDatabase(invalidDirectory, false);
+
+        // Validate results
+        Assertions.assertThat(searchCLI.availabilityCheck().isAvailable()).isTrue();
+    }
+
+    @Test
+    public void testLoadSnapshotCommandWithoutSnapshot() throws IOException {
+        final String directory = "directoryWithoutSnapshot";
+
+        // Mock behaviour of external dependencies
+        doThrow(new IOException()).when(searchServiceMock).loadSnapshot(directory);
+        when(responseFormatterMock.formatError(Constants.ERROR_LOADING_SNAPSHOT))
+                .thenReturn(Constants.ERROR_LOADING_SNAPSHOT);
+
+        // Execute code
+        String response = searchCLI.loadSnapshot(directory);
+
+        // Validate results
+        Assertions.assertThat(response).contains(Constants.ERROR_LOADING_SNAPSHOT);
+
+        // Verify calls of external dependencies
+        verify(searchServiceMock, times(1)).loadSnapshot(directory);
+    }
+
+    @Test
+    public void testSaveSnapshotCommand() throws IOException {
+        final String directory = "validDirectory";
+
+        // Mock behaviour of external dependencies
+        doNothing().when(searchServiceMock).saveSnapshot(directory);
+
+        // Execute code
+        String response = searchCLI.saveSnapshot(directory);
+
+        // Validate results
+        Assertions.assertThat(response).contains(Constants.SNAPSHOT_SAVED);
+
+        // Verify calls of external dependencies
+        verify(searchServiceMock, times(1)).saveSnapshot(directory);
+    }
+
     @Test
     public void testFieldsCommandWithInvalidEntity() {
         final String invalidEntity = "invalidEntity";
@@ -131,10 +219,10 @@ public class SearchCLITests {
         when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
         when(inputValidatorMock.isFieldValid(validEntity, validField)).thenReturn(true);
         when(responseFormatterMock.formatOrganizationResponse(anyList())).thenReturn(validResponse);
-        when(searchServiceMock.searchOrganizations(validField, validValue)).thenReturn(anyList());
+        when(searchServiceMock.searchOrganizations(validField, validValue, 0, 0)).thenReturn(emptyPage());
 
         // Execute code
-        String response = searchCLI.search(validEntity, validField, validValue);
+        String response = searchCLI.search(validEntity, validField, validValue, "", "", 0, 0);
 
         // Validate results
         Assertions.assertThat(response).contains(validResponse);
@@ -142,7 +230,7 @@ public class SearchCLITests {
         // Verify calls of external dependencies
         verify(inputValidatorMock, times(1)).isEntityValid(validEntity);
         verify(inputValidatorMock, times(1)).isFieldValid(validEntity, validField);
-        verify(searchServiceMock, times(1)).searchOrganizations(validField, validValue);
+        verify(searchServiceMock, times(1)).searchOrganizations(validField, validValue, 0, 0);
 
     }
 
@@ -156,10 +244,10 @@ public class SearchCLITests {
         when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
         when(inputValidatorMock.isFieldValid(validEntity, validField)).thenReturn(true);
         when(responseFormatterMock.formatUserResponse(anyList())).thenReturn(validResponse);
-        when(searchServiceMock.searchUsers(validField, validValue)).thenReturn(anyList());
+        when(searchServiceMock.searchUsers(validField, validValue, 0, 0)).thenReturn(emptyPage());
 
         // Execute code
-        String response = searchCLI.search(validEntity, validField, validValue);
+        String response = searchCLI.search(validEntity, validField, validValue, "", "", 0, 0);
 
         // Validate results
         Assertions.assertThat(response).contains(validResponse);
@@ -167,7 +255,7 @@ public class SearchCLITests {
         // Verify calls of external dependencies
         verify(inputValidatorMock, times(1)).isEntityValid(validEntity);
         verify(inputValidatorMock, times(1)).isFieldValid(validEntity, validField);
-        verify(searchServiceMock, times(1)).searchUsers(validField, validValue);
+        verify(searchServiceMock, times(1)).searchUsers(validField, validValue, 0, 0);
 
     }
 
@@ -181,10 +269,10 @@ public class SearchCLITests {
         when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
         when(inputValidatorMock.isFieldValid(validEntity, validField)).thenReturn(true);
         when(responseFormatterMock.formatTicketResponse(anyList())).thenReturn(validResponse);
-        when(searchServiceMock.searchTickets(validField, validValue)).thenReturn(anyList());
+        when(searchServiceMock.searchTickets(validField, validValue, 0, 0)).thenReturn(emptyPage());
 
         // Execute code
-        String response = searchCLI.search(validEntity, validField, validValue);
+        String response = searchCLI.search(validEntity, validField, validValue, "", "", 0, 0);
 
         // Validate results
         Assertions.assertThat(response).contains(validResponse);
@@ -192,7 +280,342 @@ public class SearchCLITests {
         // Verify calls of external dependencies
         verify(inputValidatorMock, times(1)).isEntityValid(validEntity);
         verify(inputValidatorMock, times(1)).isFieldValid(validEntity, validField);
-        verify(searchServiceMock, times(1)).searchTickets(validField, validValue);
+        verify(searchServiceMock, times(1)).searchTickets(validField, validValue, 0, 0);
+
+    }
+
+    @Test
+    public void testSearchTicketCommandWithPage() throws InvalidFieldNameException {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        final String validField = "validField";
+        final String validResponse = "validResponse";
+        final String validValue = "validValue";
+        PageDTO<TicketDTO> page = new PageDTO<>();
+        page.setRecords(Arrays.asList(new TicketDTO(), new TicketDTO()));
+        page.setOffset(1);
+        page.setTotal(5);
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, validField)).thenReturn(true);
+        when(responseFormatterMock.formatTicketResponse(page.getRecords())).thenReturn(validResponse);
+        when(responseFormatterMock.formatInfo(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(searchServiceMock.searchTickets(validField, validValue, 1, 2)).thenReturn(page);
+
+        // Execute code
+        String response = searchCLI.search(validEntity, validField, validValue, "", "", 2, 1);
+
+        // Validate results
+        Assertions.assertThat(response).contains(validResponse).contains("Showing records 2 to 3 of 5.")
+                .contains("--limit 2 --offset 1");
+
+        // Verify calls of external dependencies
+        verify(searchServiceMock, times(1)).searchTickets(validField, validValue, 1, 2);
+
+    }
+
+    @Test
+    public void testSearchCommandWithInvalidPage() throws InvalidFieldNameException {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        final String validField = "validField";
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, validField)).thenReturn(true);
+        when(responseFormatterMock.formatError(Constants.INVALID_PAGE)).thenReturn(Constants.INVALID_PAGE);
+
+        // Execute code and validate results
+        Assertions.assertThat(searchCLI.search(validEntity, validField, "validValue", "", "", -1, 0))
+                .contains(Constants.INVALID_PAGE);
+        Assertions.assertThat(searchCLI.query(validEntity, "status=open", 10, -1)).contains(Constants.INVALID_PAGE);
+
+        // Verify calls of external dependencies
+        verifyNoInteractions(searchServiceMock);
+
+    }
+
+    @Test
+    public void testSearchTicketCommandWithTimeRange() throws InvalidFieldNameException {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        final String validField = Ticket.FIELD_DUE_AT;
+        final String validResponse = "validResponse";
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, validField)).thenReturn(true);
+        when(inputValidatorMock.isTimestampFieldValid(validEntity, validField)).thenReturn(true);
+        when(responseFormatterMock.formatTicketResponse(anyList())).thenReturn(validResponse);
+        when(searchServiceMock.searchTicketsByTimeRange(validField, 1461878374000l, Long.MAX_VALUE, 0, 0))
+                .thenReturn(emptyPage());
+
+        // Execute code
+        String response = searchCLI.search(validEntity, validField, "", "2016-04-28T11:19:34 -10:00", "", 0, 0);
+
+        // Validate results
+        Assertions.assertThat(response).contains(validResponse);
+
+        // Verify calls of external dependencies
+        verify(inputValidatorMock, times(1)).isTimestampFieldValid(validEntity, validField);
+        verify(searchServiceMock, times(1)).searchTicketsByTimeRange(validField, 1461878374000l, Long.MAX_VALUE, 0, 0);
+
+    }
+
+    @Test
+    public void testSearchCommandWithInvalidTimeRange() throws InvalidFieldNameException {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        final String validField = Ticket.FIELD_DUE_AT;
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, validField)).thenReturn(true);
+        when(inputValidatorMock.isTimestampFieldValid(validEntity, validField)).thenReturn(true);
+        when(inputValidatorMock.isTimestampFieldValid(validEntity, Ticket.FIELD_SUBJECT)).thenReturn(false);
+        when(inputValidatorMock.isFieldValid(validEntity, Ticket.FIELD_SUBJECT)).thenReturn(true);
+        when(responseFormatterMock.formatError(Constants.INVALID_TIMESTAMP)).thenReturn(Constants.INVALID_TIMESTAMP);
+        when(responseFormatterMock.formatError(Constants.INVALID_TIMESTAMP_FIELD))
+                .thenReturn(Constants.INVALID_TIMESTAMP_FIELD);
+        when(responseFormatterMock.formatError(Constants.RANGE_WITH_VALUE)).thenReturn(Constants.RANGE_WITH_VALUE);
+
+        // Execute code and validate results
+        Assertions.assertThat(searchCLI.search(validEntity, validField, "", "yesterday", "", 0, 0))
+                .contains(Constants.INVALID_TIMESTAMP);
+        Assertions.assertThat(searchCLI.search(validEntity, Ticket.FIELD_SUBJECT, "", "now", "now+24h", 0, 0))
+                .contains(Constants.INVALID_TIMESTAMP_FIELD);
+        Assertions.assertThat(searchCLI.search(validEntity, validField, "validValue", "", "now", 0, 0))
+                .contains(Constants.RANGE_WITH_VALUE);
+        // Bounds too far from the epoch to be held in milliseconds
+        Assertions.assertThat(searchCLI.search(validEntity, validField, "", "+999999999-12-31", "", 0, 0))
+                .contains(Constants.INVALID_TIMESTAMP);
+        Assertions.assertThat(searchCLI.search(validEntity, validField, "", "", "+999999999-12-31T00:00:00Z", 0, 0))
+                .contains(Constants.INVALID_TIMESTAMP);
+
+        // Verify calls of external dependencies
+        verifyNoInteractions(searchServiceMock);
+
+    }
+
+    @Test
+    public void testTextSearchTicketCommand() throws InvalidFieldNameException {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        final String validQuery = "validQuery";
+        final String validResponse = "validResponse";
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(responseFormatterMock.formatTicketResponse(anyList())).thenReturn(validResponse);
+        when(searchServiceMock.textSearchTickets("", validQuery, 10)).thenReturn(anyList());
+
+        // Execute code
+        String response = searchCLI.textSearch(validEntity, validQuery, "", 10);
+
+        // Validate results
+        Assertions.assertThat(response).contains(validResponse);
+
+        // Verify calls of external dependencies
+        verify(inputValidatorMock, times(1)).isEntityValid(validEntity);
+        verify(searchServiceMock, times(1)).textSearchTickets("", validQuery, 10);
+
+    }
+
+    @Test
+    public void testTextSearchCommandWithInvalidField() throws InvalidFieldNameException {
+        final String validEntity = User.ENTITY_TYPE;
+        final String invalidField = User.FIELD_NAME;
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(inputValidatorMock.isTextFieldValid(validEntity, invalidField)).thenReturn(false);
+        when(responseFormatterMock.formatError(Constants.INVALID_TEXT_FIELD))
+                .thenReturn(Constants.INVALID_TEXT_FIELD);
+
+        // Execute code
+        String response = searchCLI.textSearch(validEntity, "validQuery", invalidField, 10);
+
+        // Validate results
+        Assertions.assertThat(response).contains(Constants.INVALID_TEXT_FIELD);
+
+        // Verify calls of external dependencies
+        verify(inputValidatorMock, times(1)).isTextFieldValid(validEntity, invalidField);
+        verifyNoInteractions(searchServiceMock);
+
+    }
+
+    @Test
+    public void testQueryTicketCommand() throws InvalidFieldNameException {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        final String validQuery = "status=open AND priority IN (high, urgent) AND NOT tags=Ohio";
+        final String validResponse = "validResponse";
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(responseFormatterMock.formatTicketResponse(anyList())).thenReturn(validResponse);
+        when(searchServiceMock.queryTickets(any(Query.class), eq(0), eq(0))).thenReturn(emptyPage());
+
+        // Execute code
+        String response = searchCLI.query(validEntity, validQuery, 0, 0);
+
+        // Validate results
+        Assertions.assertThat(response).contains(validResponse);
+
+        // Verify calls of external dependencies
+        verify(inputValidatorMock, times(1)).isEntityValid(validEntity);
+        verify(searchServiceMock, times(1)).queryTickets(any(Query.class), eq(0), eq(0));
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "status=", "status=open AND", "status IN (open", "(status=open", "status='open",
+            "status=open OR OR priority=high", "NOT", "status open" })
+    public void testQueryCommandWithInvalidQuery(String invalidQuery) {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(responseFormatterMock.formatError(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Execute code
+        String response = searchCLI.query(validEntity, invalidQuery, 0, 0);
+
+        // Validate results
+        Assertions.assertThat(response).startsWith(Constants.INVALID_QUERY);
+
+        // Verify calls of external dependencies
+        verifyNoInteractions(searchServiceMock);
+
+    }
+
+    @Test
+    public void testQueryCommandWithInvalidField() throws InvalidFieldNameException {
+        final String validEntity = User.ENTITY_TYPE;
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(searchServiceMock.queryUsers(any(Query.class), eq(0), eq(0))).thenThrow(new InvalidFieldNameException());
+        when(responseFormatterMock.formatError(Constants.INVALID_FIELD)).thenReturn(Constants.INVALID_FIELD);
+
+        // Execute code
+        String response = searchCLI.query(validEntity, "name=Rose AND invalidField=value", 0, 0);
+
+        // Validate results
+        Assertions.assertThat(response).contains(Constants.INVALID_FIELD);
+
+        // Verify calls of external dependencies
+        verify(searchServiceMock, times(1)).queryUsers(any(Query.class), eq(0), eq(0));
+
+    }
+
+    @Test
+    public void testCountTicketCommand() throws InvalidFieldNameException {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        final String validField = "validField";
+        final String validValue = "validValue";
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, validField)).thenReturn(true);
+        when(searchServiceMock.countTickets(validField, validValue)).thenReturn(4);
+
+        // Execute code
+        String response = searchCLI.count(validEntity, validField, validValue, "");
+
+        // Validate results
+        Assertions.assertThat(response).isEqualTo("4");
+
+        // Verify calls of external dependencies
+        verify(searchServiceMock, times(1)).countTickets(validField, validValue);
+        verifyNoInteractions(responseFormatterMock);
+
+    }
+
+    @Test
+    public void testExistsUserCommandWithQuery() throws InvalidFieldNameException {
+        final String validEntity = User.ENTITY_TYPE;
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(searchServiceMock.countUsersByQuery(any(Query.class))).thenReturn(0);
+
+        // Execute code
+        String response = searchCLI.exists(validEntity, "", "", "organization_id=101 AND role=admin");
+
+        // Validate results
+        Assertions.assertThat(response).isEqualTo("false");
+
+        // Verify calls of external dependencies
+        verify(searchServiceMock, times(1)).countUsersByQuery(any(Query.class));
+        verifyNoInteractions(responseFormatterMock);
+
+    }
+
+    @Test
+    public void testCountCommandWithFieldAndQuery() {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(responseFormatterMock.formatError(Constants.FIELD_WITH_QUERY)).thenReturn(Constants.FIELD_WITH_QUERY);
+
+        // Execute code
+        String response = searchCLI.count(validEntity, "status", "open", "status=open");
+
+        // Validate results
+        Assertions.assertThat(response).contains(Constants.FIELD_WITH_QUERY);
+
+        // Verify calls of external dependencies
+        verifyNoInteractions(searchServiceMock);
+
+    }
+
+    @Test
+    public void testAggregateTicketCommand() throws InvalidFieldNameException, TooManyGroupsException {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        final String validResponse = "validResponse";
+        final List<String> validFields = Arrays.asList(Ticket.FIELD_STATUS, Ticket.FIELD_PRIORITY);
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, Ticket.FIELD_STATUS)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, Ticket.FIELD_PRIORITY)).thenReturn(true);
+        when(searchServiceMock.aggregateTickets(eq(validFields), any(Query.class))).thenReturn(new ArrayList<>());
+        when(responseFormatterMock.formatAggregateResponse(eq(validFields), anyList())).thenReturn(validResponse);
+
+        // Execute code
+        String response = searchCLI.aggregate(validEntity, "status,priority", "organization_id=101");
+
+        // Validate results
+        Assertions.assertThat(response).contains(validResponse);
+
+        // Verify calls of external dependencies
+        verify(searchServiceMock, times(1)).aggregateTickets(eq(validFields), any(Query.class));
+
+    }
+
+    @Test
+    public void testAggregateCommandWithTooManyGroups() throws InvalidFieldNameException, TooManyGroupsException {
+        final String validEntity = Ticket.ENTITY_TYPE;
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, Entity.FIELD_ID)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, Entity.FIELD_URL)).thenReturn(true);
+        when(searchServiceMock.aggregateTickets(Arrays.asList(Entity.FIELD_ID, Entity.FIELD_URL), null))
+                .thenThrow(new TooManyGroupsException());
+        when(responseFormatterMock.formatError(Constants.TOO_MANY_GROUPS)).thenReturn(Constants.TOO_MANY_GROUPS);
+
+        // Execute code
+        String response = searchCLI.aggregate(validEntity, "_id,url", "");
+
+        // Validate results
+        Assertions.assertThat(response).contains(Constants.TOO_MANY_GROUPS);
+
+        // Verify calls of external dependencies
+        verify(responseFormatterMock, times(0)).formatAggregateResponse(anyList(), anyList());
+
+    }
+
+    @Test
+    public void testAggregateCommandWithInvalidField() {
+        final String validEntity = User.ENTITY_TYPE;
+        // Mock behaviour of external dependencies
+        when(inputValidatorMock.isEntityValid(validEntity)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, User.FIELD_ROLE)).thenReturn(true);
+        when(inputValidatorMock.isFieldValid(validEntity, "invalidField")).thenReturn(false);
+        when(responseFormatterMock.formatError(Constants.INVALID_FIELD)).thenReturn(Constants.INVALID_FIELD);
+
+        // Execute code
+        String response = searchCLI.aggregate(validEntity, "role,invalidField", "");
+
+        // Validate results
+        Assertions.assertThat(response).contains(Constants.INVALID_FIELD);
+
+        // Verify calls of external dependencies
+        verifyNoInteractions(searchServiceMock);
 
     }
 
@@ -206,7 +629,7 @@ public class SearchCLITests {
         when(responseFormatterMock.formatError(Constants.INVALID_ENTITY)).thenReturn(Constants.INVALID_ENTITY);
 
         // Execute code
-        String response = searchCLI.search(invalidEntity, validField, validValue);
+        String response = searchCLI.search(invalidEntity, validField, validValue, "", "", 0, 0);
 
         // Validate results
         Assertions.assertThat(response).contains(Constants.INVALID_ENTITY);
@@ -227,7 +650,7 @@ public class SearchCLITests {
         when(responseFormatterMock.formatError(Constants.INVALID_FIELD)).thenReturn(Constants.INVALID_FIELD);
 
         // Execute code
-        String response = searchCLI.search(validEntity, invalidField, validValue);
+        String response = searchCLI.search(validEntity, invalidField, validValue, "", "", 0, 0);
 
         // Validate results
         Assertions.assertThat(response).contains(Constants.INVALID_FIELD);
@@ -238,4 +661,10 @@ public class SearchCLITests {
 
     }
 
+    private static <T> PageDTO<T> emptyPage() {
+        PageDTO<T> page = new PageDTO<>();
+        page.setRecords(new ArrayList<>());
+        return page;
+    }
+
 }
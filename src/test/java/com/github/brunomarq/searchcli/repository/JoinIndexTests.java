@@ -0,0 +1,135 @@
+package com.github.brunomarq.searchcli.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.github.brunomarq.searchcli.domain.Entity;
+import com.github.brunomarq.searchcli.domain.Organization;
+import com.github.brunomarq.searchcli.domain.Ticket;
+import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.utils.Constants;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JoinIndexTests {
+
+    private static final String ALL = "*";
+
+    private static String organizationsJSON = "[{\"_id\": 101,\"name\": \"Enthaze\"},{\"_id\": 102,\"name\": \"Nutralab\"}]";
+
+    // User 2 has no organization and user 3 references one that does not exist
+    private static String usersJSON = "{\"_id\": 1,\"name\": \"Francisca Rasmussen\",\"organization_id\": 101}\n"
+            + "{\"_id\": 2,\"name\": \"Cross Barlow\",\"organization_id\": null}\n"
+            + "{\"_id\": 3,\"name\": \"Ingrid Wagner\",\"organization_id\": 999}\n";
+
+    // Ticket b references an organization and a submitter that do not exist
+    private static String ticketsJSON = "[{\"_id\": \"a\",\"organization_id\": 101,\"submitter_id\": 1,\"assignee_id\": 3},"
+            + "{\"_id\": \"b\",\"organization_id\": 999,\"submitter_id\": 42,\"assignee_id\": null},"
+            + "{\"_id\": \"c\",\"submitter_id\": 1}]";
+
+    private final SearchRepository<Organization> organizationRepository = new OrganizationSearchRepository();
+
+    private final SearchRepository<User> userRepository = new UserSearchRepository();
+
+    private final SearchRepository<Ticket> ticketRepository = new TicketSearchRepository();
+
+    private Path usersFile;
+
+    @BeforeEach
+    public void loadDatabases(@TempDir Path directory) throws IOException {
+        Path organizationsFile = Files.writeString(directory.resolve(Constants.ORGANIZATIONS_FILENAME),
+                organizationsJSON);
+        usersFile = Files.writeString(directory.resolve(Constants.USERS_FILENAME), usersJSON);
+        Path ticketsFile = Files.writeString(directory.resolve(Constants.TICKETS_FILENAME), ticketsJSON);
+        organizationRepository.loadDatabases(organizationsFile.toString(), Organization.class);
+        userRepository.loadDatabases(usersFile.toString(), User.class);
+        ticketRepository.loadDatabases(ticketsFile.toString(), Ticket.class);
+    }
+
+    @Test
+    public void testLinkToOne() throws InvalidFieldNameException {
+        // Execute code
+        JoinIndex joins = JoinIndex.build(organizationRepository, userRepository, ticketRepository);
+        Set<User> users = userRepository.findByFieldValue(Entity.FIELD_ID, ALL);
+        Set<Ticket> tickets = ticketRepository.findByFieldValue(Entity.FIELD_ID, ALL);
+
+        // Validate results
+        assertEquals(Arrays.asList("Enthaze", null, null), namesOf(joins.organizationsOfUsers(users)));
+        assertEquals(Arrays.asList("Enthaze", null, null), namesOf(joins.organizationsOfTickets(tickets)));
+        assertEquals(Arrays.asList("Francisca Rasmussen", null, "Francisca Rasmussen"),
+                userNamesOf(joins.submittersOf(tickets)));
+        assertEquals(Arrays.asList("Ingrid Wagner", null, null), userNamesOf(joins.assigneesOf(tickets)));
+        // Tickets a and c share their submitter, which is built once
+        List<User> submitters = joins.submittersOf(tickets);
+        assertSame(submitters.get(0), submitters.get(2));
+
+    }
+
+    @Test
+    public void testLinkToMany() throws InvalidFieldNameException {
+        // Execute code
+        JoinIndex joins = JoinIndex.build(organizationRepository, userRepository, ticketRepository);
+        Set<Organization> organizations = organizationRepository.findByFieldValue(Entity.FIELD_ID, ALL);
+        Set<User> users = userRepository.findByFieldValue(Entity.FIELD_ID, ALL);
+
+        // Validate results
+        assertEquals(Arrays.asList(List.of("Francisca Rasmussen"), Collections.emptyList()),
+                joins.usersOfOrganizations(organizations).stream().map(this::userNamesOf)
+                        .collect(Collectors.toList()));
+        assertEquals(Arrays.asList(List.of("a"), Collections.emptyList()),
+                joins.ticketsOfOrganizations(organizations).stream().map(this::idsOf).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(List.of("a", "c"), Collections.emptyList(), Collections.emptyList()),
+                joins.ticketsSubmittedBy(users).stream().map(this::idsOf).collect(Collectors.toList()));
+
+    }
+
+    @Test
+    public void testRebuildAfterReload() throws IOException, InvalidFieldNameException {
+        // Mock behaviour of external dependencies
+        JoinIndex joins = JoinIndex.build(organizationRepository, userRepository, ticketRepository);
+        Files.writeString(usersFile, "{\"_id\": 4,\"name\": \"Rose Newton\",\"organization_id\": 102}\n",
+                StandardOpenOption.APPEND);
+
+        // Execute code
+        userRepository.refreshDatabases(usersFile.toString(), User.class);
+        Set<User> users = userRepository.findByFieldValue(Entity.FIELD_ID, ALL);
+        JoinIndex rebuilt = JoinIndex.build(organizationRepository, userRepository, ticketRepository);
+
+        // Validate results
+        // Users of the new generation are not linked by the join index of the previous one
+        assertNull(joins.organizationsOfUsers(users));
+        assertEquals(Arrays.asList("Enthaze", null, null, "Nutralab"), namesOf(rebuilt.organizationsOfUsers(users)));
+        assertEquals(Arrays.asList(List.of("Francisca Rasmussen"), List.of("Rose Newton")),
+                rebuilt.usersOfOrganizations(organizationRepository.findByFieldValue(Entity.FIELD_ID, ALL))
+                        .stream().map(this::userNamesOf).collect(Collectors.toList()));
+
+    }
+
+    private List<String> namesOf(List<Organization> organizations) {
+        return organizations.stream().map(organization -> organization == null ? null : organization.getName())
+                .collect(Collectors.toList());
+    }
+
+    private List<String> userNamesOf(List<User> users) {
+        return users.stream().map(user -> user == null ? null : user.getName()).collect(Collectors.toList());
+    }
+
+    private List<String> idsOf(List<Ticket> tickets) {
+        return tickets.stream().map(Ticket::getId).collect(Collectors.toList());
+    }
+
+}
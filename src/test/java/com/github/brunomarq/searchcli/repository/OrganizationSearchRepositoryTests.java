@@ -2,19 +2,40 @@ package com.github.brunomarq.searchcli.repository;
 
 import static org.junit.Assert.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.brunomarq.searchcli.domain.Organization;
 import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.exception.InvalidQueryException;
+import com.github.brunomarq.searchcli.exception.TooManyGroupsException;
+import com.github.brunomarq.searchcli.query.Query;
+import com.github.brunomarq.searchcli.query.QueryParser;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
@@ -42,6 +63,231 @@ public class OrganizationSearchRepositoryTests {
         loadOrganizationInvertedIndex();
     }
 
+    @Test
+    public void testLoadDatabasesInParallelChunks() throws IOException, URISyntaxException {
+        final String filepath = new File(getClass().getClassLoader().getResource("organizations.json").toURI())
+                .getAbsolutePath();
+
+        organizationRepository.setParallelLoadThreshold(0);
+        try {
+            organizationRepository.loadDatabases(filepath, Organization.class);
+        } finally {
+            organizationRepository.setParallelLoadThreshold(SearchRepository.DEFAULT_PARALLEL_LOAD_THRESHOLD);
+        }
+
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            Organization expected = mapper.readValue(org104JSON, Organization.class);
+            assertEquals(expected, organizationRepository.findById(104l));
+            assertEquals(1, organizationRepository.findByFieldValue(Organization.FIELD_NAME, "Plasmos").size());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the record", e);
+        }
+    }
+
+    @Test
+    public void testSaveAndLoadSnapshot(@TempDir Path directory) throws IOException, URISyntaxException {
+        final Path filepath = directory.resolve("organizations.json");
+        Files.copy(Paths.get(getClass().getClassLoader().getResource("organizations.json").toURI()), filepath);
+
+        assertFalse(organizationRepository.loadSnapshot(filepath.toString(), Organization.class));
+        organizationRepository.loadDatabases(filepath.toString(), Organization.class);
+        organizationRepository.saveSnapshot(filepath.toString(), Organization.class);
+
+        loadOrganizationInvertedIndex();
+        assertTrue(organizationRepository.loadSnapshot(filepath.toString(), Organization.class));
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            Organization expected = mapper.readValue(org104JSON, Organization.class);
+            assertEquals(expected, organizationRepository.findById(104l));
+            assertEquals(expected, organizationRepository.findByFieldValue(Organization.FIELD_TAGS, "Hendricks")
+                    .iterator().next());
+            assertEquals(expected, organizationRepository.findByFieldValue(Organization.FIELD_ID, "104")
+                    .iterator().next());
+            assertEquals(expected, organizationRepository.findByTimeRange(Organization.FIELD_CREATED_AT,
+                    1458000000000l, 1459000000000l).iterator().next());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the record", e);
+        }
+
+        // A snapshot of a json file that has changed since is ignored
+        Files.write(filepath, "[]".getBytes());
+        assertFalse(organizationRepository.loadSnapshot(filepath.toString(), Organization.class));
+    }
+
+    @Test
+    public void testLoadDatabasesWithJsonArray(@TempDir Path directory) throws IOException {
+        final Path filepath = directory.resolve("organizations.json");
+        final Path invalidFilepath = directory.resolve("invalid.json");
+        ObjectMapper mapper = new ObjectMapper();
+        // Whitespace and nested arrays and objects within the records are skipped by the parser
+        Files.writeString(filepath, "[\n  " + org104JSON + " ,\n  {\"_id\": 105, \"name\": \"Nested\", "
+                + "\"tags\": [\"a\", \"b\"], \"details\": \"[{]}\"}\n]");
+        Files.writeString(invalidFilepath, "[" + org104JSON + ", 42]");
+        Organization expected = mapper.readValue(org104JSON, Organization.class);
+
+        organizationRepository.loadDatabases(filepath.toString(), Organization.class);
+
+        try {
+            assertEquals(expected, organizationRepository.findById(104l));
+            Organization nested = organizationRepository.findById(105l);
+            assertEquals(List.of("a", "b"), nested.getTags());
+            assertEquals("[{]}", nested.getDetails());
+            assertEquals(2, organizationRepository.findByFieldValue(Organization.FIELD_ID, "*").size());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the records", e);
+        }
+        Exception exception = assertThrows(JsonParseException.class,
+                () -> organizationRepository.loadDatabases(invalidFilepath.toString(), Organization.class));
+        assertTrue(exception.getMessage().contains("Expected a json object for each record"));
+    }
+
+    @Test
+    public void testLoadDatabasesWithJsonLines(@TempDir Path directory) throws IOException {
+        final Path filepath = directory.resolve("organizations.jsonl");
+        ObjectMapper mapper = new ObjectMapper();
+        List<?> records = mapper.readValue(getClass().getClassLoader().getResource("organizations.json"),
+                List.class);
+        StringBuilder lines = new StringBuilder();
+        for (Object record : records) {
+            lines.append(mapper.writeValueAsString(record)).append('\n');
+        }
+        Files.write(filepath, lines.toString().getBytes());
+        Organization expected = mapper.readValue(org104JSON, Organization.class);
+
+        for (long threshold : new long[] { SearchRepository.DEFAULT_PARALLEL_LOAD_THRESHOLD, 0 }) {
+            organizationRepository.setParallelLoadThreshold(threshold);
+            try {
+                organizationRepository.loadDatabases(filepath.toString(), Organization.class);
+            } finally {
+                organizationRepository.setParallelLoadThreshold(SearchRepository.DEFAULT_PARALLEL_LOAD_THRESHOLD);
+            }
+
+            try {
+                assertEquals(expected, organizationRepository.findById(104l));
+                assertEquals(1, organizationRepository.findByFieldValue(Organization.FIELD_NAME, "Plasmos").size());
+            } catch (InvalidFieldNameException e) {
+                fail("Should have found the record", e);
+            }
+        }
+    }
+
+    @Test
+    public void testLoadDatabasesWithGzip(@TempDir Path directory) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<?> records = mapper.readValue(getClass().getClassLoader().getResource("organizations.json"),
+                List.class);
+        StringBuilder lines = new StringBuilder();
+        for (Object record : records) {
+            lines.append(mapper.writeValueAsString(record)).append('\n');
+        }
+        byte[] content = lines.toString().getBytes();
+
+        // A json array in one member, json lines in one member per line and json
+        // lines in members cut in the middle of the lines
+        final Path arrayFile = directory.resolve("organizations.json.gz");
+        Files.write(arrayFile, gzip(Files.readAllBytes(Paths.get(getClass().getClassLoader()
+                .getResource("organizations.json").getPath())), Integer.MAX_VALUE));
+        final Path linesFile = directory.resolve("organizations.jsonl.gz");
+        ByteArrayOutputStream members = new ByteArrayOutputStream();
+        for (String line : lines.toString().split("(?<=\n)")) {
+            members.write(gzip(line.getBytes(), Integer.MAX_VALUE));
+        }
+        Files.write(linesFile, members.toByteArray());
+        final Path cutLinesFile = directory.resolve("cut.jsonl.gz");
+        Files.write(cutLinesFile, gzip(content, 100));
+        Organization expected = mapper.readValue(org104JSON, Organization.class);
+
+        for (Path filepath : new Path[] { arrayFile, linesFile, cutLinesFile }) {
+            for (long threshold : new long[] { SearchRepository.DEFAULT_PARALLEL_LOAD_THRESHOLD, 0 }) {
+                organizationRepository.setParallelLoadThreshold(threshold);
+                try {
+                    organizationRepository.loadDatabases(filepath.toString(), Organization.class);
+                } finally {
+                    organizationRepository.setParallelLoadThreshold(SearchRepository.DEFAULT_PARALLEL_LOAD_THRESHOLD);
+                }
+
+                try {
+                    assertEquals(expected, organizationRepository.findById(104l));
+                    assertEquals(records.size(),
+                            organizationRepository.findByFieldValue(Organization.FIELD_SHARED_TICKETS, "true").size()
+                                    + organizationRepository
+                                            .findByFieldValue(Organization.FIELD_SHARED_TICKETS, "false").size());
+                } catch (InvalidFieldNameException e) {
+                    fail("Should have found the record", e);
+                }
+            }
+        }
+    }
+
+    private static byte[] gzip(byte[] content, int memberSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int start = 0; start < content.length; start += memberSize) {
+            try (GZIPOutputStream member = new GZIPOutputStream(out) {
+                @Override
+                public void close() throws IOException {
+                    // Finish the member but leave the other stream open
+                    finish();
+                }
+            }) {
+                member.write(content, start, Math.min(memberSize, content.length - start));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testRefreshDatabasesWithAppendedJsonLines(@TempDir Path directory) throws IOException {
+        final Path filepath = directory.resolve("organizations.jsonl");
+        Files.write(filepath, (org104JSON + "\n").getBytes());
+        organizationRepository.loadDatabases(filepath.toString(), Organization.class);
+
+        // Appended lines are added to the index
+        Files.write(filepath,
+                "{\"_id\": 200, \"name\": \"Appended\", \"tags\": [\"Garner\"], \"created_at\": \"2015-01-01T00:00:00 +00:00\"}\n"
+                        .getBytes(),
+                StandardOpenOption.APPEND);
+        organizationRepository.refreshDatabases(filepath.toString(), Organization.class);
+        try {
+            assertEquals("Xylar", organizationRepository.findById(104l).getName());
+            assertEquals("Appended", organizationRepository.findById(200l).getName());
+            assertEquals(2, organizationRepository.findByFieldValue(Organization.FIELD_TAGS, "Garner").size());
+            assertEquals(2, organizationRepository
+                    .findByTimeRange(Organization.FIELD_CREATED_AT, Long.MIN_VALUE, Long.MAX_VALUE).size());
+            // Empty details in the first record, missing in the appended one
+            assertEquals(2, organizationRepository.findByFieldValue(Organization.FIELD_DETAILS, "").size());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the records", e);
+        }
+
+        // Edited lines reload the whole file
+        Files.write(filepath, "{\"_id\": 300, \"name\": \"Rewritten\"}\n".getBytes());
+        organizationRepository.refreshDatabases(filepath.toString(), Organization.class);
+        try {
+            assertEquals(null, organizationRepository.findById(104l));
+            assertEquals("Rewritten", organizationRepository.findById(300l).getName());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the record", e);
+        }
+    }
+
+    @Test
+    public void testFailedReloadKeepsPreviousIndex(@TempDir Path directory) throws IOException {
+        final Path filepath = directory.resolve("organizations.json");
+        Files.write(filepath, "[{\"_id\": 1, \"name\": \"Broken\"".getBytes());
+
+        loadOrganizationInvertedIndex();
+        assertThrows(IOException.class,
+                () -> organizationRepository.loadDatabases(filepath.toString(), Organization.class));
+
+        try {
+            assertEquals(1, organizationRepository.findByFieldValue(Organization.FIELD_NAME, "Xylar").size());
+            assertTrue(organizationRepository.findByFieldValue(Organization.FIELD_NAME, "Broken").isEmpty());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have kept the previous index", e);
+        }
+    }
+
     private void loadOrganizationInvertedIndex() {
         final String validFilepath = "organizations.json";
         try {
@@ -67,6 +313,296 @@ public class OrganizationSearchRepositoryTests {
         }
     }
 
+    @Test
+    public void testFindByIds() throws JsonMappingException, JsonProcessingException {
+        loadOrganizationInvertedIndex();
+        try {
+            Map<Long, Organization> orgs = organizationRepository.findByIds(new long[] { 104, 999, 104, 103 });
+
+            ObjectMapper mapper = new ObjectMapper();
+            Organization expected = mapper.readValue(org104JSON, Organization.class);
+            assertEquals(Set.of(103l, 104l), orgs.keySet());
+            assertEquals(expected, orgs.get(104l));
+            assertEquals("Plasmos", orgs.get(103l).getName());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the records", e);
+        }
+    }
+
+    @Test
+    public void testCountByFieldValue() {
+        loadOrganizationInvertedIndex();
+        try {
+            assertEquals(1, organizationRepository.countByFieldValue(Organization.FIELD_ID, "104"));
+            assertEquals(1, organizationRepository.countByFieldValue(Organization.FIELD_SHARED_TICKETS, "false"));
+            assertEquals(2, organizationRepository.countByFieldValue(Organization.FIELD_NAME, "*"));
+            assertEquals(0, organizationRepository.countByFieldValue(Organization.FIELD_NAME, "Unknown"));
+            Query query = QueryParser.parse("_id=104 OR shared_tickets=true");
+            assertEquals(organizationRepository.findByQuery(query).size(), organizationRepository.countByQuery(query));
+        } catch (InvalidFieldNameException | InvalidQueryException e) {
+            fail("Should have counted the records", e);
+        }
+        assertThrows(InvalidFieldNameException.class,
+                () -> organizationRepository.countByFieldValue("invalidField", "value"));
+    }
+
+    @Test
+    public void testAggregate() throws InvalidQueryException {
+        loadOrganizationInvertedIndex();
+        try {
+            Map<List<String>, Integer> groups = organizationRepository
+                    .aggregate(Arrays.asList(Organization.FIELD_SHARED_TICKETS, Organization.FIELD_DETAILS), null);
+            assertEquals(Map.of(List.of("true", "Non profit"), 1, List.of("false", ""), 1), groups);
+
+            groups = organizationRepository.aggregate(List.of(Organization.FIELD_TAGS),
+                    QueryParser.parse("shared_tickets=true"));
+            assertEquals(Map.of(List.of("Parrish"), 1, List.of("Lindsay"), 1, List.of("Armstrong"), 1,
+                    List.of("Vaughn"), 1), groups);
+
+            assertTrue(organizationRepository.aggregate(List.of(Organization.FIELD_NAME), QueryParser.parse("_id=999"))
+                    .isEmpty());
+        } catch (InvalidFieldNameException | TooManyGroupsException e) {
+            fail("Should have counted the records", e);
+        }
+        assertThrows(InvalidFieldNameException.class,
+                () -> organizationRepository.aggregate(List.of("invalidField"), null));
+        // Each _id is one of 3 groups, 2 ids or none, and 3^40 combinations cannot be numbered by a long
+        assertThrows(TooManyGroupsException.class,
+                () -> organizationRepository.aggregate(Collections.nCopies(40, Organization.FIELD_ID), null));
+    }
+
+    @Test
+    public void testAggregateWithRepeatedListItem(@TempDir Path directory) throws IOException {
+        final Path filepath = directory.resolve("organizations.json");
+        Files.write(filepath, ("[{\"_id\": 1, \"tags\": [\"b\", \"b\", \"a\"]}, {\"_id\": 2, \"tags\": [\"b\"]},"
+                + " {\"_id\": 3, \"tags\": []}]").getBytes());
+        organizationRepository.loadDatabases(filepath.toString(), Organization.class);
+        try {
+            Map<List<String>, Integer> groups = organizationRepository.aggregate(List.of(Organization.FIELD_TAGS),
+                    null);
+
+            // Every record is counted once per distinct item, as a search for the item finds it
+            assertEquals(Map.of(List.of("b"), 2, List.of("a"), 1, List.of(""), 1), groups);
+            assertEquals(organizationRepository.countByFieldValue(Organization.FIELD_TAGS, "b"),
+                    groups.get(List.of("b")));
+        } catch (InvalidFieldNameException | TooManyGroupsException e) {
+            fail("Should have counted the records", e);
+        }
+    }
+
+    @Test
+    public void testPage() throws InvalidQueryException {
+        loadOrganizationInvertedIndex();
+        try {
+            Collection<Organization> orgs = organizationRepository
+                    .findByQuery(QueryParser.parse("shared_tickets IN (true, false)"));
+            List<String> ids = orgs.stream().map(Organization::getId).collect(Collectors.toList());
+
+            assertEquals(2, ids.size());
+            assertEquals(ids.subList(1, 2), SearchRepository.page(orgs, 1, 1).stream().map(Organization::getId)
+                    .collect(Collectors.toList()));
+            assertEquals(ids, SearchRepository.page(orgs, 0, 0).stream().map(Organization::getId)
+                    .collect(Collectors.toList()));
+            assertTrue(SearchRepository.page(orgs, 3, 1).isEmpty());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the records", e);
+        }
+    }
+
+    @Test
+    public void findByFieldValueWithNumericIdField() throws JsonMappingException, JsonProcessingException {
+        loadOrganizationInvertedIndex();
+        try {
+            Set<Organization> orgs = organizationRepository.findByFieldValue(Organization.FIELD_ID, "104");
+
+            assertEquals(1, orgs.size());
+
+            Organization org = orgs.iterator().next();
+            ObjectMapper mapper = new ObjectMapper();
+            Organization expected = mapper.readValue(org104JSON, Organization.class);
+            assertEquals(expected, org);
+
+            // Only the value as written in the json file matches
+            assertTrue(organizationRepository.findByFieldValue(Organization.FIELD_ID, "0104").isEmpty());
+            assertTrue(organizationRepository.findByFieldValue(Organization.FIELD_ID, "+104").isEmpty());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the record", e);
+        }
+    }
+
+    @Test
+    public void findByTimeRange() throws JsonMappingException, JsonProcessingException {
+        // 2016-03-21T10:11:18 -11:00
+        final long createdAt = 1458594678000l;
+
+        loadOrganizationInvertedIndex();
+        try {
+            Set<Organization> orgs = organizationRepository.findByTimeRange(Organization.FIELD_CREATED_AT, createdAt,
+                    createdAt + 1000);
+
+            assertEquals(1, orgs.size());
+
+            Organization org = orgs.iterator().next();
+            ObjectMapper mapper = new ObjectMapper();
+            Organization expected = mapper.readValue(org104JSON, Organization.class);
+            assertEquals(expected, org);
+
+            // Both bounds are inclusive
+            assertEquals(0, organizationRepository
+                    .findByTimeRange(Organization.FIELD_CREATED_AT, createdAt + 1, createdAt + 1000).size());
+            assertEquals(1, organizationRepository
+                    .findByTimeRange(Organization.FIELD_CREATED_AT, Long.MIN_VALUE, createdAt).size());
+            assertEquals(2, organizationRepository
+                    .findByTimeRange(Organization.FIELD_CREATED_AT, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the record", e);
+        }
+
+        assertThrows(InvalidFieldNameException.class,
+                () -> organizationRepository.findByTimeRange(Organization.FIELD_NAME, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testFindByText(@TempDir Path directory) throws IOException {
+        final Path filepath = directory.resolve("organizations.jsonl");
+        Files.write(filepath, ("{\"_id\": 1, \"name\": \"Short\", \"details\": \"Alpha beta\"}\n"
+                + "{\"_id\": 2, \"name\": \"Repeated\", \"details\": \"alpha, ALPHA gamma delta\"}\n"
+                + "{\"_id\": 3, \"name\": \"Unrelated\", \"details\": \"Betas\"}\n").getBytes());
+        organizationRepository.loadDatabases(filepath.toString(), Organization.class);
+        try {
+            // The term repeated in a longer text ranks first
+            assertEquals(Arrays.asList("Repeated", "Short"),
+                    namesOf(organizationRepository.findByText("", "alpha", 10)));
+            assertEquals(Arrays.asList("Repeated"), namesOf(organizationRepository.findByText("", "alpha", 1)));
+            // Plurals and case are ignored, and the term in a shorter text ranks first
+            assertEquals(Arrays.asList("Unrelated", "Short"),
+                    namesOf(organizationRepository.findByText(Organization.FIELD_DETAILS, "BETA", 10)));
+            assertTrue(organizationRepository.findByText("", "omega", 10).isEmpty());
+
+            // Ranking is the same once restored from a snapshot
+            organizationRepository.saveSnapshot(filepath.toString(), Organization.class);
+            loadOrganizationInvertedIndex();
+            assertTrue(organizationRepository.loadSnapshot(filepath.toString(), Organization.class));
+            assertEquals(Arrays.asList("Repeated", "Short"),
+                    namesOf(organizationRepository.findByText("", "alpha", 10)));
+
+            // Appended lines are searchable
+            Files.write(filepath, "{\"_id\": 4, \"name\": \"Appended\", \"details\": \"omega\"}\n".getBytes(),
+                    StandardOpenOption.APPEND);
+            organizationRepository.refreshDatabases(filepath.toString(), Organization.class);
+            assertEquals(Arrays.asList("Appended"), namesOf(organizationRepository.findByText("", "omegas", 10)));
+            assertEquals(Arrays.asList("Repeated", "Short"),
+                    namesOf(organizationRepository.findByText("", "alpha", 10)));
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the records", e);
+        }
+
+        assertThrows(InvalidFieldNameException.class,
+                () -> organizationRepository.findByText(Organization.FIELD_NAME, "alpha", 10));
+    }
+
+    private static List<String> namesOf(Collection<Organization> organizations) {
+        return organizations.stream().map(Organization::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void findByFieldValueWithWildcards() throws JsonMappingException, JsonProcessingException {
+        loadOrganizationInvertedIndex();
+        try {
+            Set<Organization> orgs = organizationRepository.findByFieldValue(Organization.FIELD_NAME, "Xy*");
+
+            assertEquals(1, orgs.size());
+
+            Organization org = orgs.iterator().next();
+            ObjectMapper mapper = new ObjectMapper();
+            Organization expected = mapper.readValue(org104JSON, Organization.class);
+            assertEquals(expected, org);
+
+            assertEquals(1, organizationRepository.findByFieldValue(Organization.FIELD_NAME, "*mos").size());
+            assertEquals(1, organizationRepository.findByFieldValue(Organization.FIELD_NAME, "P?as*s").size());
+            assertEquals(2, organizationRepository.findByFieldValue(Organization.FIELD_NAME, "*").size());
+            assertEquals(2, organizationRepository.findByFieldValue(Organization.FIELD_ID, "10?").size());
+            // Any item of an array field may match
+            assertEquals(1, organizationRepository.findByFieldValue(Organization.FIELD_TAGS, "Hen*").size());
+            // Values are matched with their case
+            assertTrue(organizationRepository.findByFieldValue(Organization.FIELD_NAME, "xy*").isEmpty());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the record", e);
+        }
+    }
+
+    @Test
+    public void findByFieldValueWithEscapedCharacters(@TempDir Path directory) throws IOException {
+        final Path filepath = directory.resolve("organizations.json");
+        Files.write(filepath, ("[{\"_id\": 1, \"name\": \"Star*Corp\"}, {\"_id\": 2, \"name\": \"StarCorp\"},"
+                + " {\"_id\": 3, \"name\": \"~Tilde\"}]").getBytes());
+        organizationRepository.loadDatabases(filepath.toString(), Organization.class);
+        try {
+            // Escaped wildcards are literal, whether or not the value holds other wildcards
+            assertEquals(Arrays.asList("Star*Corp"),
+                    namesOf(organizationRepository.findByFieldValue(Organization.FIELD_NAME, "Star\\*Corp")));
+            assertEquals(Arrays.asList("Star*Corp"),
+                    namesOf(organizationRepository.findByFieldValue(Organization.FIELD_NAME, "St?r\\*Corp")));
+            assertEquals(Arrays.asList("Star*Corp", "StarCorp"),
+                    namesOf(organizationRepository.findByFieldValue(Organization.FIELD_NAME, "Star*Corp")));
+            // An escaped ~ is looked for as it is
+            assertEquals(Arrays.asList("~Tilde"),
+                    namesOf(organizationRepository.findByFieldValue(Organization.FIELD_NAME, "\\~Tilde")));
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the record", e);
+        }
+    }
+
+    @Test
+    public void findByFieldValueWithFuzzyMatching() throws JsonMappingException, JsonProcessingException {
+        loadOrganizationInvertedIndex();
+        try {
+            Set<Organization> orgs = organizationRepository.findByFieldValue(Organization.FIELD_NAME, "~xylr");
+
+            assertEquals(1, orgs.size());
+
+            Organization org = orgs.iterator().next();
+            ObjectMapper mapper = new ObjectMapper();
+            Organization expected = mapper.readValue(org104JSON, Organization.class);
+            assertEquals(expected, org);
+
+            // Longer values allow up to 2 edits, short ones none
+            assertEquals(1, organizationRepository.findByFieldValue(Organization.FIELD_NAME, "~Plasma").size());
+            assertTrue(organizationRepository.findByFieldValue(Organization.FIELD_NAME, "~Plasm").isEmpty());
+            assertTrue(organizationRepository.findByFieldValue(Organization.FIELD_NAME, "~Xy").isEmpty());
+            // An escaped ~ is looked for as it is
+            assertTrue(organizationRepository.findByFieldValue(Organization.FIELD_NAME, "\\~Xylar").isEmpty());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the record", e);
+        }
+    }
+
+    @Test
+    public void testFindByQuery() throws InvalidQueryException {
+        loadOrganizationInvertedIndex();
+        try {
+            assertEquals(Arrays.asList("Plasmos"), namesOf(organizationRepository
+                    .findByQuery(QueryParser.parse("details='Non profit' AND shared_tickets=true"))));
+            assertEquals(Arrays.asList("Xylar"), namesOf(organizationRepository
+                    .findByQuery(QueryParser.parse("tags IN (Garner, Parrish) and not shared_tickets=true"))));
+            assertEquals(Arrays.asList("Plasmos", "Xylar"), namesOf(organizationRepository
+                    .findByQuery(QueryParser.parse("_id IN (103, 104) OR details=\"\""))));
+            assertEquals(Arrays.asList("Xylar"), namesOf(organizationRepository
+                    .findByQuery(QueryParser.parse("(name=Xylar OR name=Plas*) AND NOT tags=Parrish"))));
+            assertEquals(Arrays.asList("Xylar"), namesOf(organizationRepository
+                    .findByQuery(QueryParser.parse("NOT (NOT name=~Xilar)"))));
+            assertEquals(Arrays.asList("Plasmos"), namesOf(organizationRepository
+                    .findByQuery(QueryParser.parse("NOT shared_tickets=false"))));
+            assertTrue(organizationRepository
+                    .findByQuery(QueryParser.parse("name=Xylar AND name IN (Plasmos, Enthaze)")).isEmpty());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the records", e);
+        }
+
+        assertThrows(InvalidFieldNameException.class,
+                () -> organizationRepository.findByQuery(QueryParser.parse("name=Xylar AND invalid=value")));
+    }
+
     @Test
     public void findByFieldValueWithStringTypeField() throws JsonMappingException, JsonProcessingException {
         final String name = "Xylar";
@@ -105,6 +641,47 @@ public class OrganizationSearchRepositoryTests {
         }
     }
 
+    @Test
+    public void findByFieldValueWithMissingField(@TempDir Path directory) throws IOException {
+        final Path filepath = directory.resolve("organizations.jsonl");
+        Files.write(filepath, ("{\"_id\": 1, \"name\": \"Null\", \"details\": null, \"tags\": null}\n"
+                + "{\"_id\": 2, \"name\": \"Missing\"}\n"
+                + "{\"_id\": 3, \"name\": \"Empty\", \"details\": \"\", \"tags\": []}\n"
+                + "{\"_id\": 4, \"name\": \"Present\", \"details\": \"MegaCorp\", \"tags\": [null, \"West\"]}\n"
+                + "{\"_id\": 5, \"name\": \"Null tag\", \"details\": \"MegaCorp\", \"tags\": [null]}\n")
+                        .getBytes());
+
+        for (long threshold : new long[] { SearchRepository.DEFAULT_PARALLEL_LOAD_THRESHOLD, 0 }) {
+            organizationRepository.setParallelLoadThreshold(threshold);
+            try {
+                organizationRepository.loadDatabases(filepath.toString(), Organization.class);
+            } finally {
+                organizationRepository.setParallelLoadThreshold(SearchRepository.DEFAULT_PARALLEL_LOAD_THRESHOLD);
+            }
+            assertMissingFields();
+        }
+
+        organizationRepository.saveSnapshot(filepath.toString(), Organization.class);
+        loadOrganizationInvertedIndex();
+        assertTrue(organizationRepository.loadSnapshot(filepath.toString(), Organization.class));
+        assertMissingFields();
+    }
+
+    private void assertMissingFields() {
+        try {
+            assertEquals(Arrays.asList("Null", "Missing", "Empty"),
+                    namesOf(organizationRepository.findByFieldValue(Organization.FIELD_DETAILS, "")));
+            assertEquals(Arrays.asList("Null", "Missing", "Empty", "Null tag"),
+                    namesOf(organizationRepository.findByFieldValue(Organization.FIELD_TAGS, "")));
+            assertEquals(5, organizationRepository.findByFieldValue(Organization.FIELD_URL, "").size());
+            assertTrue(organizationRepository.findByFieldValue(Organization.FIELD_ID, "").isEmpty());
+            assertTrue(organizationRepository.findByFieldValue(Organization.FIELD_TAGS, "null").isEmpty());
+            assertEquals(Arrays.asList(null, "West"), organizationRepository.findById(4l).getTags());
+        } catch (InvalidFieldNameException e) {
+            fail("Should have found the records", e);
+        }
+    }
+
     @Test
     public void findByFieldValueWithBooleanField() throws JsonMappingException, JsonProcessingException {
 
@@ -0,0 +1,137 @@
+package com.github.brunomarq.searchcli.repository;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.brunomarq.searchcli.domain.User;
+
+import org.junit.jupiter.api.Test;
+
+public class RecordStoreTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static String user1JSON = "{\"_id\": 1,\"name\": \"Francisca Rasmussen\",\"active\": true,\"verified\": false,\"shared\": true,\"organization_id\": 119,\"tags\": [\"Springville\",\"Sutton\"],\"suspended\": true,\"role\": \"admin\"}";
+
+    private static String user2JSON = "{\"_id\": 2,\"name\": \"Cross Barlow\",\"active\": false,\"verified\": true,\"organization_id\": null,\"tags\": [],\"role\": \"admin\"}";
+
+    @Test
+    public void testGetBuildsEqualRecords() throws JsonProcessingException {
+        // Mock behaviour of external dependencies
+        User user1 = MAPPER.readValue(user1JSON, User.class);
+        User user2 = MAPPER.readValue(user2JSON, User.class);
+        TermDictionary dictionary = new TermDictionary();
+        RecordStore<User> store = new RecordStore<>(User::new);
+
+        // Execute code
+        store.add(user1, dictionary);
+        store.add(user2, dictionary);
+        User read1 = store.get(0, dictionary);
+        User read2 = store.get(1, dictionary);
+
+        // Validate results
+        assertEquals(2, store.size());
+        assertEquals(user1, read1);
+        assertNotSame(read1, store.get(0, dictionary));
+        assertTrue(read1.isActive());
+        assertFalse(read1.isVerified());
+        assertTrue(read1.isSuspended());
+        assertEquals(Long.valueOf(119), read1.getOrganizationId());
+        assertEquals(user2, read2);
+        assertFalse(read2.isActive());
+        assertTrue(read2.isVerified());
+        assertNull(read2.getOrganizationId());
+        assertNull(read2.getUrl());
+        assertEquals(Collections.emptyList(), read2.getTags());
+        // The role is held once whatever the number of records holding it
+        assertEquals(dictionary.find("admin"), store.getColumn(User.FIELD_ROLE).getCode(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(2, dictionary));
+
+    }
+
+    @Test
+    public void testAddAllTranslatesCodes() throws JsonProcessingException {
+        // Mock behaviour of external dependencies
+        User user1 = MAPPER.readValue(user1JSON, User.class);
+        User user2 = MAPPER.readValue(user2JSON, User.class);
+        TermDictionary dictionary = new TermDictionary();
+        RecordStore<User> store = new RecordStore<>(User::new);
+        store.add(user1, dictionary);
+        TermDictionary otherDictionary = new TermDictionary();
+        RecordStore<User> other = new RecordStore<>(User::new);
+        other.add(user2, otherDictionary);
+        int[] codeMap = new int[otherDictionary.size()];
+        for (int code = 0; code < codeMap.length; code++) {
+            codeMap[code] = dictionary.intern(otherDictionary.get(code));
+        }
+
+        // Execute code
+        RecordStore<User> merged = store.copy();
+        merged.addAll(other, codeMap);
+
+        // Validate results
+        assertEquals(1, store.size());
+        assertEquals(2, merged.size());
+        assertEquals(user1, merged.get(0, dictionary));
+        assertEquals(user2, merged.get(1, dictionary));
+
+    }
+
+    @Test
+    public void testColumnRoundTrip() {
+        // Mock behaviour of external dependencies
+        TermDictionary dictionary = new TermDictionary();
+        RecordColumn longs = new RecordColumn();
+        RecordColumn booleans = new RecordColumn();
+        RecordColumn lists = new RecordColumn();
+        List<String> items = Arrays.asList("a", null, "a");
+
+        // Execute code
+        for (Object value : Arrays.asList(null, Long.MAX_VALUE, 0L, null)) {
+            longs.add(value, dictionary);
+        }
+        for (Object value : Arrays.asList(null, true, false)) {
+            booleans.add(value, dictionary);
+        }
+        for (Object value : Arrays.asList(null, Collections.emptyList(), items)) {
+            lists.add(value, dictionary);
+        }
+
+        // Validate results
+        assertEquals(RecordColumn.Kind.LONG, longs.getKind());
+        assertEquals(Arrays.asList(null, Long.MAX_VALUE, 0L, null), Arrays.asList(longs.get(0, dictionary),
+                longs.get(1, dictionary), longs.get(2, dictionary), longs.get(3, dictionary)));
+        assertEquals(RecordColumn.Kind.BOOLEAN, booleans.getKind());
+        assertEquals(Arrays.asList(null, true, false), Arrays.asList(booleans.get(0, dictionary),
+                booleans.get(1, dictionary), booleans.get(2, dictionary)));
+        assertEquals(RecordColumn.Kind.LIST, lists.getKind());
+        assertNull(lists.get(0, dictionary));
+        assertEquals(Collections.emptyList(), lists.get(1, dictionary));
+        assertEquals(items, lists.get(2, dictionary));
+        assertEquals(3, lists.getItemCount());
+
+    }
+
+    @Test
+    public void testOfWithShortColumn() {
+        // Mock behaviour of external dependencies
+        RecordColumn column = new RecordColumn();
+        column.add(1L, new TermDictionary());
+
+        // Validate results
+        assertThrows(IllegalArgumentException.class,
+                () -> RecordStore.of(User::new, Collections.singletonList(User.FIELD_ID), List.of(column), 2));
+
+    }
+
+}
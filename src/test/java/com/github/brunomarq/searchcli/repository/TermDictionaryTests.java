@@ -0,0 +1,129 @@
+package com.github.brunomarq.searchcli.repository;
+
+import static org.junit.Assert.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.brunomarq.searchcli.domain.Organization;
+
+import org.junit.jupiter.api.Test;
+
+public class TermDictionaryTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testInternKeepsOneInstance() {
+        // Mock behaviour of external dependencies
+        TermDictionary dictionary = new TermDictionary();
+        String first = new String("pending");
+        String second = new String("pending");
+
+        // Execute code
+        int code = dictionary.intern(first);
+
+        // Validate results
+        assertEquals(code, dictionary.intern(second));
+        assertSame(first, dictionary.canonical(second));
+        assertSame(first, dictionary.get(code));
+        assertEquals(1, dictionary.size());
+
+    }
+
+    @Test
+    public void testFindUnknownTerm() {
+        // Mock behaviour of external dependencies
+        TermDictionary dictionary = new TermDictionary();
+        dictionary.intern("open");
+
+        // Validate results
+        assertEquals(-1, dictionary.find("closed"));
+        assertEquals(-1, new TermDictionary().find("open"));
+        assertEquals(-1, TermDictionary.of(new String[0]).find("open"));
+        assertEquals(1, dictionary.size());
+
+    }
+
+    @Test
+    public void testCodesStableWhileGrowing() {
+        // Mock behaviour of external dependencies
+        TermDictionary dictionary = new TermDictionary();
+
+        // Execute code
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dictionary.intern("term" + i));
+        }
+        dictionary.trim();
+        int added = dictionary.intern("added");
+
+        // Validate results
+        assertEquals(1000, added);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dictionary.find("term" + i));
+            assertEquals("term" + i, dictionary.get(i));
+        }
+        assertEquals(1001, dictionary.size());
+
+    }
+
+    @Test
+    public void testCopyLeavesOriginalUnchanged() {
+        // Mock behaviour of external dependencies
+        TermDictionary dictionary = new TermDictionary();
+        dictionary.intern("open");
+        dictionary.trim();
+
+        // Execute code
+        TermDictionary copy = dictionary.copy();
+        int added = copy.intern("solved");
+
+        // Validate results
+        assertEquals(0, copy.find("open"));
+        assertEquals(1, added);
+        assertEquals(-1, dictionary.find("solved"));
+        assertEquals(1, dictionary.size());
+
+    }
+
+    @Test
+    public void testOfRestoresCodes() {
+        // Execute code
+        TermDictionary dictionary = TermDictionary.of(new String[] { "a", "b", "c" });
+
+        // Validate results
+        assertEquals(2, dictionary.find("c"));
+        assertEquals(3, dictionary.intern("d"));
+        assertThrows(IllegalArgumentException.class, () -> TermDictionary.of(new String[] { "a", "a" }));
+
+    }
+
+    @Test
+    public void testMergeKeepsCodesOfFirstIndex() throws JsonProcessingException {
+        // Mock behaviour of external dependencies
+        InvertedIndex<Organization> index = new InvertedIndex<>(Organization::new);
+        index.add(MAPPER.readValue("{\"_id\": 101,\"name\": \"Enthaze\",\"tags\": [\"Fulton\",\"West\"]}",
+                Organization.class));
+        InvertedIndex<Organization> other = new InvertedIndex<>(Organization::new);
+        other.add(MAPPER.readValue("{\"_id\": 102,\"name\": \"Nutralab\",\"tags\": [\"West\",\"Cherry\"]}",
+                Organization.class));
+        int fulton = index.getDictionary().find("Fulton");
+        int west = index.getDictionary().find("West");
+
+        // Execute code
+        index.merge(other);
+
+        // Validate results
+        TermDictionary dictionary = index.getDictionary();
+        assertEquals(fulton, dictionary.find("Fulton"));
+        assertEquals(west, dictionary.find("West"));
+        assertEquals("Nutralab", index.getRecords().get(1).getName());
+        assertEquals(List.of("West", "Cherry"), index.getRecords().get(1).getTags());
+        assertSame(dictionary.get(west), index.getRecords().get(1).getTags().get(0));
+
+    }
+
+}
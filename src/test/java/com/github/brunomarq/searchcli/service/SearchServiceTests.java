@@ -1,33 +1,43 @@
 package com.github.brunomarq.searchcli.service;
 
 import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.github.brunomarq.searchcli.domain.Organization;
 import com.github.brunomarq.searchcli.domain.Ticket;
 import com.github.brunomarq.searchcli.domain.User;
+import com.github.brunomarq.searchcli.dto.GroupDTO;
 import com.github.brunomarq.searchcli.dto.OrganizationDTO;
+import com.github.brunomarq.searchcli.dto.PageDTO;
 import com.github.brunomarq.searchcli.dto.TicketDTO;
 import com.github.brunomarq.searchcli.dto.UserDTO;
 import com.github.brunomarq.searchcli.exception.InvalidFieldNameException;
+import com.github.brunomarq.searchcli.exception.TooManyGroupsException;
 import com.github.brunomarq.searchcli.repository.SearchRepository;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -66,6 +76,47 @@ public class SearchServiceTests {
         assertThrows(IOException.class, () -> searchService.loadDatabase(invalidDirectory));
     }
 
+    @Test
+    public void testLoadDatabaseWithOneRepositoryFailing() throws IOException {
+        final String directory = "valid";
+        // Mock behaviour of external dependencies
+        doNothing().when(userRepository).loadDatabases(directory + File.separator + "users.json", User.class);
+        doThrow(new IOException()).when(ticketRepository).loadDatabases(directory + File.separator + "tickets.json",
+                Ticket.class);
+        doNothing().when(organizationRepository).loadDatabases(directory + File.separator + "organizations.json",
+                Organization.class);
+
+        // Execute code
+        assertThrows(IOException.class, () -> searchService.loadDatabase(directory));
+
+        // Verify calls of external dependencies
+        verify(userRepository, times(1)).loadDatabases(directory + File.separator + "users.json", User.class);
+        verify(organizationRepository, times(1)).loadDatabases(directory + File.separator + "organizations.json",
+                Organization.class);
+    }
+
+    @Test
+    public void testReloadFileOnlyReloadsChangedRepository() throws IOException {
+        final String directory = "valid";
+        // Mock behaviour of external dependencies
+        doNothing().when(ticketRepository).refreshDatabases(directory + File.separator + "tickets.json",
+                Ticket.class);
+
+        // Execute code
+        boolean reloaded = searchService.reloadFile(directory, "tickets.json");
+        boolean ignored = searchService.reloadFile(directory, "tickets.json.snapshot");
+
+        // Validate results
+        Assertions.assertThat(reloaded).isTrue();
+        Assertions.assertThat(ignored).isFalse();
+
+        // Verify calls of external dependencies
+        verify(ticketRepository, times(1)).refreshDatabases(directory + File.separator + "tickets.json",
+                Ticket.class);
+        verify(userRepository, times(0)).refreshDatabases(anyString(), eq(User.class));
+        verify(organizationRepository, times(0)).refreshDatabases(anyString(), eq(Organization.class));
+    }
+
     @Test
     public void testLoadDatabase() throws IOException {
         final String directory = "valid";
@@ -104,11 +155,11 @@ public class SearchServiceTests {
 
         // Mock behaviour of external dependencies
         when(userRepository.findByFieldValue(anyString(), anyString())).thenReturn(users);
-        when(organizationRepository.findById(anyLong())).thenReturn(org);
+        when(organizationRepository.findByIds(any())).thenReturn(Map.of(user.getOrganizationId(), org));
         when(ticketRepository.findByFieldValue(eq(Ticket.FIELD_SUBMITTER_ID), anyString())).thenReturn(tickets);
 
         // Execute code
-        List<UserDTO> userDTOs = searchService.searchUsers(anyString(), anyString());
+        List<UserDTO> userDTOs = searchService.searchUsers(anyString(), anyString(), 0, 0).getRecords();
 
         // Validate results
         Assertions.assertThat(userDTOs.size()).isEqualTo(users.size());
@@ -147,7 +198,8 @@ public class SearchServiceTests {
         when(ticketRepository.findByFieldValue(eq(Ticket.FIELD_ORGANIZATION_ID), anyString())).thenReturn(tickets);
 
         // Execute code
-        List<OrganizationDTO> organizationDTOs = searchService.searchOrganizations(anyString(), anyString());
+        List<OrganizationDTO> organizationDTOs = searchService.searchOrganizations(anyString(), anyString(), 0, 0)
+                .getRecords();
 
         // Validate results
         Assertions.assertThat(organizationDTOs.size()).isEqualTo(orgs.size());
@@ -184,20 +236,134 @@ public class SearchServiceTests {
 
         // Mock behaviour of external dependencies
         when(ticketRepository.findByFieldValue(anyString(), anyString())).thenReturn(tickets);
-        when(organizationRepository.findById(ticket.getOrganizationId())).thenReturn(org);
-        when(userRepository.findById(ticket.getSubmitterId())).thenReturn(submitter);
-        when(userRepository.findById(ticket.getAssigneeId())).thenReturn(assignee);
+        when(organizationRepository.findByIds(new long[] { ticket.getOrganizationId() }))
+                .thenReturn(Map.of(ticket.getOrganizationId(), org));
+        when(userRepository.findByIds(new long[] { ticket.getSubmitterId(), ticket.getAssigneeId() }))
+                .thenReturn(Map.of(ticket.getSubmitterId(), submitter, ticket.getAssigneeId(), assignee));
 
         // Execute code
-        List<TicketDTO> ticketDTOs = searchService.searchTickets(anyString(), anyString());
+        List<TicketDTO> ticketDTOs = searchService.searchTickets(anyString(), anyString(), 0, 0)
+                .getRecords();
 
         // Validate results
         Assertions.assertThat(ticketDTOs.size()).isEqualTo(tickets.size());
         TicketDTO ticketDTO = ticketDTOs.get(0);
         Assertions.assertThat(ticketDTO.getTicket().getId()).isEqualTo(ticket.getId());
 
+        Assertions.assertThat(ticketDTO.getOrganization().getId()).isEqualTo(org.getId());
+
         Assertions.assertThat(ticketDTO.getSubmitter().getId()).isEqualTo(submitter.getId());
 
         Assertions.assertThat(ticketDTO.getAssignee().getId()).isEqualTo(assignee.getId());
     }
+
+    @Test
+    public void testSearchTicketsLooksUpEachUserOnce() throws InvalidFieldNameException {
+        User submitter = new User();
+        submitter.setId("3");
+
+        User assignee = new User();
+        assignee.setId("4");
+
+        Set<Ticket> tickets = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setId(Integer.toString(i));
+            ticket.setSubmitterId(3l);
+            ticket.setAssigneeId(i == 0 ? 3l : 4l);
+            tickets.add(ticket);
+        }
+
+        // Mock behaviour of external dependencies
+        when(ticketRepository.findByFieldValue(anyString(), anyString())).thenReturn(tickets);
+        when(organizationRepository.findByIds(new long[0])).thenReturn(Map.of());
+        when(userRepository.findByIds(any())).thenReturn(Map.of(3l, submitter, 4l, assignee));
+
+        // Execute code
+        List<TicketDTO> ticketDTOs = searchService.searchTickets(Ticket.FIELD_SUBMITTER_ID, "3", 0, 0).getRecords();
+
+        // Validate results
+        Assertions.assertThat(ticketDTOs).hasSize(3);
+        for (TicketDTO ticketDTO : ticketDTOs) {
+            Assertions.assertThat(ticketDTO.getOrganization()).isNull();
+            Assertions.assertThat(ticketDTO.getSubmitter()).isSameAs(submitter);
+            Assertions.assertThat(ticketDTO.getAssignee().getId())
+                    .isEqualTo(Long.toString(ticketDTO.getTicket().getAssigneeId()));
+        }
+
+        // Verify calls of external dependencies
+        ArgumentCaptor<long[]> userIds = ArgumentCaptor.forClass(long[].class);
+        verify(userRepository, times(1)).findByIds(userIds.capture());
+        // Repeated ids are left to the repository, which looks each one up once
+        Assertions.assertThat(userIds.getValue()).containsOnly(3l, 4l);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void testSearchTicketsAssemblesOnlyThePage() throws InvalidFieldNameException {
+        Set<Ticket> tickets = new LinkedHashSet<>();
+        for (int i = 0; i < 5; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setId(Integer.toString(i));
+            ticket.setSubmitterId((long) i);
+            tickets.add(ticket);
+        }
+
+        // Mock behaviour of external dependencies
+        when(ticketRepository.findByFieldValue(anyString(), anyString())).thenReturn(tickets);
+        when(organizationRepository.findByIds(new long[0])).thenReturn(Map.of());
+        when(userRepository.findByIds(any())).thenReturn(Map.of());
+
+        // Execute code
+        PageDTO<TicketDTO> page = searchService.searchTickets(Ticket.FIELD_TYPE, "incident", 1, 2);
+
+        // Validate results
+        Assertions.assertThat(page.getTotal()).isEqualTo(5);
+        Assertions.assertThat(page.getOffset()).isEqualTo(1);
+        Assertions.assertThat(page.getRecords()).extracting(ticketDTO -> ticketDTO.getTicket().getId())
+                .containsExactly("1", "2");
+
+        // Verify calls of external dependencies
+        ArgumentCaptor<long[]> userIds = ArgumentCaptor.forClass(long[].class);
+        verify(userRepository, times(1)).findByIds(userIds.capture());
+        Assertions.assertThat(userIds.getValue()).containsExactlyInAnyOrder(1l, 2l);
+    }
+
+    @Test
+    public void testCountTicketsBuildsNoRecord() throws InvalidFieldNameException {
+        // Mock behaviour of external dependencies
+        when(ticketRepository.countByFieldValue(Ticket.FIELD_ORGANIZATION_ID, "101")).thenReturn(4);
+
+        // Execute code
+        int count = searchService.countTickets(Ticket.FIELD_ORGANIZATION_ID, "101");
+
+        // Validate results
+        Assertions.assertThat(count).isEqualTo(4);
+
+        // Verify calls of external dependencies
+        verify(ticketRepository, never()).findByFieldValue(anyString(), anyString());
+        verifyNoInteractions(userRepository, organizationRepository);
+    }
+
+    @Test
+    public void testAggregateUsersSortsLargestGroupFirst() throws InvalidFieldNameException, TooManyGroupsException {
+        Map<List<String>, Integer> groups = new LinkedHashMap<>();
+        groups.put(List.of("admin"), 24);
+        groups.put(List.of("end-user"), 26);
+        groups.put(List.of("agent"), 25);
+
+        // Mock behaviour of external dependencies
+        when(userRepository.aggregate(List.of(User.FIELD_ROLE), null)).thenReturn(groups);
+
+        // Execute code
+        List<GroupDTO> groupDTOs = searchService.aggregateUsers(List.of(User.FIELD_ROLE), null);
+
+        // Validate results
+        Assertions.assertThat(groupDTOs).extracting(GroupDTO::getValues).containsExactly(List.of("end-user"),
+                List.of("agent"), List.of("admin"));
+        Assertions.assertThat(groupDTOs).extracting(GroupDTO::getCount).containsExactly(26, 25, 24);
+
+        // Verify calls of external dependencies
+        verify(userRepository, never()).findByFieldValue(anyString(), anyString());
+    }
 }